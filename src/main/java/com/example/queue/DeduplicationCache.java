@@ -0,0 +1,227 @@
+package com.example.queue;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Remembers the deduplication ids sent to a queue for a time window, so that {@link MessageQueue}
+ * drops a message sent again within it.
+ *
+ * <p>
+ * Ids are kept as 64 bit fingerprints in open addressing sets of longs. The cache is split into lock
+ * stripes picked by the fingerprint, each stripe holds a few generations covering a slice of the window
+ * each. The oldest generation is dropped as a whole once the window moved past it, so an id is
+ * remembered for at least the window and at most one slice longer, and a lookup probes a fixed number
+ * of sets. A generation reaching its share of the maximum entries is retired early: a burst shortens
+ * the window instead of growing the cache.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class DeduplicationCache {
+
+	/** Attribute holding the deduplication id of a message, named as Amazon SQS names it. */
+	public static final String MESSAGE_DEDUPLICATION_ID = "MessageDeduplicationId";
+
+	static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+	private static final int GENERATIONS = 4;
+	private static final int INITIAL_SLOTS = 16;
+
+	private final long generationNanos;
+	private final int maxPerGeneration;
+	private final Stripe[] stripes;
+
+	/**
+	 * One lock each, generations are ordered from the newest to the oldest.
+	 */
+	private final class Stripe {
+		private final long[][] generations = new long[GENERATIONS][];
+		private final int[] sizes = new int[GENERATIONS];
+		private long started = System.nanoTime();
+
+		boolean add(long fingerprint, long now) {
+			advance(now);
+			for (int generation = 0; generation < GENERATIONS; generation++) {
+				if (contains(this.generations[generation], fingerprint))
+					return false;
+			}
+			if (this.sizes[0] >= DeduplicationCache.this.maxPerGeneration)
+				retire(1);
+			insert(fingerprint);
+			return true;
+		}
+
+		boolean remove(long fingerprint) {
+			for (int generation = 0; generation < GENERATIONS; generation++) {
+				if (delete(this.generations[generation], fingerprint)) {
+					this.sizes[generation]--;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int size() {
+			int size = 0;
+			for (int generation = 0; generation < GENERATIONS; generation++)
+				size += this.sizes[generation];
+			return size;
+		}
+
+		private void advance(long now) {
+			long elapsed = now - this.started;
+			long generationNanos = DeduplicationCache.this.generationNanos;
+			if (elapsed < generationNanos)
+				return;
+			retire((int) Math.min(GENERATIONS, elapsed / generationNanos));
+			this.started = now - elapsed % generationNanos;
+		}
+
+		/**
+		 * Drops the oldest generations, the new ones start empty and are allocated on first use.
+		 */
+		private void retire(int count) {
+			for (int generation = GENERATIONS - 1; generation >= 0; generation--) {
+				int from = generation - count;
+				this.generations[generation] = (from >= 0) ? this.generations[from] : null;
+				this.sizes[generation] = (from >= 0) ? this.sizes[from] : 0;
+			}
+		}
+
+		private void insert(long fingerprint) {
+			long[] slots = this.generations[0];
+			if (slots == null)
+				slots = this.generations[0] = new long[INITIAL_SLOTS];
+			else if ((this.sizes[0] + 1) * 2 > slots.length)
+				slots = this.generations[0] = grow(slots);
+			put(slots, fingerprint);
+			this.sizes[0]++;
+		}
+	}
+
+	/**
+	 * @param windowMillis, how long an id is remembered.
+	 * @param maxEntries, ids kept at most.
+	 */
+	DeduplicationCache(long windowMillis, int maxEntries) {
+		if (windowMillis <= 0)
+			throw new IllegalArgumentException("Deduplication window must be positive.");
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("Max entries must be positive.");
+		int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4);
+		this.generationNanos = (TimeUnit.MILLISECONDS.toNanos(windowMillis) + GENERATIONS - 2) / (GENERATIONS - 1);
+		this.maxPerGeneration = Math.max(1, maxEntries / (stripes * GENERATIONS));
+		this.stripes = new Stripe[stripes];
+		for (int i = 0; i < stripes; i++)
+			this.stripes[i] = new Stripe();
+	}
+
+	/**
+	 * Records the id unless it was seen within the window.
+	 * @param deduplicationId
+	 * @return false if the id is a duplicate
+	 */
+	boolean add(String deduplicationId) {
+		long fingerprint = fingerprint(deduplicationId);
+		Stripe stripe = stripe(fingerprint);
+		synchronized (stripe) {
+			return stripe.add(fingerprint, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Forgets the id, so that a message whose push failed after its id was recorded can be sent again.
+	 * @param deduplicationId
+	 * @return false if the id was not remembered
+	 */
+	boolean remove(String deduplicationId) {
+		long fingerprint = fingerprint(deduplicationId);
+		Stripe stripe = stripe(fingerprint);
+		synchronized (stripe) {
+			return stripe.remove(fingerprint);
+		}
+	}
+
+	/**
+	 * @return number of ids remembered
+	 */
+	int size() {
+		int size = 0;
+		for (Stripe stripe : this.stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	private static long fingerprint(String deduplicationId) {
+		long fingerprint = Hashing.murmur3_128().hashUnencodedChars(deduplicationId).asLong();
+		// Zero marks an empty slot
+		return (fingerprint == 0) ? 1 : fingerprint;
+	}
+
+	/**
+	 * High bits pick the stripe, low bits the slot.
+	 */
+	private Stripe stripe(long fingerprint) {
+		return this.stripes[(int) (fingerprint >>> 32) & (this.stripes.length - 1)];
+	}
+
+	private static boolean contains(long[] slots, long fingerprint) {
+		if (slots == null)
+			return false;
+		int mask = slots.length - 1;
+		for (int slot = (int) fingerprint & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			if (slots[slot] == fingerprint)
+				return true;
+		}
+		return false;
+	}
+
+	private static void put(long[] slots, long fingerprint) {
+		int mask = slots.length - 1;
+		int slot = (int) fingerprint & mask;
+		while (slots[slot] != 0)
+			slot = (slot + 1) & mask;
+		slots[slot] = fingerprint;
+	}
+
+	/**
+	 * Empties the slot of the fingerprint and shifts back the entries probed past it, so that lookups
+	 * still stop at the first empty slot.
+	 */
+	private static boolean delete(long[] slots, long fingerprint) {
+		if (slots == null)
+			return false;
+		int mask = slots.length - 1;
+		int slot = (int) fingerprint & mask;
+		while (slots[slot] != fingerprint) {
+			if (slots[slot] == 0)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		int free = slot;
+		for (int next = (free + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+			// Moved unless its home slot lies after the free one
+			int home = (int) slots[next] & mask;
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				slots[free] = slots[next];
+				free = next;
+			}
+		}
+		slots[free] = 0;
+		return true;
+	}
+
+	private static long[] grow(long[] slots) {
+		long[] grown = new long[slots.length << 1];
+		for (long fingerprint : slots) {
+			if (fingerprint != 0)
+				put(grown, fingerprint);
+		}
+		return grown;
+	}
+}
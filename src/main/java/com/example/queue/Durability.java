@@ -0,0 +1,76 @@
+package com.example.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a {@link FileQueue} forces written messages to disk before acknowledging them.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class Durability {
+
+	public enum Mode {
+		/** Never force, the OS writes the data back at its own pace. */
+		NONE,
+		/** Writers wait for a shared force issued once per batch of records or time window. */
+		GROUP_COMMIT,
+		/** Every write is forced before it is acknowledged. */
+		EVERY_WRITE
+	}
+
+	private static final Durability NONE = new Durability(Mode.NONE, 0, 0);
+	private static final Durability EVERY_WRITE = new Durability(Mode.EVERY_WRITE, 0, 1);
+
+	private final Mode mode;
+	private final long maxDelayMillis;
+	private final int maxRecords;
+
+	private Durability(Mode mode, long maxDelayMillis, int maxRecords) {
+		this.mode = mode;
+		this.maxDelayMillis = maxDelayMillis;
+		this.maxRecords = maxRecords;
+	}
+
+	public static Durability none() {
+		return NONE;
+	}
+
+	public static Durability everyWrite() {
+		return EVERY_WRITE;
+	}
+
+	/**
+	 * A batch is forced as soon as it holds maxRecords records or its first record waited for
+	 * maxDelay, whichever comes first. At most one batch is lost on a crash.
+	 * @param maxDelay
+	 * @param unit
+	 * @param maxRecords
+	 */
+	public static Durability groupCommit(long maxDelay, TimeUnit unit, int maxRecords) {
+		if (maxDelay < 0)
+			throw new IllegalArgumentException("Max delay can not be negative.");
+		if (maxRecords <= 0)
+			throw new IllegalArgumentException("Max records must be positive.");
+		return new Durability(Mode.GROUP_COMMIT, unit.toMillis(maxDelay), maxRecords);
+	}
+
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	public long getMaxDelayMillis() {
+		return this.maxDelayMillis;
+	}
+
+	public int getMaxRecords() {
+		return this.maxRecords;
+	}
+
+	@Override
+	public String toString() {
+		return this.mode == Mode.GROUP_COMMIT
+				? this.mode + "[maxDelayMillis=" + this.maxDelayMillis + ", maxRecords=" + this.maxRecords + "]"
+				: this.mode.toString();
+	}
+}
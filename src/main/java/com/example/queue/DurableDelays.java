@@ -0,0 +1,40 @@
+package com.example.queue;
+
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Implemented by the queues that persist their delayed messages. {@link MessageQueue} journals a
+ * delayed message through it when it is sent and drops it once the message was pushed, so that a
+ * restart neither loses a pending message nor delivers it early. Deadlines are wall clock
+ * milliseconds, they have to outlive the process.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public interface DurableDelays {
+
+	/**
+	 * Records the messages as pending with one write.
+	 * @param messages
+	 * @param deadline when the messages are delivered
+	 */
+	void delay(List<Message> messages, long deadline);
+
+	/**
+	 * Drops the pending records of the messages about to be pushed to the queue. Of the queues sharing
+	 * the records only one gets a message back, only it pushes the message.
+	 * @param receiptHandles
+	 * @return the receipt handles that were pending
+	 */
+	List<String> delivered(List<String> receiptHandles);
+
+	/**
+	 * Hands over the delayed messages found when the queue was opened and not due yet. The due ones
+	 * have already been pushed to the queue by then.
+	 * @param consumer receives each message with its deadline
+	 */
+	void recoverDelays(ObjLongConsumer<Message> consumer);
+}
@@ -0,0 +1,86 @@
+package com.example.queue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Implemented by the queues that persist the leases of their in-flight messages. {@link MessageQueue}
+ * then polls, requeues and deletes through it, so that a restart neither loses a message in flight
+ * nor delivers a deleted one again. Deadlines are wall clock milliseconds, they have to outlive the
+ * process.
+ *
+ * <p>
+ * Every lease counts as a receive of the message, the receive count is incremented before the lease
+ * is recorded.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public interface DurableLeases {
+
+	/**
+	 * Removes the head of the queue and records its lease in one step.
+	 * @param deadline when the message becomes visible again
+	 * @return the leased message, null if the queue is empty
+	 */
+	Message lease(long deadline);
+
+	/**
+	 * Leases up to maxMessages messages from the head of the queue under one lock.
+	 * @param deadline
+	 * @param maxMessages
+	 * @return the leased messages, empty if the queue is empty
+	 */
+	List<Message> lease(long deadline, int maxMessages);
+
+	/**
+	 * Waits up to the timeout for a message and leases it, parked without using CPU.
+	 * @param visibilityTimeout millis from the moment the message is leased
+	 * @param timeout
+	 * @param unit
+	 * @return the leased message, null if none arrived in time
+	 * @throws InterruptedException
+	 */
+	Message lease(long visibilityTimeout, long timeout, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * Puts messages back at the head of the queue once their lease expired and drops their leases.
+	 * Messages whose lease is gone or not due any more, deleted or extended meanwhile through another
+	 * queue sharing the leases, are left alone.
+	 * @param messages
+	 * @return the expired messages the queue had no room for, their leases are kept
+	 */
+	List<Message> expire(List<Message> messages);
+
+	/**
+	 * Moves the deadline of a running lease.
+	 * @param receiptHandle
+	 * @param deadline
+	 * @return false if no such lease exists
+	 */
+	boolean extend(String receiptHandle, long deadline);
+
+	/**
+	 * Drops the lease of a deleted message.
+	 * @param receiptHandle
+	 * @return false if no such lease exists
+	 */
+	boolean release(String receiptHandle);
+
+	/**
+	 * Drops the leases of deleted messages at once.
+	 * @param receiptHandles
+	 * @return number of receipt handles that held a lease
+	 */
+	int release(List<String> receiptHandles);
+
+	/**
+	 * Hands over the leases found when the queue was opened and still running. The expired ones have
+	 * already been put back in the queue by then.
+	 * @param consumer receives each message with its deadline
+	 */
+	void recover(ObjLongConsumer<Message> consumer);
+}
@@ -1,18 +1,18 @@
 package com.example.queue;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Optional;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.ObjLongConsumer;
 
 import com.amazonaws.services.sqs.model.Message;
 
@@ -20,226 +20,585 @@ import com.amazonaws.services.sqs.model.Message;
  * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a> 
  * @since 22-Aug-2017
  */
-public class FileQueue<T> implements BlockingDeque<T> {
+public class FileQueue<T> implements BlockingDeque<T>, DurableLeases, DurableDelays, Closeable {
 
-	private static final Logger LOG = Logger.getLogger(FileQueue.class.getName());
+	/** Root directory of the queues when none is given. */
+	public static final File DEFAULT_ROOT_DIRECTORY = new File("/var/queues");
+
+	private static final int REDELIVERY_SEGMENT_SIZE = 4 * 1024 * 1024;
 
 	private final String queueFolderName;
-	private File messagesFile;
+	private final QueueStore store;
+	private final QueueStore redelivery;
+	private final FileQueueLock lock;
+	private final LeaseJournal leaseJournal;
+	private final LeaseJournal delayJournal;
+	private volatile Durability durability = Durability.none();
+	private volatile GroupCommit groupCommit;
 
 	public FileQueue(String queueFolderName) {
-		this.queueFolderName = "/var/queues/" + queueFolderName;
-		init(this.queueFolderName);
+		this(queueFolderName, StorageMode.SINGLE_FILE);
+	}
+
+	public FileQueue(String queueFolderName, StorageMode storageMode) {
+		this(DEFAULT_ROOT_DIRECTORY, queueFolderName, storageMode);
+	}
+
+	/**
+	 * @param rootDirectory, directory holding the queue folder.
+	 * @param queueFolderName
+	 * @param storageMode
+	 */
+	public FileQueue(File rootDirectory, String queueFolderName, StorageMode storageMode) {
+		Objects.requireNonNull(rootDirectory, "Root directory can not be null.");
+		Objects.requireNonNull(storageMode, "Storage mode can not be null.");
+		this.queueFolderName = new File(rootDirectory, queueFolderName).getPath();
+		this.lock = FileQueueLock.forFolder(this.queueFolderName);
+		this.store = init(this.queueFolderName, storageMode);
+		this.redelivery = initRedelivery(this.queueFolderName);
+		this.leaseJournal = recoverLeases(this.queueFolderName);
+		this.delayJournal = recoverDelays(this.queueFolderName);
+	}
+
+	/**
+	 * Requeued messages go to a small segmented log of their own which is read before the store, so
+	 * putting a message back costs one append whatever the depth of the queue.
+	 */
+	private QueueStore initRedelivery(String queueFolderName) {
+		File redeliveryRoot = new File(queueFolderName, "redelivery");
+		if (!redeliveryRoot.exists())
+			redeliveryRoot.mkdirs();
+
+		this.lock.lock();
+		try {
+			return new SegmentedLogStore(redeliveryRoot.getPath(), REDELIVERY_SEGMENT_SIZE);
+		} finally {
+			this.lock.unlock();
+		}
 	}
 
-	private void init(String queueFolderName) {
+	private QueueStore init(String queueFolderName, StorageMode storageMode) {
 		File queueRoot = new File(queueFolderName);
 		if (!queueRoot.exists())
 			queueRoot.mkdirs();
 
-		this.messagesFile = new File(queueRoot.getPath() + "/messages");
-
-		if (!this.messagesFile.exists()) {
-			try {
-				this.messagesFile.createNewFile();
-			} catch (IOException e) {
-				LOG.log(Level.SEVERE, "Failed to create file [" + this.messagesFile.getPath() + "].");
-				throw new RuntimeException("Failed to create file [" + this.messagesFile.getPath() + "].", e);
+		this.lock.lock();
+		try {
+			switch (storageMode) {
+			case SEGMENTED_LOG:
+				return new SegmentedLogStore(queueFolderName);
+			case MAPPED_RING:
+				return new MappedRingStore(queueFolderName);
+			default:
+				return new SingleFileStore(queueFolderName);
 			}
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
-	@Override
-	public boolean offerFirst(T message) {
-		File lockFile = getLockFile(queueFolderName);
-		lock(lockFile);
+	/**
+	 * Puts the messages whose lease expired while no process served the queue back at its head, in one
+	 * pass over the lease journal. A crash before the journal is compacted delivers them twice rather
+	 * than losing them.
+	 */
+	private LeaseJournal recoverLeases(String queueFolderName) {
+		this.lock.lock();
 		try {
-			File tempFile = createTempFile();
-			writeMessage(message);
-			copyFile(messagesFile, tempFile, false);
-			String messagesFilePath = messagesFile.getPath();
-			messagesFile.delete();
-			tempFile.renameTo(new File(messagesFilePath));
+			LeaseJournal leaseJournal = new LeaseJournal(queueFolderName);
+			for (Message message : leaseJournal.expired(System.currentTimeMillis())) {
+				this.redelivery.append(message);
+			}
+			if (!leaseJournal.isEmpty())
+				leaseJournal.compact();
+			return leaseJournal;
 		} finally {
-			unlock(lockFile);
+			this.lock.unlock();
 		}
-		return true;
 	}
 
-	@Override
-	public boolean offerLast(T message) {
-		File lockFile = getLockFile(queueFolderName);
-		lock(lockFile);
+	/**
+	 * Pushes the delayed messages that fell due while no process served the queue, in one pass over the
+	 * <code>delayed</code> journal. A crash before the journal is compacted delivers them twice rather
+	 * than losing them.
+	 */
+	private LeaseJournal recoverDelays(String queueFolderName) {
+		this.lock.lock();
 		try {
-			writeMessage(message);
+			LeaseJournal delayJournal = new LeaseJournal(queueFolderName, "delayed");
+			List<Message> due = delayJournal.expired(System.currentTimeMillis());
+			if (!due.isEmpty())
+				this.store.append(due);
+			if (!delayJournal.isEmpty())
+				delayJournal.compact();
+			return delayJournal;
 		} finally {
-			unlock(lockFile);
+			this.lock.unlock();
 		}
-		return true;
+	}
+
+	/**
+	 * Sets how written messages, leases and delays are forced to disk, {@link Durability#none()} by
+	 * default.
+	 * @param durability
+	 */
+	public void withDurability(Durability durability) {
+		Objects.requireNonNull(durability, "Durability can not be null.");
+		this.groupCommit = durability.getMode() == Durability.Mode.GROUP_COMMIT
+				? new GroupCommit(this::forceFiles, durability.getMaxDelayMillis(), durability.getMaxRecords())
+				: null;
+		this.durability = durability;
+	}
+
+	/**
+	 * Puts the message in front of the queue through the redelivery log. Messages put back this way
+	 * come out in the order they were put back, ahead of the rest of the queue.
+	 */
+	@Override
+	public boolean offerFirst(T message) {
+		return write(Collections.singletonList((Message) message), true) == 1;
+	}
+
+	@Override
+	public boolean offerLast(T message) {
+		return write(Collections.singletonList((Message) message), false) == 1;
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public T pollFirst() {
-		File lockFile = getLockFile(this.queueFolderName);
-		lock(lockFile);
+		this.lock.lock();
 		T message = null;
 		try {
-			String record = readFirstLine(this.messagesFile).orElse("");
-			message = (T) ((record != null && !record.isEmpty()) ? getMessage(record) : new Message());
-			if (!record.isEmpty())
-				prepareNewFile(this.messagesFile);
-
+			Message record = head().poll();
+			message = (T) ((record != null) ? record : new Message());
 		} finally {
-			unlock(lockFile);
+			this.lock.unlock();
 		}
 		return message;
 	}
 
-	private File createTempFile() {
-		File tempFile = new File(this.queueFolderName + "/temp");
+	/**
+	 * Waits up to the timeout for a message. Unlike {@link #pollFirst()} it returns null when none
+	 * arrived in time.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lock();
 		try {
-			if (!tempFile.exists())
-				tempFile.createNewFile();
-		} catch (IOException e) {
-			LOG.log(Level.SEVERE, "Failed to create the file [" + tempFile.getPath() + "].", e);
-			throw new RuntimeException("Failed to create file [" + tempFile.getPath() + "].");
+			Message message;
+			while ((message = head().poll()) == null) {
+				if (nanos <= 0)
+					return null;
+				nanos = awaitMessage(nanos);
+			}
+			// A signal wakes up one consumer only, pass it on while messages are left
+			if (this.store.size() + this.redelivery.size() > 0)
+				this.lock.signal();
+			return (T) message;
+		} finally {
+			this.lock.unlock();
 		}
-		return tempFile;
 	}
 
-	private File getLockFile(String queueFolder) {
-		return new File(queueFolder + "/.lock/");
+	@Override
+	public T takeFirst() throws InterruptedException {
+		T message;
+		while ((message = pollFirst(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) == null)
+			;
+		return message;
 	}
 
-	private void lock(File lock) {
-		while (!lock.mkdir()) {
-			try {
-				Thread.sleep(20);
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				LOG.log(Level.WARNING, "The thread [" + Thread.currentThread().getName() + "] got interrupted.");
-			}
+	@Override
+	public T take() throws InterruptedException {
+		return takeFirst();
+	}
 
+	@Override
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T peekFirst() {
+		this.lock.lock();
+		try {
+			return (T) head().peek();
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
-	private void unlock(File lock) {
-		lock.delete();
+	/**
+	 * Appends the messages under one lock, the segmented and single file stores write them at once.
+	 * @throws IllegalStateException if the store has no room for all of them, the ones that fit are
+	 * appended
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> messages) {
+		List<Message> batch = new ArrayList<>(messages.size());
+		for (T message : messages)
+			batch.add((Message) message);
+		if (write(batch, false) < batch.size())
+			throw new IllegalStateException("Queue is full.");
+		return !batch.isEmpty();
+	}
+
+	@Override
+	public T peek() {
+		return peekFirst();
+	}
+
+	/**
+	 * Constant time read of the persisted counters, taken without the queue lock.
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(this.store.size() + this.redelivery.size(), Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.store.size() == 0 && this.redelivery.size() == 0;
 	}
 
-	private Optional<String> readFirstLine(File file) {
-		FileReader reader = null;
-		BufferedReader br = null;
+	/**
+	 * The lease is journaled before the message leaves the store, a crash in between delivers the
+	 * message twice rather than losing it.
+	 */
+	@Override
+	public Message lease(long deadline) {
+		GroupCommit groupCommit = this.groupCommit;
+		Message message;
+		long sequence;
+		this.lock.lock();
 		try {
-			reader = new FileReader(file);
-			br = new BufferedReader(reader);
-			String line = br.readLine();
-			return Optional.ofNullable(line);
-		} catch (IOException ex) {
-			LOG.log(Level.SEVERE,
-					"Exception occurred while reading first " + "line from file [" + file.getPath() + "].", ex);
+			QueueStore head = head();
+			message = head.peek();
+			if (message == null)
+				return null;
+			lease(head, message, deadline);
+			sequence = journaled(this.leaseJournal, groupCommit, 1);
 		} finally {
-			try {
-				br.close();
-			} catch (IOException ignore) {
-			}
-			try {
-				reader.close();
-			} catch (IOException ignore) {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+		return message;
+	}
+
+	@Override
+	public Message lease(long visibilityTimeout, long timeout, TimeUnit unit) throws InterruptedException {
+		GroupCommit groupCommit = this.groupCommit;
+		long nanos = unit.toNanos(timeout);
+		Message message;
+		long sequence;
+		this.lock.lock();
+		try {
+			QueueStore head;
+			while ((message = (head = head()).peek()) == null) {
+				if (nanos <= 0)
+					return null;
+				nanos = awaitMessage(nanos);
 			}
+			lease(head, message, System.currentTimeMillis() + visibilityTimeout);
+			sequence = journaled(this.leaseJournal, groupCommit, 1);
+			// A signal wakes up one consumer only, pass it on while messages are left
+			if (this.store.size() + this.redelivery.size() > 0)
+				this.lock.signal();
+		} finally {
+			this.lock.unlock();
 		}
-		return Optional.empty();
+		awaitDurable(groupCommit, sequence);
+		return message;
 	}
 
-	private void copyFile(File source, File target, boolean skipFirstLine) {
-		BufferedReader br = null;
-		PrintWriter pw = null;
+	@Override
+	public List<Message> lease(long deadline, int maxMessages) {
+		GroupCommit groupCommit = this.groupCommit;
+		List<Message> messages = new ArrayList<>(Math.min(maxMessages, 16));
+		long sequence = 0;
+		this.lock.lock();
 		try {
-			br = new BufferedReader(new FileReader(source));
-			pw = new PrintWriter(new FileWriter(target));
+			while (messages.size() < maxMessages) {
+				QueueStore head = head();
+				Message message = head.peek();
+				if (message == null)
+					break;
+				lease(head, message, deadline);
+				messages.add(message);
+			}
+			if (!messages.isEmpty())
+				sequence = journaled(this.leaseJournal, groupCommit, messages.size());
+		} finally {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+		return messages;
+	}
 
-			if (skipFirstLine)
-				br.readLine();
+	private void lease(QueueStore head, Message message, long deadline) {
+		// Journaled with the count, a receive crashing the process still counts
+		MessageAttributes.received(message);
+		this.leaseJournal.leased(message, deadline);
+		head.poll();
+	}
 
-			String line;
-			while ((line = br.readLine()) != null) {
-				pw.println(line);
+	/**
+	 * Checks the leases, requeues and drops them under one lock. Every queue open on the folder
+	 * tracks the leases, so the ones deleted or extended through another queue are left alone.
+	 */
+	@Override
+	public List<Message> expire(List<Message> messages) {
+		GroupCommit groupCommit = this.groupCommit;
+		List<Message> expired = new ArrayList<>(messages.size());
+		int requeued;
+		long sequence = 0;
+		this.lock.lock();
+		try {
+			List<String> receiptHandles = new ArrayList<>(messages.size());
+			for (Message message : messages)
+				receiptHandles.add(message.getReceiptHandle());
+			Set<String> due = new HashSet<>(this.leaseJournal.due(receiptHandles, System.currentTimeMillis()));
+			for (Message message : messages) {
+				if (due.contains(message.getReceiptHandle()))
+					expired.add(message);
 			}
-		} catch (IOException ex) {
-			LOG.log(Level.SEVERE, "Exception occurred while copying the contents from file [" + source.getPath()
-					+ "] to [" + target.getPath() + "].", ex);
-		} finally {
-			try {
-				br.close();
-			} catch (IOException ignore) {
+			if (expired.isEmpty())
+				return expired;
+
+			requeued = append(expired, true);
+			if (requeued > 0) {
+				receiptHandles.clear();
+				for (Message message : expired.subList(0, requeued))
+					receiptHandles.add(message.getReceiptHandle());
+				this.leaseJournal.released(receiptHandles);
+				sequence = journaled(this.leaseJournal, groupCommit, requeued);
 			}
-			pw.close();
+		} finally {
+			this.lock.unlock();
 		}
+		awaitDurable(groupCommit, sequence);
+		return expired.subList(requeued, expired.size());
 	}
 
-	private void prepareNewFile(File messagesFile) {
-		File tempFile = createTempFile();
-		copyFile(messagesFile, tempFile, true);
-		String messagesFilePath = messagesFile.getPath();
-		messagesFile.delete();
-		tempFile.renameTo(new File(messagesFilePath));
+	@Override
+	public boolean extend(String receiptHandle, long deadline) {
+		GroupCommit groupCommit = this.groupCommit;
+		long sequence;
+		this.lock.lock();
+		try {
+			if (!this.leaseJournal.extended(receiptHandle, deadline))
+				return false;
+			sequence = journaled(this.leaseJournal, groupCommit, 1);
+		} finally {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+		return true;
 	}
 
-	private Message getMessage(String record) {
-		String[] dataArray = record.split(":");
-		Message msg = new Message();
-		msg.setMessageId(dataArray[0]);
-		msg.setReceiptHandle(dataArray[1]);
-		msg.setBody(dataArray[2]);
-		return msg;
+	@Override
+	public boolean release(String receiptHandle) {
+		return release(Collections.singletonList(receiptHandle)) == 1;
 	}
 
-	private String getMessageString(T message) {
-		StringBuilder builder = new StringBuilder();
-		builder.append(((Message) message).getMessageId()).append(":").append(((Message) message).getReceiptHandle())
-				.append(":").append(((Message) message).getBody());
-		return builder.toString();
+	@Override
+	public int release(List<String> receiptHandles) {
+		GroupCommit groupCommit = this.groupCommit;
+		int released;
+		long sequence = 0;
+		this.lock.lock();
+		try {
+			released = this.leaseJournal.released(receiptHandles).size();
+			if (released > 0)
+				sequence = journaled(this.leaseJournal, groupCommit, released);
+		} finally {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+		return released;
 	}
 
-	
-	private void writeMessage(T message) {
-		try (PrintWriter pw = new PrintWriter(new FileWriter(this.messagesFile, true))) {
-			pw.println(getMessageString(message));
-		} catch (IOException e) {
-			LOG.log(Level.SEVERE, "Failed to write the message [" + message + "] to queue file ["
-					+ this.messagesFile.getPath() + "]");
-			throw new RuntimeException("Failed to write the message [" + message + "] to queue file ["
-					+ this.messagesFile.getPath() + "]", e);
+	@Override
+	public void recover(ObjLongConsumer<Message> consumer) {
+		this.lock.lock();
+		try {
+			this.leaseJournal.forEach(consumer);
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
-	
-
-	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+	@Override
+	public void delay(List<Message> messages, long deadline) {
+		GroupCommit groupCommit = this.groupCommit;
+		long sequence = 0;
+		this.lock.lock();
+		try {
+			for (Message message : messages)
+				this.delayJournal.leased(message, deadline);
+			if (!messages.isEmpty())
+				sequence = journaled(this.delayJournal, groupCommit, messages.size());
+		} finally {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+	}
 
 	@Override
-	public void addFirst(T message) {
-		throw new UnsupportedOperationException("Not yet implemented.");
+	public List<String> delivered(List<String> receiptHandles) {
+		GroupCommit groupCommit = this.groupCommit;
+		List<String> delivered;
+		long sequence = 0;
+		this.lock.lock();
+		try {
+			delivered = this.delayJournal.released(receiptHandles);
+			if (!delivered.isEmpty())
+				sequence = journaled(this.delayJournal, groupCommit, delivered.size());
+		} finally {
+			this.lock.unlock();
+		}
+		awaitDurable(groupCommit, sequence);
+		return delivered;
 	}
 
 	@Override
-	public T pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
-		throw new UnsupportedOperationException("Not yet implemented.");
+	public void recoverDelays(ObjLongConsumer<Message> consumer) {
+		this.lock.lock();
+		try {
+			this.delayJournal.forEach(consumer);
+		} finally {
+			this.lock.unlock();
+		}
 	}
 
 	@Override
-	public T takeFirst() throws InterruptedException {
-		throw new UnsupportedOperationException("Not yet implemented.");
+	public void close() {
+		this.lock.lock();
+		try {
+			this.delayJournal.close();
+			this.leaseJournal.close();
+			this.redelivery.close();
+			this.store.close();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes the messages under one lock and returns once they are as durable as the configured
+	 * {@link Durability} requires. With group commit the wait happens outside the queue lock so that
+	 * the writers can join the batch.
+	 * @return number of messages written, the rest did not fit
+	 */
+	private int write(List<Message> messages, boolean requeue) {
+		GroupCommit groupCommit = this.groupCommit;
+		long sequence = 0;
+		int written = 0;
+
+		this.lock.lock();
+		try {
+			written = append(messages, requeue);
+			if (written > 0 && this.durability.getMode() != Durability.Mode.EVERY_WRITE && groupCommit != null)
+				sequence = groupCommit.appended(written);
+		} finally {
+			this.lock.unlock();
+		}
+
+		awaitDurable(groupCommit, sequence);
+		return written;
+	}
+
+	/**
+	 * Appends the messages and wakes up the consumers, forced right away with
+	 * {@link Durability#everyWrite()}. Called under the queue lock.
+	 * @return number of messages appended, the rest did not fit
+	 */
+	private int append(List<Message> messages, boolean requeue) {
+		QueueStore target = requeue ? this.redelivery : this.store;
+		int written = target.append(messages);
+		if (written == 0)
+			return 0;
+		// Consumers woken up pass the signal on while messages are left
+		this.lock.signal();
+		QueueHeader header = this.store.header();
+		if (header.waiters() > 0)
+			header.touch();
+		if (this.durability.getMode() == Durability.Mode.EVERY_WRITE)
+			target.force();
+		return written;
+	}
+
+	/**
+	 * Store to read from, requeued messages first. Called under the queue lock.
+	 */
+	private QueueStore head() {
+		return (this.redelivery.size() > 0) ? this.redelivery : this.store;
+	}
+
+	/**
+	 * Forces the journals ahead of the stores, a lease is never less durable than the poll it covers.
+	 * Runs outside the queue lock, so the interrupt status is cleared here instead, see
+	 * {@link FileQueueLock}.
+	 */
+	private void forceFiles() {
+		boolean interrupted = Thread.interrupted();
+		try {
+			this.leaseJournal.force();
+			this.delayJournal.force();
+			this.store.force();
+			this.redelivery.force();
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Forces the journal written under the queue lock, or joins the group commit with the records.
+	 * @return sequence to wait for outside the lock, 0 if there is none
+	 */
+	private long journaled(LeaseJournal journal, GroupCommit groupCommit, int records) {
+		if (this.durability.getMode() == Durability.Mode.EVERY_WRITE) {
+			journal.force();
+			return 0;
+		}
+		return (groupCommit != null) ? groupCommit.appended(records) : 0;
 	}
 
+	private static void awaitDurable(GroupCommit groupCommit, long sequence) {
+		if (sequence > 0)
+			groupCommit.awaitDurable(sequence);
+	}
+
+	/**
+	 * Parks the caller until a producer of this JVM signals, the {@link QueueWatcher} reports a change
+	 * made by another process, or the timeout elapses. The waiter is counted in the header so the
+	 * producers of other processes know to raise a change event.
+	 */
+	private long awaitMessage(long nanos) throws InterruptedException {
+		QueueWatcher.watch(new File(this.queueFolderName), this.lock);
+		QueueHeader header = this.store.header();
+		header.waiting(1);
+		try {
+			return this.lock.awaitNanos(nanos);
+		} finally {
+			header.waiting(-1);
+		}
+	}
+
+	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+
 	@Override
-	public T takeLast() throws InterruptedException {
+	public void addFirst(T message) {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
 	@Override
-	public boolean isEmpty() {
+	public T takeLast() throws InterruptedException {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
@@ -273,11 +632,6 @@ public class FileQueue<T> implements BlockingDeque<T> {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
-	@Override
-	public boolean addAll(Collection<? extends T> c) {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
 	@Override
 	public boolean removeAll(Collection<?> c) {
 		throw new UnsupportedOperationException("Not yet implemented.");
@@ -318,11 +672,6 @@ public class FileQueue<T> implements BlockingDeque<T> {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
-	@Override
-	public T peekFirst() {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
 	@Override
 	public T peekLast() {
 		throw new UnsupportedOperationException("Not yet implemented.");
@@ -408,26 +757,11 @@ public class FileQueue<T> implements BlockingDeque<T> {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
-	@Override
-	public T take() throws InterruptedException {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
-	@Override
-	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
 	@Override
 	public T element() {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
-	@Override
-	public T peek() {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
 	@Override
 	public boolean remove(Object o) {
 		throw new UnsupportedOperationException("Not yet implemented.");
@@ -438,11 +772,6 @@ public class FileQueue<T> implements BlockingDeque<T> {
 		throw new UnsupportedOperationException("Not yet implemented.");
 	}
 
-	@Override
-	public int size() {
-		throw new UnsupportedOperationException("Not yet implemented.");
-	}
-
 	@Override
 	public Iterator<T> iterator() {
 		throw new UnsupportedOperationException("Not yet implemented.");
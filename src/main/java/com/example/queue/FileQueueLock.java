@@ -0,0 +1,195 @@
+package com.example.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two level lock guarding a queue folder. Threads of one JVM queue up on a {@link ReentrantLock}, the
+ * thread holding it takes an OS level {@link FileChannel#lock()} on the lock file to exclude other
+ * processes. Both levels block without polling and the OS releases the file lock when a process dies.
+ *
+ * <p>
+ * OS file locks are held per process and closing any channel of the file releases them, so there is
+ * exactly one instance, and one channel, per queue folder in a JVM.
+ *
+ * <p>
+ * Consumers waiting for a message park on a condition of the thread lock and give up the file lock
+ * while they wait. Producers of this JVM signal it directly, the {@link QueueWatcher} signals it for
+ * the producers of other processes.
+ *
+ * <p>
+ * An interrupt closes the file channel a thread is using, for good. The interrupt status of the owner
+ * is therefore cleared while it holds the lock and restored once it gives the lock up, so the files
+ * of the queue are never read or written by an interrupted thread.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class FileQueueLock {
+
+	private static final Logger LOG = Logger.getLogger(FileQueueLock.class.getName());
+
+	private static final ConcurrentMap<String, FileQueueLock> LOCKS = new ConcurrentHashMap<>();
+
+	private final ReentrantLock threadLock = new ReentrantLock();
+	private final Condition notEmpty = this.threadLock.newCondition();
+	private final File lockFile;
+	private FileChannel channel;
+	private FileLock fileLock;
+	// Interrupt status of the owner, cleared while it holds the lock
+	private boolean interrupted;
+
+	private FileQueueLock(File lockFile) {
+		this.lockFile = lockFile;
+	}
+
+	static FileQueueLock forFolder(String queueFolderName) {
+		File lockFile = new File(queueFolderName, "queue.lock").getAbsoluteFile();
+		return LOCKS.computeIfAbsent(lockFile.getPath(), path -> new FileQueueLock(lockFile));
+	}
+
+	void lock() {
+		this.threadLock.lock();
+		if (this.threadLock.getHoldCount() > 1)
+			return;
+
+		try {
+			acquireFileLock();
+		} catch (RuntimeException e) {
+			this.threadLock.unlock();
+			throw e;
+		}
+		this.interrupted = Thread.interrupted();
+	}
+
+	void unlock() {
+		if (this.threadLock.getHoldCount() == 1) {
+			boolean interrupted = this.interrupted;
+			this.interrupted = false;
+			try {
+				// Gone if a waiter failed to take it back
+				if (this.fileLock != null)
+					releaseFileLock();
+			} finally {
+				this.threadLock.unlock();
+				if (interrupted)
+					Thread.currentThread().interrupt();
+			}
+			return;
+		}
+		this.threadLock.unlock();
+	}
+
+	/**
+	 * Waits until a message may be available or the timeout elapsed, releasing both levels of the lock
+	 * meanwhile. Must be called with the lock held exactly once.
+	 * @param nanos
+	 * @return the remaining time, zero or less if it elapsed
+	 * @throws InterruptedException
+	 */
+	long awaitNanos(long nanos) throws InterruptedException {
+		if (this.interrupted) {
+			this.interrupted = false;
+			throw new InterruptedException();
+		}
+		releaseFileLock();
+		try {
+			return this.notEmpty.awaitNanos(nanos);
+		} finally {
+			acquireFileLock();
+			this.interrupted |= Thread.interrupted();
+		}
+	}
+
+	/**
+	 * Wakes up one waiting consumer, must be called with the lock held.
+	 */
+	void signal() {
+		this.notEmpty.signal();
+	}
+
+	/**
+	 * Wakes up every waiting consumer, takes the thread lock only.
+	 */
+	void signalAll() {
+		this.threadLock.lock();
+		try {
+			this.notEmpty.signalAll();
+		} finally {
+			this.threadLock.unlock();
+		}
+	}
+
+	private void releaseFileLock() {
+		try {
+			this.fileLock.release();
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Failed to release lock [" + this.lockFile.getPath() + "].", e);
+		} finally {
+			this.fileLock = null;
+		}
+	}
+
+	/**
+	 * An interrupt closes the channel while it waits, so the interrupt status is cleared during the
+	 * wait and restored afterwards.
+	 */
+	private void acquireFileLock() {
+		boolean interrupted = Thread.interrupted();
+		try {
+			while (true) {
+				try {
+					FileLock acquired = channel().lock();
+					// The folder may have been removed and created again, the lock would then guard
+					// an orphaned file.
+					if (this.lockFile.exists()) {
+						this.fileLock = acquired;
+						return;
+					}
+					acquired.release();
+					resetChannel();
+				} catch (ClosedByInterruptException | FileLockInterruptionException e) {
+					Thread.interrupted();
+					interrupted = true;
+					resetChannel();
+				}
+			}
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to lock [" + this.lockFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to lock [" + this.lockFile.getPath() + "].", e);
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	private FileChannel channel() throws IOException {
+		if (this.channel == null || !this.channel.isOpen()) {
+			this.lockFile.getParentFile().mkdirs();
+			this.channel = FileChannel.open(this.lockFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE);
+		}
+		return this.channel;
+	}
+
+	private void resetChannel() {
+		try {
+			if (this.channel != null)
+				this.channel.close();
+		} catch (IOException ignore) {
+		} finally {
+			this.channel = null;
+		}
+	}
+}
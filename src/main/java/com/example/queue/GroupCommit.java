@@ -0,0 +1,98 @@
+package com.example.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Batches the forces of concurrent writers. Writers take a sequence number while they hold the queue
+ * lock and wait for it outside the lock. The first waiter becomes the leader, it waits until the
+ * batch is full or its time window elapsed, forces once and acknowledges everybody covered by the
+ * force. No thread is kept around between the batches.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class GroupCommit {
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition batchFull = this.lock.newCondition();
+	private final Condition synced = this.lock.newCondition();
+
+	private final Runnable force;
+	private final long maxDelayNanos;
+	private final int maxRecords;
+
+	private long appendedSequence;
+	private long syncedSequence;
+	private boolean leaderActive;
+
+	GroupCommit(Runnable force, long maxDelayMillis, int maxRecords) {
+		this.force = force;
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+		this.maxRecords = maxRecords;
+	}
+
+	/**
+	 * Registers the given number of written records, must be called under the queue lock right after
+	 * the write so the sequence follows the order of the writes.
+	 * @return sequence to wait for
+	 */
+	long appended(int records) {
+		this.lock.lock();
+		try {
+			this.appendedSequence += records;
+			if (this.appendedSequence - this.syncedSequence >= this.maxRecords)
+				this.batchFull.signal();
+			return this.appendedSequence;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Blocks until every record up to sequence has been forced.
+	 * @param sequence
+	 */
+	void awaitDurable(long sequence) {
+		boolean interrupted = false;
+		this.lock.lock();
+		try {
+			while (this.syncedSequence < sequence) {
+				if (this.leaderActive) {
+					this.synced.awaitUninterruptibly();
+					continue;
+				}
+
+				this.leaderActive = true;
+				try {
+					long remaining = this.maxDelayNanos;
+					while (remaining > 0 && this.appendedSequence - this.syncedSequence < this.maxRecords) {
+						try {
+							remaining = this.batchFull.awaitNanos(remaining);
+						} catch (InterruptedException e) {
+							// Stop collecting and force what we have
+							interrupted = true;
+							break;
+						}
+					}
+					long target = this.appendedSequence;
+					this.lock.unlock();
+					try {
+						this.force.run();
+					} finally {
+						this.lock.lock();
+					}
+					this.syncedSequence = Math.max(this.syncedSequence, target);
+				} finally {
+					this.leaderActive = false;
+					this.synced.signalAll();
+				}
+			}
+		} finally {
+			this.lock.unlock();
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+}
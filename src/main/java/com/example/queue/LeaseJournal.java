@@ -0,0 +1,363 @@
+package com.example.queue;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Append only journal of the leases of a queue, kept in the <code>leases</code> file of the queue
+ * folder. The delayed messages of the queue are journaled the same way in a file of their own, their
+ * deadline being the moment they are delivered.
+ *
+ * <pre>
+ * int   length    bytes following the checksum
+ * int   checksum  CRC-32 of the bytes following it
+ * byte  type      leased or released
+ * long  deadline  wall clock millis the lease expires at, zero when released
+ * record          {@link RecordCodec} record of the message, only the receipt handle when released
+ * </pre>
+ *
+ * Replaying the journal gives the live leases, a torn entry at the tail ends the replay and is cut
+ * off. The journal is rewritten with the live leases only once it grew well beyond them.
+ *
+ * <p>
+ * Not thread safe, the queue lock guards it. Since that lock spans processes, every queue opened on
+ * the folder shares the journal: each call first replays the entries the others appended since, or
+ * the whole journal again if one of them compacted it, and appends at the end of the file as it is
+ * now. Every journal thus knows the leases of all of them.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class LeaseJournal implements Closeable {
+
+	private static final Logger LOG = Logger.getLogger(LeaseJournal.class.getName());
+
+	private static final byte LEASED = 1;
+	private static final byte RELEASED = 2;
+
+	private static final int ENTRY_HEADER_SIZE = 8;
+	private static final int ENTRY_FIELDS_SIZE = 1 + 8;
+	private static final long MIN_COMPACT_SIZE = 4 * 1024 * 1024;
+
+	private final File journalFile;
+	private final Map<String, Lease> leases = new LinkedHashMap<>();
+	private final CRC32 crc = new CRC32();
+	private FileChannel channel;
+	// Identity of the file the channel is open on, a compaction replaces it
+	private Object fileKey;
+	private long size;
+	private long compactedSize;
+
+	private static final class Lease {
+		final Message message;
+		final long deadline;
+
+		Lease(Message message, long deadline) {
+			this.message = message;
+			this.deadline = deadline;
+		}
+	}
+
+	LeaseJournal(String queueFolderName) {
+		this(queueFolderName, "leases");
+	}
+
+	/**
+	 * @param queueFolderName
+	 * @param fileName, name of the journal in the queue folder.
+	 */
+	LeaseJournal(String queueFolderName, String fileName) {
+		this.journalFile = new File(queueFolderName, fileName);
+		try {
+			reload();
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to open lease journal [" + this.journalFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to open lease journal [" + this.journalFile.getPath() + "].", e);
+		}
+	}
+
+	void leased(Message message, long deadline) {
+		refresh();
+		append(LEASED, deadline, message);
+		this.leases.put(message.getReceiptHandle(), new Lease(message, deadline));
+	}
+
+	/**
+	 * @return false if the receipt handle holds no lease
+	 */
+	boolean extended(String receiptHandle, long deadline) {
+		refresh();
+		Lease lease = this.leases.get(receiptHandle);
+		if (lease == null)
+			return false;
+		leased(lease.message, deadline);
+		return true;
+	}
+
+	/**
+	 * @return false if the receipt handle holds no lease
+	 */
+	boolean released(String receiptHandle) {
+		return !released(Collections.singletonList(receiptHandle)).isEmpty();
+	}
+
+	/**
+	 * Releases the leases with one write.
+	 * @return the receipt handles that held a lease
+	 */
+	List<String> released(List<String> receiptHandles) {
+		refresh();
+		List<String> released = new ArrayList<>(receiptHandles.size());
+		List<ByteBuffer> entries = new ArrayList<>(receiptHandles.size());
+		int length = 0;
+		for (String receiptHandle : receiptHandles) {
+			if (this.leases.remove(receiptHandle) == null)
+				continue;
+			Message message = new Message();
+			message.setReceiptHandle(receiptHandle);
+			ByteBuffer entry = entry(RELEASED, 0, message);
+			entries.add(entry);
+			length += entry.remaining();
+			released.add(receiptHandle);
+		}
+		if (entries.isEmpty())
+			return released;
+
+		ByteBuffer batch = ByteBuffer.allocate(length);
+		entries.forEach(batch::put);
+		batch.flip();
+		append(batch);
+		if (this.size > Math.max(MIN_COMPACT_SIZE, 4 * this.compactedSize))
+			compact();
+		return released;
+	}
+
+	/**
+	 * @return the receipt handles holding a lease whose deadline passed, in the given order
+	 */
+	List<String> due(List<String> receiptHandles, long now) {
+		refresh();
+		List<String> due = new ArrayList<>(receiptHandles.size());
+		for (String receiptHandle : receiptHandles) {
+			Lease lease = this.leases.get(receiptHandle);
+			if (lease != null && lease.deadline <= now)
+				due.add(receiptHandle);
+		}
+		return due;
+	}
+
+	/**
+	 * Removes the leases whose deadline passed, the caller puts the messages back in the queue and
+	 * compacts the journal afterwards.
+	 * @param now
+	 * @return the messages of the expired leases in lease order
+	 */
+	List<Message> expired(long now) {
+		refresh();
+		List<Message> expired = new ArrayList<>();
+		for (Iterator<Lease> iterator = this.leases.values().iterator(); iterator.hasNext();) {
+			Lease lease = iterator.next();
+			if (lease.deadline <= now) {
+				expired.add(lease.message);
+				iterator.remove();
+			}
+		}
+		return expired;
+	}
+
+	void forEach(ObjLongConsumer<Message> consumer) {
+		refresh();
+		for (Lease lease : this.leases.values())
+			consumer.accept(lease.message, lease.deadline);
+	}
+
+	/**
+	 * Writes the live leases to a new journal and moves it over the current one.
+	 */
+	void compact() {
+		refresh();
+		File compactFile = new File(this.journalFile.getParentFile(), this.journalFile.getName() + ".tmp");
+		try {
+			try (FileChannel compacted = FileChannel.open(compactFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				long position = 0;
+				for (Lease lease : this.leases.values())
+					position += write(compacted, position, entry(LEASED, lease.deadline, lease.message));
+				compacted.force(false);
+				this.compactedSize = position;
+			}
+			Files.move(compactFile.toPath(), this.journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			this.channel.close();
+			this.channel = open();
+			this.fileKey = fileKey();
+			this.size = this.compactedSize;
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to compact lease journal [" + this.journalFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to compact lease journal [" + this.journalFile.getPath() + "].", e);
+		}
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	void force() {
+		try {
+			this.channel.force(false);
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to force lease journal [" + this.journalFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to force lease journal [" + this.journalFile.getPath() + "].", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.channel.close();
+		} catch (IOException ignore) {
+		}
+	}
+
+	private FileChannel open() throws IOException {
+		return FileChannel.open(this.journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+	}
+
+	private Object fileKey() throws IOException {
+		return Files.readAttributes(this.journalFile.toPath(), BasicFileAttributes.class).fileKey();
+	}
+
+	/**
+	 * Catches up with the entries the other queues on the folder wrote since the last call. A channel
+	 * closed by an interrupt in the middle of a file operation is opened again.
+	 */
+	private void refresh() {
+		try {
+			if (!this.channel.isOpen() || !this.journalFile.exists() || !Objects.equals(fileKey(), this.fileKey)
+					|| this.channel.size() < this.size)
+				reload();
+			else
+				replay(this.channel.size());
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to read lease journal [" + this.journalFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to read lease journal [" + this.journalFile.getPath() + "].", e);
+		}
+	}
+
+	/**
+	 * Opens the journal file as it is now and replays it from the start.
+	 */
+	private void reload() throws IOException {
+		if (this.channel != null)
+			this.channel.close();
+		this.channel = open();
+		this.fileKey = fileKey();
+		this.leases.clear();
+		this.size = 0;
+		replay(this.channel.size());
+		this.compactedSize = this.size;
+	}
+
+	private void append(byte type, long deadline, Message message) {
+		append(entry(type, deadline, message));
+	}
+
+	/**
+	 * Appends at the end of the file, the caller refreshed the journal under the queue lock.
+	 */
+	private void append(ByteBuffer entries) {
+		try {
+			this.size += write(this.channel, this.size, entries);
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to write lease journal [" + this.journalFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to write lease journal [" + this.journalFile.getPath() + "].", e);
+		}
+	}
+
+	private ByteBuffer entry(byte type, long deadline, Message message) {
+		ByteBuffer record = RecordCodec.encode(message);
+		int length = ENTRY_FIELDS_SIZE + record.remaining();
+		ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + length);
+		entry.putInt(length);
+		entry.putInt(0);
+		entry.put(type);
+		entry.putLong(deadline);
+		entry.put(record);
+		entry.putInt(4, checksum(entry, ENTRY_HEADER_SIZE, length));
+		entry.flip();
+		return entry;
+	}
+
+	private static int write(FileChannel channel, long position, ByteBuffer entry) throws IOException {
+		int written = 0;
+		while (entry.hasRemaining())
+			written += channel.write(entry, position + written);
+		return written;
+	}
+
+	/**
+	 * One sequential pass over the entries from the replayed size up to end, stops at the first torn or
+	 * damaged entry.
+	 */
+	private void replay(long end) throws IOException {
+		if (end <= this.size)
+			return;
+
+		long from = this.size;
+		MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, from, end - from);
+		int limit = (int) (end - from);
+		int offset = 0;
+		while (limit - offset >= ENTRY_HEADER_SIZE) {
+			int length = buffer.getInt(offset);
+			int start = offset + ENTRY_HEADER_SIZE;
+			if (length < ENTRY_FIELDS_SIZE || length > limit - start
+					|| checksum(buffer, start, length) != buffer.getInt(offset + 4)
+					|| RecordCodec.check(buffer, start + ENTRY_FIELDS_SIZE, start + length) < 0) {
+				LOG.log(Level.WARNING, "Damaged lease journal entry at [" + (from + offset) + "] in ["
+						+ this.journalFile.getPath() + "], ignoring the rest.");
+				break;
+			}
+
+			Message message = RecordCodec.decode(buffer, start + ENTRY_FIELDS_SIZE);
+			if (buffer.get(start) == LEASED)
+				this.leases.put(message.getReceiptHandle(), new Lease(message, buffer.getLong(start + 1)));
+			else
+				this.leases.remove(message.getReceiptHandle());
+			offset = start + length;
+		}
+		// Later entries would be hidden behind the damaged one
+		if (offset < limit)
+			this.channel.truncate(from + offset);
+		this.size = from + offset;
+	}
+
+	private int checksum(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit(offset + length).position(offset);
+		this.crc.reset();
+		this.crc.update(slice);
+		return (int) this.crc.getValue();
+	}
+}
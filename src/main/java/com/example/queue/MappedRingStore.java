@@ -0,0 +1,177 @@
+package com.example.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Keeps the messages of a queue in a fixed size circular file which is memory mapped once, so
+ * enqueue and dequeue are plain memory copies without opening the file or issuing a read/write
+ * system call.
+ *
+ * <p>
+ * The file starts with a header holding the capacity and the head and tail counters, followed by the
+ * data region. Head and tail only grow, the physical offset is the counter modulo the capacity.
+ * Records use the {@link RecordCodec} format, aligned to 4 bytes. When a record does not fit before
+ * the end of the data region a wrap marker is written in place of its length and the record starts
+ * over at offset 0. A record is published by moving the tail past it, so a writer dying half way
+ * leaves nothing visible.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class MappedRingStore implements QueueStore {
+
+	private static final Logger LOG = Logger.getLogger(MappedRingStore.class.getName());
+
+	static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+	private static final int MAGIC = 0x52494e47;
+	private static final int WRAP = -1;
+
+	// Ring file header layout
+	private static final int RING_MAGIC = 0;
+	private static final int RING_CAPACITY = 4;
+	private static final int RING_HEADER_SIZE = 64;
+
+	private final File ringFile;
+	private final FileChannel channel;
+	private final MappedByteBuffer data;
+	private final int capacity;
+	private final QueueHeader header;
+
+	MappedRingStore(String queueFolderName) {
+		this(queueFolderName, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param queueFolderName
+	 * @param capacity, size of the data region in bytes. Ignored if the ring file already exists.
+	 */
+	MappedRingStore(String queueFolderName, int capacity) {
+		if (capacity <= 0 || capacity % 4 != 0)
+			throw new IllegalArgumentException("Capacity must be a positive multiple of 4.");
+
+		this.ringFile = new File(queueFolderName, "ring");
+		try {
+			this.channel = FileChannel.open(this.ringFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			MappedByteBuffer ringHeader = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, RING_HEADER_SIZE);
+			boolean created = ringHeader.getInt(RING_MAGIC) != MAGIC;
+			if (created) {
+				ringHeader.putInt(RING_CAPACITY, capacity);
+				ringHeader.putInt(RING_MAGIC, MAGIC);
+			}
+			this.capacity = ringHeader.getInt(RING_CAPACITY);
+			this.data = this.channel.map(FileChannel.MapMode.READ_WRITE, RING_HEADER_SIZE, this.capacity);
+
+			this.header = new QueueHeader(new File(queueFolderName));
+			if (created) {
+				this.header.head(0);
+				this.header.tail(0);
+				this.header.reset(0);
+			}
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to map ring file [" + this.ringFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to map ring file [" + this.ringFile.getPath() + "].", e);
+		}
+	}
+
+	@Override
+	public boolean append(Message message) {
+		ByteBuffer record = RecordCodec.encode(message);
+		int size = align(record.remaining());
+
+		long head = this.header.head();
+		long tail = this.header.tail();
+		int offset = (int) (tail % this.capacity);
+		int untilEnd = this.capacity - offset;
+		long needed = size <= untilEnd ? size : untilEnd + size;
+		if (size > this.capacity || this.capacity - (tail - head) < needed)
+			return false;
+
+		if (size > untilEnd) {
+			this.data.putInt(offset, WRAP);
+			tail += untilEnd;
+			offset = 0;
+		}
+		this.data.position(offset);
+		this.data.put(record);
+		this.header.appended(tail + size);
+		return true;
+	}
+
+	@Override
+	public Message poll() {
+		return read(true);
+	}
+
+	@Override
+	public Message peek() {
+		return read(false);
+	}
+
+	@Override
+	public long size() {
+		return this.header.size();
+	}
+
+	private Message read(boolean remove) {
+		long head = this.header.head();
+		long tail = this.header.tail();
+		if (head == tail) {
+			// Drained, drop any drift left by skipped records
+			if (this.header.size() != 0)
+				this.header.reset(0);
+			return null;
+		}
+
+		int offset = (int) (head % this.capacity);
+		if (this.data.getInt(offset) == WRAP) {
+			head += this.capacity - offset;
+			offset = 0;
+		}
+		int size = RecordCodec.check(this.data, offset, (int) Math.min(this.capacity, offset + tail - head));
+		if (size < 0) {
+			LOG.log(Level.WARNING, "Skipping damaged records between [" + head + "] and [" + tail + "] of ring file ["
+					+ this.ringFile.getPath() + "].");
+			this.header.head(tail);
+			this.header.reset(0);
+			return null;
+		}
+		if (remove)
+			this.header.polled(head + align(size));
+		return RecordCodec.decode(this.data, offset);
+	}
+
+	@Override
+	public QueueHeader header() {
+		return this.header;
+	}
+
+	@Override
+	public void force() {
+		this.data.force();
+		this.header.force();
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.channel.close();
+		} catch (IOException ignore) {
+		}
+		this.header.close();
+	}
+
+	private static int align(int size) {
+		return (size + 3) & ~3;
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.queue;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * System attributes the queues keep on their messages, named as Amazon SQS names them. They are
+ * stored along with the message by {@link RecordCodec}.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class MessageAttributes {
+
+	static final String RECEIVE_COUNT = "ApproximateReceiveCount";
+
+	private MessageAttributes() {
+	}
+
+	/**
+	 * @return group of the message, null if it has none
+	 */
+	static String messageGroupId(Message message) {
+		return message.getAttributes().get(MessageGroups.MESSAGE_GROUP_ID);
+	}
+
+	/**
+	 * @return deduplication id of the message, null if it has none
+	 */
+	static String deduplicationId(Message message) {
+		return message.getAttributes().get(DeduplicationCache.MESSAGE_DEDUPLICATION_ID);
+	}
+
+	static int receiveCount(Message message) {
+		String receiveCount = message.getAttributes().get(RECEIVE_COUNT);
+		return receiveCount == null ? 0 : Integer.parseInt(receiveCount);
+	}
+
+	/**
+	 * Counts one more receive of the message.
+	 * @return the new receive count
+	 */
+	static int received(Message message) {
+		int receiveCount = receiveCount(message) + 1;
+		message.getAttributes().put(RECEIVE_COUNT, String.valueOf(receiveCount));
+		return receiveCount;
+	}
+}
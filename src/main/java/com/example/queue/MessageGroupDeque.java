@@ -0,0 +1,487 @@
+package com.example.queue;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Blocking deque of a FIFO queue, keeping the messages of each message group in order. Each group has
+ * a deque of its own, consumers are served from the groups that are not locked in the order they
+ * became ready. Polling a message locks its group until {@link #unlock(String)} is called, or until the
+ * message is put back with {@link #offerFirst(Message)}, so the messages of a group are processed one
+ * after the other while different groups are consumed in parallel.
+ *
+ * <p>
+ * The group is read from the {@link MessageGroups#MESSAGE_GROUP_ID} attribute, messages without one are
+ * rejected. Requeued messages are never rejected, the capacity only bounds {@link #offerLast(Message)}.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class MessageGroupDeque implements BlockingDeque<Message>, MessageGroups {
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+
+	private final int capacity;
+	private final Map<String, ArrayDeque<Message>> groups = new HashMap<>();
+	private final Set<String> locked = new HashSet<>();
+	// Groups holding messages and not locked, in the order they are served
+	private final ArrayDeque<String> ready = new ArrayDeque<>();
+	// Written under the lock, read without it
+	private volatile int count;
+
+	public MessageGroupDeque() {
+		this(Integer.MAX_VALUE);
+	}
+
+	public MessageGroupDeque(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive.");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Puts an in-flight message back at the head of its group and unlocks the group, which is served
+	 * first.
+	 */
+	@Override
+	public boolean offerFirst(Message message) {
+		String messageGroupId = messageGroupId(message);
+		this.lock.lock();
+		try {
+			ArrayDeque<Message> group = group(messageGroupId);
+			boolean wasReady = !group.isEmpty() && !this.locked.contains(messageGroupId);
+			group.addFirst(message);
+			this.locked.remove(messageGroupId);
+			if (wasReady)
+				this.ready.remove(messageGroupId);
+			this.ready.addFirst(messageGroupId);
+			this.count++;
+			this.notEmpty.signal();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offerLast(Message message) {
+		String messageGroupId = messageGroupId(message);
+		this.lock.lock();
+		try {
+			return append(messageGroupId, message);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offerLast(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		String messageGroupId = messageGroupId(message);
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (!append(messageGroupId, message)) {
+				if (nanos <= 0)
+					return false;
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void putLast(Message message) throws InterruptedException {
+		offerLast(message, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Appends the messages that fit under one lock.
+	 * @throws IllegalStateException if not all of them fit, the ones that did are added.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends Message> messages) {
+		Objects.requireNonNull(messages);
+		if (messages.isEmpty())
+			return false;
+		for (Message message : messages)
+			messageGroupId(message);
+		this.lock.lock();
+		try {
+			for (Message message : messages) {
+				if (!append(messageGroupId(message), message))
+					throw new IllegalStateException("Queue is full.");
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean unlock(String messageGroupId) {
+		Objects.requireNonNull(messageGroupId, "Message group id can not be null.");
+		this.lock.lock();
+		try {
+			if (!this.locked.remove(messageGroupId))
+				return false;
+			ArrayDeque<Message> group = this.groups.get(messageGroupId);
+			if (group != null) {
+				this.ready.addLast(messageGroupId);
+				this.notEmpty.signal();
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of groups with a message in flight
+	 */
+	public int lockedGroups() {
+		this.lock.lock();
+		try {
+			return this.locked.size();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message pollFirst() {
+		this.lock.lock();
+		try {
+			return first(true);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (this.ready.isEmpty()) {
+				if (nanos <= 0)
+					return null;
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			return first(true);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message takeFirst() throws InterruptedException {
+		return pollFirst(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public Message peekFirst() {
+		this.lock.lock();
+		try {
+			return first(false);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes one message of each ready group, the group is locked once its message was taken.
+	 */
+	@Override
+	public int drainTo(Collection<? super Message> c, int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this)
+			throw new IllegalArgumentException();
+		this.lock.lock();
+		try {
+			int drained = 0;
+			while (drained < maxElements && !this.ready.isEmpty()) {
+				c.add(first(true));
+				drained++;
+			}
+			return drained;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<? super Message> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return messages waiting in the deque, those of locked groups included
+	 */
+	@Override
+	public int size() {
+		return this.count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Math.max(0, this.capacity - size());
+	}
+
+	@Override
+	public boolean offer(Message message) {
+		return offerLast(message);
+	}
+
+	@Override
+	public boolean offer(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		return offerLast(message, timeout, unit);
+	}
+
+	@Override
+	public void put(Message message) throws InterruptedException {
+		putLast(message);
+	}
+
+	@Override
+	public boolean add(Message message) {
+		addLast(message);
+		return true;
+	}
+
+	@Override
+	public void addLast(Message message) {
+		if (!offerLast(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public void addFirst(Message message) {
+		if (!offerFirst(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public Message poll() {
+		return pollFirst();
+	}
+
+	@Override
+	public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+
+	@Override
+	public Message take() throws InterruptedException {
+		return takeFirst();
+	}
+
+	@Override
+	public Message peek() {
+		return peekFirst();
+	}
+
+	private static String messageGroupId(Message message) {
+		Objects.requireNonNull(message);
+		String messageGroupId = message.getAttributes().get(MESSAGE_GROUP_ID);
+		if (messageGroupId == null)
+			throw new IllegalArgumentException("Message [" + message.getMessageId() + "] has no message group id.");
+		return messageGroupId;
+	}
+
+	/**
+	 * Called under the lock.
+	 */
+	private ArrayDeque<Message> group(String messageGroupId) {
+		return this.groups.computeIfAbsent(messageGroupId, id -> new ArrayDeque<>());
+	}
+
+	/**
+	 * Called under the lock.
+	 */
+	private boolean append(String messageGroupId, Message message) {
+		if (this.count >= this.capacity)
+			return false;
+		ArrayDeque<Message> group = group(messageGroupId);
+		group.addLast(message);
+		if (group.size() == 1 && !this.locked.contains(messageGroupId)) {
+			this.ready.addLast(messageGroupId);
+			this.notEmpty.signal();
+		}
+		this.count++;
+		return true;
+	}
+
+	/**
+	 * Head message of the first ready group, called under the lock.
+	 * @param remove, false to leave it in the deque and its group unlocked.
+	 */
+	private Message first(boolean remove) {
+		String messageGroupId = remove ? this.ready.poll() : this.ready.peek();
+		if (messageGroupId == null)
+			return null;
+		ArrayDeque<Message> group = this.groups.get(messageGroupId);
+		if (!remove)
+			return group.peekFirst();
+
+		Message message = group.pollFirst();
+		if (group.isEmpty())
+			this.groups.remove(messageGroupId);
+		this.locked.add(messageGroupId);
+		this.count--;
+		this.notFull.signal();
+		return message;
+	}
+
+	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+
+	@Override
+	public void putFirst(Message message) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean offerFirst(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message takeLast() throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Object[] toArray() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public <E> E[] toArray(E[] a) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message peekLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pop() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> descendingIterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message remove() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message element() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> iterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void push(Message e) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+}
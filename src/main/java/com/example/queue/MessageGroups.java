@@ -0,0 +1,23 @@
+package com.example.queue;
+
+/**
+ * Implemented by the FIFO queues that keep the order of each message group and hand out one message
+ * of a group at a time. A group stays locked while its message is in flight, {@link MessageQueue}
+ * unlocks it once the message was deleted or moved to the dead-letter queue. A message put back with
+ * offerFirst unlocks its group by itself.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public interface MessageGroups {
+
+	/** Attribute holding the group of a message, named as Amazon SQS names it. */
+	String MESSAGE_GROUP_ID = "MessageGroupId";
+
+	/**
+	 * Lets consumers take the next message of the group.
+	 * @param messageGroupId
+	 * @return false if the group was not locked
+	 */
+	boolean unlock(String messageGroupId);
+}
@@ -1,90 +1,754 @@
-package com.example.queue;
-
-import java.util.Objects;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
-import com.amazonaws.services.sqs.model.Message;
-
-/**
- * As ScheduledExecutorService passed by the client, client is responsible for shutting down the 
- * scheduler service.
- * 
- * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a> 
- * @since 21-Aug-2017
- */
-public class MessageQueue<T extends BlockingDeque<Message>> {
-
-	private static final Logger LOG = Logger.getLogger(MessageQueue.class.getName());
-
-	private long visibilityTimeout = 2000;
-	private ScheduledExecutorService executorService;
-	private final ConcurrentMap<String, ScheduledFuture<?>> inFlightMessages = new ConcurrentHashMap<>();
-	private final T queue;
-
-	public MessageQueue(T queue, ScheduledExecutorService executorService) {
-		Objects.requireNonNull(queue, "Queue can not be null.");
-		Objects.requireNonNull(executorService, "Executor service can not be null.");
-
-		this.visibilityTimeout = 2000;
-		this.queue = queue;
-		this.executorService = executorService;
-	}
-
-	public void push(Message message) {
-		Objects.requireNonNull(message);
-		this.queue.offerLast(message);
-	}
-
-	@SuppressWarnings("rawtypes")
-	public Message poll() {
-		Message message = this.queue.pollFirst();
-
-		// Scheduling the message to add to head, in case of visibility timeout
-		Runnable runnable = () -> {
-			this.queue.offerFirst(message);
-			this.inFlightMessages.remove(message.getMessageId());
-		};
-
-		if (message != null && message.getBody() != null) {
-			ScheduledFuture future = executorService.schedule(runnable, this.visibilityTimeout, TimeUnit.MILLISECONDS);
-			// Cache the polled message to simulate the suppression of the
-			// message.
-			this.inFlightMessages.put(message.getMessageId(), future);
-		}
-		return message;
-	}
-
-	public boolean delete(String receiptHandle) {
-		if (receiptHandle == null || !this.inFlightMessages.containsKey(receiptHandle))
-			return false;
-
-		ScheduledFuture<?> future = this.inFlightMessages.remove(receiptHandle);
-		if (future == null) {
-			LOG.log(Level.SEVERE,
-					"Message not found in inflight messages for receiptHandle [" + receiptHandle + "].");
-			throw new RuntimeException(
-					"Message not found in inflight messages for receiptHandle [" + receiptHandle + "].");
-		}
-		// Cancel the re-insertion of the message to queue head
-		return future.cancel(true);
-	}
-
-	public void withVisibilityTimeout(long visibilityTimeout) {
-		this.visibilityTimeout = visibilityTimeout;
-	}
-
-	public int inFlightSize() {
-		return this.inFlightMessages.size();
-	}
-
-	public int size() {
-		return this.queue.size();
-	}
-}
+package com.example.queue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.OverLimitException;
+import com.google.common.hash.Hashing;
+
+/**
+ * As ScheduledExecutorService passed by the client, client is responsible for shutting down the 
+ * scheduler service.
+ *
+ * <p>
+ * Visibility timeouts are tracked on the {@link TimingWheel} shared by all the queues. The messages
+ * expiring together are requeued as one batch on the executor service, or on the worker threads of
+ * the wheel when the queue has none; requeuing may block and never runs on the ticker thread.
+ *
+ * <p>
+ * When the queue implements {@link DurableLeases} the in-flight messages are leased through it, the
+ * leases still running when the queue was opened are scheduled again.
+ *
+ * <p>
+ * A bounded queue applies the {@link QueueOptions.OverflowPolicy} of its options once it holds as many
+ * messages as its capacity, a message rejected by the policy raises an {@link OverLimitException}.
+ * Messages in flight do not count against the capacity and requeued ones are never rejected.
+ *
+ * <p>
+ * Every receive increments the ApproximateReceiveCount attribute of the message. With a dead-letter
+ * queue, a message whose visibility expires after maxReceiveCount receives is pushed there instead of
+ * being requeued, so that a poison message stops taking the head of the queue.
+ *
+ * <p>
+ * Delayed messages wait on the timing wheel as well and are pushed once due, the ones due in the same
+ * tick as one batch. When the queue implements {@link DurableDelays} they are journaled through it
+ * until pushed, the ones still pending when the queue was opened are scheduled again.
+ *
+ * <p>
+ * When the queue implements {@link MessageGroups} it is a FIFO queue, the group of a message is
+ * unlocked once the message was deleted or moved to the dead-letter queue.
+ *
+ * <p>
+ * With a deduplication window a message whose deduplication id was pushed within the window is
+ * dropped, the ids are remembered by a {@link DeduplicationCache} in memory.
+ * 
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a> 
+ * @since 21-Aug-2017
+ */
+public class MessageQueue<T extends BlockingDeque<Message>> {
+
+	private static final Logger LOG = Logger.getLogger(MessageQueue.class.getName());
+
+	private long visibilityTimeout = 2000;
+	private ScheduledExecutorService executorService;
+	private final ConcurrentMap<String, TimingWheel.Timeout> inFlightMessages = new ConcurrentHashMap<>();
+	private final T queue;
+	private final DurableLeases leases;
+	private final TimingWheel timingWheel = TimingWheel.shared();
+	private final TimingWheel.Expiry expiry = this::expired;
+	private final DurableDelays delays;
+	private final TimingWheel.Expiry due = this::due;
+	private final AtomicInteger delayed = new AtomicInteger();
+	private volatile long deliveryDelay;
+	private final MessageGroups groups;
+	private volatile DeduplicationCache deduplication;
+
+	// Producers blocked on a full queue re-check at least this often, consumers of other processes do
+	// not wake them up
+	private static final long ROOM_CHECK_MILLIS = 50;
+
+	private volatile QueueOptions options = QueueOptions.unbounded();
+	private volatile FileQueue<Message> spill;
+	private final Object room = new Object();
+	private final AtomicInteger producersWaiting = new AtomicInteger();
+
+	private volatile MessageQueue<?> deadLetterQueue;
+	private volatile int maxReceiveCount;
+
+	/**
+	 * Requeues the expired messages on the worker threads of the timing wheel.
+	 * @param queue
+	 */
+	public MessageQueue(T queue) {
+		this(queue, null, false);
+	}
+
+	public MessageQueue(T queue, ScheduledExecutorService executorService) {
+		this(queue, executorService, true);
+	}
+
+	private MessageQueue(T queue, ScheduledExecutorService executorService, boolean executorRequired) {
+		Objects.requireNonNull(queue, "Queue can not be null.");
+		if (executorRequired)
+			Objects.requireNonNull(executorService, "Executor service can not be null.");
+
+		this.visibilityTimeout = 2000;
+		this.queue = queue;
+		this.executorService = executorService;
+		this.leases = (queue instanceof DurableLeases) ? (DurableLeases) queue : null;
+		this.groups = (queue instanceof MessageGroups) ? (MessageGroups) queue : null;
+		if (this.leases != null)
+			this.leases.recover((message, deadline) -> schedule(message,
+					Math.max(0, deadline - System.currentTimeMillis())));
+		this.delays = (queue instanceof DurableDelays) ? (DurableDelays) queue : null;
+		if (this.delays != null)
+			this.delays.recoverDelays((message, deadline) -> scheduleDelivery(Collections.singletonList(message),
+					Math.max(0, deadline - System.currentTimeMillis())));
+	}
+
+	/**
+	 * Sets the capacity and the overflow policy, the spill queue of {@link QueueOptions#spillToDisk}
+	 * is opened in the spill directory of the options.
+	 * @param options
+	 */
+	public void withQueueOptions(QueueOptions options) {
+		Objects.requireNonNull(options, "Queue options can not be null.");
+		FileQueue<Message> spill = null;
+		if (options.getOverflowPolicy() == QueueOptions.OverflowPolicy.SPILL_TO_DISK) {
+			File spillDirectory = options.getSpillDirectory();
+			spill = new FileQueue<>(spillDirectory.getParentFile(), spillDirectory.getName(), StorageMode.SEGMENTED_LOG);
+		}
+		this.spill = spill;
+		this.options = options;
+		this.deliveryDelay = options.getDeliveryDelayMillis();
+		this.deduplication = (options.getDeduplicationWindowMillis() > 0)
+				? new DeduplicationCache(options.getDeduplicationWindowMillis(), DeduplicationCache.DEFAULT_MAX_ENTRIES)
+				: null;
+		refill();
+	}
+
+	/**
+	 * Redrives the messages received maxReceiveCount times to deadLetterQueue once their visibility
+	 * expires.
+	 * @param deadLetterQueue
+	 * @param maxReceiveCount
+	 */
+	public void withDeadLetterQueue(MessageQueue<?> deadLetterQueue, int maxReceiveCount) {
+		Objects.requireNonNull(deadLetterQueue, "Dead-letter queue can not be null.");
+		if (deadLetterQueue == this)
+			throw new IllegalArgumentException("A queue can not be its own dead-letter queue.");
+		if (maxReceiveCount <= 0)
+			throw new IllegalArgumentException("Max receive count must be positive.");
+		this.maxReceiveCount = maxReceiveCount;
+		this.deadLetterQueue = deadLetterQueue;
+	}
+
+	/**
+	 * Pushes the message, after the delivery delay of the queue if it has one.
+	 * @param message
+	 */
+	public void push(Message message) {
+		push(message, this.deliveryDelay);
+	}
+
+	/**
+	 * Pushes the message once delayMillis elapsed, the overflow policy applies then. Zero pushes it
+	 * right away. A duplicate is dropped before it is delayed, a message the queue rejects is not
+	 * remembered so that it can be sent again.
+	 * @param message
+	 * @param delayMillis
+	 */
+	public void push(Message message, long delayMillis) {
+		Objects.requireNonNull(message);
+		if (delayMillis < 0)
+			throw new IllegalArgumentException("Delivery delay can not be negative.");
+		String deduplicationId = deduplicationId(message);
+		if (duplicate(deduplicationId))
+			return;
+		try {
+			if (delayMillis == 0)
+				enqueue(message);
+			else
+				delay(Collections.singletonList(message), delayMillis);
+		} catch (RuntimeException e) {
+			forget(Collections.singletonList(deduplicationId), 0);
+			throw e;
+		}
+	}
+
+	/**
+	 * @return deduplication id of the message, the SHA-256 of its body with content based
+	 * deduplication when it has none, null if the queue does not deduplicate it
+	 */
+	private String deduplicationId(Message message) {
+		if (this.deduplication == null)
+			return null;
+		String deduplicationId = MessageAttributes.deduplicationId(message);
+		if (deduplicationId == null && this.options.isContentBasedDeduplication() && message.getBody() != null)
+			deduplicationId = Hashing.sha256().hashString(message.getBody(), StandardCharsets.UTF_8).toString();
+		return deduplicationId;
+	}
+
+	/**
+	 * Records the deduplication id.
+	 * @return true if the id was pushed within the deduplication window
+	 */
+	private boolean duplicate(String deduplicationId) {
+		if (deduplicationId == null || this.deduplication.add(deduplicationId))
+			return false;
+		LOG.log(Level.FINE, "Duplicate message with deduplication id [" + deduplicationId + "] dropped.");
+		return true;
+	}
+
+	/**
+	 * Forgets the deduplication ids of the messages that were not pushed after all, from index from on.
+	 */
+	private void forget(List<String> deduplicationIds, int from) {
+		for (String deduplicationId : deduplicationIds.subList(from, deduplicationIds.size())) {
+			if (deduplicationId != null)
+				this.deduplication.remove(deduplicationId);
+		}
+	}
+
+	private void enqueue(Message message) {
+		QueueOptions options = this.options;
+		if (!options.isBounded()) {
+			if (!this.queue.offerLast(message))
+				throw new IllegalStateException("Queue is full, message [" + message.getMessageId() + "] rejected.");
+			return;
+		}
+
+		switch (options.getOverflowPolicy()) {
+		case BLOCK:
+			if (!offer(message) && !awaitRoom(message, options.getBlockTimeoutMillis()))
+				throw overLimit(message);
+			break;
+		case DROP_OLDEST:
+			while (!offer(message)) {
+				Message dropped = this.queue.pollFirst();
+				// Every group of a FIFO queue may be locked, nothing can be dropped then
+				if (dropped == null || dropped.getBody() == null)
+					throw overLimit(message);
+				LOG.log(Level.WARNING, "Queue is full, message [" + dropped.getMessageId() + "] dropped.");
+				unlockGroup(dropped);
+			}
+			break;
+		case SPILL_TO_DISK:
+			pushOrSpill(message);
+			break;
+		default:
+			if (!offer(message))
+				throw overLimit(message);
+		}
+	}
+
+	/**
+	 * Pushes the messages with one call to the queue, a {@link FileQueue} takes its lock once and
+	 * writes them together. A bounded queue applies its overflow policy message by message. With a
+	 * delivery delay the messages are delayed together. A rejected batch forgets the deduplication ids
+	 * of its messages again, a bounded queue only the ones from the rejected message on.
+	 * @param messages
+	 */
+	public void pushAll(List<Message> messages) {
+		Objects.requireNonNull(messages);
+		if (this.deduplication == null) {
+			pushUnique(messages);
+			return;
+		}
+		List<Message> unique = new ArrayList<>(messages.size());
+		List<String> deduplicationIds = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			String deduplicationId = deduplicationId(message);
+			if (!duplicate(deduplicationId)) {
+				unique.add(message);
+				deduplicationIds.add(deduplicationId);
+			}
+		}
+		if (this.deliveryDelay == 0 && this.options.isBounded()) {
+			// One by one, the ones pushed before a rejected one stay remembered
+			for (int i = 0; i < unique.size(); i++) {
+				try {
+					enqueue(unique.get(i));
+				} catch (RuntimeException e) {
+					forget(deduplicationIds, i);
+					throw e;
+				}
+			}
+			return;
+		}
+		try {
+			pushUnique(unique);
+		} catch (RuntimeException e) {
+			forget(deduplicationIds, 0);
+			throw e;
+		}
+	}
+
+	private void pushUnique(List<Message> messages) {
+		long deliveryDelay = this.deliveryDelay;
+		if (deliveryDelay > 0 && !messages.isEmpty())
+			delay(messages, deliveryDelay);
+		else
+			enqueueAll(messages);
+	}
+
+	private void enqueueAll(List<Message> messages) {
+		if (this.options.isBounded()) {
+			for (Message message : messages)
+				enqueue(message);
+			return;
+		}
+		try {
+			this.queue.addAll(messages);
+		} catch (IllegalStateException e) {
+			throw new IllegalStateException("Queue is full, batch of [" + messages.size() + "] messages rejected.", e);
+		}
+	}
+
+	/**
+	 * Messages the queue takes before its overflow policy applies, a read of the queue depth.
+	 * @return remaining capacity, {@link Integer#MAX_VALUE} if the queue is unbounded
+	 */
+	public int remainingCapacity() {
+		QueueOptions options = this.options;
+		if (!options.isBounded())
+			return Integer.MAX_VALUE;
+		return Math.max(0, options.getCapacity() - this.queue.size());
+	}
+
+	private boolean offer(Message message) {
+		return this.queue.size() < this.options.getCapacity() && this.queue.offerLast(message);
+	}
+
+	/**
+	 * Waits for consumers to make room, up to timeoutMillis.
+	 * @return true if the message was pushed
+	 */
+	private boolean awaitRoom(Message message, long timeoutMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		this.producersWaiting.incrementAndGet();
+		try {
+			synchronized (this.room) {
+				while (!offer(message)) {
+					long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+					if (remaining <= 0)
+						return false;
+					this.room.wait(Math.min(remaining, ROOM_CHECK_MILLIS));
+				}
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			this.producersWaiting.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Messages go to the spill queue while it holds any, so they keep their order.
+	 */
+	private void pushOrSpill(Message message) {
+		FileQueue<Message> spill = this.spill;
+		if (spill.isEmpty() && offer(message))
+			return;
+		synchronized (spill) {
+			if (spill.isEmpty() && offer(message))
+				return;
+			if (!spill.offerLast(message)) {
+				LOG.log(Level.SEVERE, "Spill queue is full, message [" + message.getMessageId() + "] rejected.");
+				throw overLimit(message);
+			}
+		}
+		// Consumers may have made room meanwhile
+		refill();
+	}
+
+	/**
+	 * Moves spilled messages back while there is room.
+	 */
+	private void refill() {
+		FileQueue<Message> spill = this.spill;
+		if (spill == null || spill.isEmpty())
+			return;
+		synchronized (spill) {
+			while (!spill.isEmpty() && this.queue.size() < this.options.getCapacity()) {
+				Message message = spill.peekFirst();
+				if (!this.queue.offerLast(message))
+					break;
+				spill.pollFirst();
+			}
+		}
+	}
+
+	/**
+	 * Called once messages left the queue, hands the room to spilled messages and blocked producers.
+	 */
+	private void consumed() {
+		refill();
+		if (this.producersWaiting.get() > 0) {
+			synchronized (this.room) {
+				this.room.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Journals the messages of a durable queue, then hands them to the timing wheel.
+	 */
+	private void delay(List<Message> messages, long delayMillis) {
+		if (this.delays != null)
+			this.delays.delay(messages, System.currentTimeMillis() + delayMillis);
+		scheduleDelivery(messages, delayMillis);
+	}
+
+	private void scheduleDelivery(List<Message> messages, long delayMillis) {
+		this.delayed.addAndGet(messages.size());
+		for (Message message : messages)
+			this.timingWheel.schedule(message, delayMillis, this.due);
+	}
+
+	private void due(List<Message> messages) {
+		execute(() -> deliver(messages));
+	}
+
+	/**
+	 * Pushes the due messages. A durable queue first drops them from its journal and pushes only the
+	 * ones it dropped, so that of the queues open on one folder a single one delivers each message. The
+	 * ones the queue rejected are journaled again and pushed when it is opened next.
+	 */
+	private void deliver(List<Message> messages) {
+		this.delayed.addAndGet(-messages.size());
+		if (this.delays != null)
+			messages = claim(messages);
+		List<Message> rejected = new ArrayList<>();
+		if (!this.options.isBounded()) {
+			try {
+				enqueueAll(messages);
+			} catch (IllegalStateException e) {
+				LOG.log(Level.SEVERE, "Queue is full, [" + messages.size() + "] delayed messages could not be delivered.", e);
+				rejected.addAll(messages);
+			}
+		} else {
+			for (Message message : messages) {
+				try {
+					enqueue(message);
+				} catch (RuntimeException e) {
+					LOG.log(Level.SEVERE, "Delayed message [" + message.getMessageId() + "] could not be delivered.", e);
+					rejected.add(message);
+				}
+			}
+		}
+		if (this.delays != null && !rejected.isEmpty())
+			this.delays.delay(rejected, System.currentTimeMillis());
+	}
+
+	/**
+	 * @return the messages the journal still held, in their order
+	 */
+	private List<Message> claim(List<Message> messages) {
+		List<String> receiptHandles = new ArrayList<>(messages.size());
+		for (Message message : messages)
+			receiptHandles.add(message.getReceiptHandle());
+		Set<String> claimed = new HashSet<>(this.delays.delivered(receiptHandles));
+		List<Message> pending = new ArrayList<>(claimed.size());
+		for (Message message : messages) {
+			if (claimed.contains(message.getReceiptHandle()))
+				pending.add(message);
+		}
+		return pending;
+	}
+
+	private static OverLimitException overLimit(Message message) {
+		return new OverLimitException("Queue is full, message [" + message.getMessageId() + "] rejected.");
+	}
+
+	public Message poll() {
+		return poll(this.visibilityTimeout);
+	}
+
+	/**
+	 * Polls up to maxMessages messages under a single lock of the queue.
+	 * @param maxMessages
+	 * @return the messages, empty if the queue is empty
+	 */
+	public List<Message> pollBatch(int maxMessages) {
+		if (maxMessages <= 0)
+			throw new IllegalArgumentException("Max messages must be positive.");
+
+		long visibilityTimeout = this.visibilityTimeout;
+		List<Message> messages;
+		if (this.leases != null) {
+			messages = this.leases.lease(System.currentTimeMillis() + visibilityTimeout, maxMessages);
+		} else {
+			messages = new ArrayList<>(Math.min(maxMessages, 16));
+			this.queue.drainTo(messages, maxMessages);
+		}
+		for (Message message : messages)
+			received(message, visibilityTimeout);
+		if (!messages.isEmpty())
+			consumed();
+		return messages;
+	}
+
+	/**
+	 * Polls with a visibility timeout of its own instead of the one of the queue.
+	 * @param visibilityTimeout, millis the message stays hidden unless deleted.
+	 * @return message
+	 */
+	public Message poll(long visibilityTimeout) {
+		checkVisibilityTimeout(visibilityTimeout);
+		Message message;
+		if (this.leases != null) {
+			message = this.leases.lease(System.currentTimeMillis() + visibilityTimeout);
+			if (message == null)
+				return new Message();
+		} else {
+			message = this.queue.pollFirst();
+		}
+
+		if (message != null && message.getBody() != null) {
+			received(message, visibilityTimeout);
+			consumed();
+		}
+		return message;
+	}
+
+	/**
+	 * Long poll, waits up to waitTime for a message. Waiting consumers are parked on the queue, each
+	 * push or requeue wakes up one of them.
+	 * @param waitTime
+	 * @param unit
+	 * @return message, or what {@link #poll()} returns on an empty queue if none arrived in time
+	 */
+	public Message poll(long waitTime, TimeUnit unit) {
+		long visibilityTimeout = this.visibilityTimeout;
+		Message message;
+		try {
+			if (this.leases != null) {
+				message = this.leases.lease(visibilityTimeout, waitTime, unit);
+				if (message == null)
+					return new Message();
+			} else {
+				message = this.queue.pollFirst(waitTime, unit);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return (this.leases != null) ? new Message() : null;
+		}
+
+		if (message != null && message.getBody() != null) {
+			received(message, visibilityTimeout);
+			consumed();
+		}
+		return message;
+	}
+
+	/**
+	 * Hides the in-flight message for visibilityTimeout millis from now on, zero makes it visible
+	 * again right away.
+	 * @param receiptHandle
+	 * @param visibilityTimeout
+	 * @return false if the message is not in flight any more
+	 */
+	public boolean changeVisibility(String receiptHandle, long visibilityTimeout) {
+		checkVisibilityTimeout(visibilityTimeout);
+		if (receiptHandle == null)
+			return false;
+
+		boolean[] changed = new boolean[1];
+		// Atomic with delete, which then cancels the new timeout
+		this.inFlightMessages.computeIfPresent(receiptHandle, (handle, timeout) -> {
+			if (!timeout.cancel())
+				return timeout;
+			changed[0] = true;
+			return this.timingWheel.schedule(timeout.message(), visibilityTimeout, this.expiry);
+		});
+		if (changed[0] && this.leases != null)
+			this.leases.extend(receiptHandle, System.currentTimeMillis() + visibilityTimeout);
+		return changed[0];
+	}
+
+	private static void checkVisibilityTimeout(long visibilityTimeout) {
+		if (visibilityTimeout < 0)
+			throw new IllegalArgumentException("Visibility timeout can not be negative.");
+	}
+
+	/**
+	 * Counts the receive, the leases of a durable queue counted it already, and hides the message.
+	 */
+	private void received(Message message, long visibilityTimeout) {
+		if (this.leases == null)
+			MessageAttributes.received(message);
+		schedule(message, visibilityTimeout);
+	}
+
+	private void schedule(Message message, long delay) {
+		// Cache the polled message to simulate the suppression of the
+		// message.
+		this.inFlightMessages.put(message.getMessageId(), this.timingWheel.schedule(message, delay, this.expiry));
+	}
+
+	private void expired(List<Message> messages) {
+		execute(() -> requeue(messages));
+	}
+
+	/**
+	 * Runs the task on the executor service, or on the workers of the timing wheel when the queue has
+	 * none or it rejects the task. Never on the ticker thread, the task may block on the queue.
+	 */
+	private void execute(Runnable task) {
+		if (this.executorService != null) {
+			try {
+				this.executorService.execute(task);
+				return;
+			} catch (RejectedExecutionException e) {
+				LOG.log(Level.FINE, "Executor service rejected the task, running it on the timing wheel workers.");
+			}
+		}
+		this.timingWheel.executor().execute(task);
+	}
+
+	/**
+	 * Adds the expired messages to the queue head, keeping their order.
+	 */
+	private void requeue(List<Message> messages) {
+		for (Message message : messages)
+			this.inFlightMessages.remove(message.getMessageId());
+
+		if (this.deadLetterQueue != null)
+			messages = redrive(messages);
+		if (messages.isEmpty())
+			return;
+		if (this.leases != null) {
+			for (Message message : this.leases.expire(messages))
+				LOG.log(Level.SEVERE, "Queue is full, message [" + message.getMessageId() + "] could not be requeued.");
+			return;
+		}
+		for (int i = messages.size() - 1; i >= 0; i--) {
+			if (!this.queue.offerFirst(messages.get(i)))
+				LOG.log(Level.SEVERE, "Queue is full, message [" + messages.get(i).getMessageId() + "] could not be requeued.");
+		}
+	}
+
+	/**
+	 * Pushes the messages received maxReceiveCount times to the dead-letter queue. The lease of a
+	 * durable queue is released once the dead-letter queue took the message, a crash in between leaves
+	 * it in both queues rather than in none.
+	 * @return the messages to requeue
+	 */
+	private List<Message> redrive(List<Message> messages) {
+		MessageQueue<?> deadLetterQueue = this.deadLetterQueue;
+		int maxReceiveCount = this.maxReceiveCount;
+		List<Message> requeue = new ArrayList<>(messages.size());
+		List<String> redriven = new ArrayList<>();
+		for (Message message : messages) {
+			if (MessageAttributes.receiveCount(message) < maxReceiveCount) {
+				requeue.add(message);
+				continue;
+			}
+			try {
+				// Not delayed a second time
+				deadLetterQueue.enqueue(message);
+				redriven.add(message.getReceiptHandle());
+				unlockGroup(message);
+			} catch (RuntimeException e) {
+				LOG.log(Level.SEVERE, "Failed to move message [" + message.getMessageId() + "] to the dead-letter queue.", e);
+				requeue.add(message);
+			}
+		}
+		if (this.leases != null && !redriven.isEmpty())
+			this.leases.release(redriven);
+		return requeue;
+	}
+
+	/**
+	 * Lets consumers take the next message of the group of a FIFO queue.
+	 */
+	private void unlockGroup(Message message) {
+		if (this.groups == null)
+			return;
+		String messageGroupId = MessageAttributes.messageGroupId(message);
+		if (messageGroupId != null)
+			this.groups.unlock(messageGroupId);
+	}
+
+	public boolean delete(String receiptHandle) {
+		if (receiptHandle == null || !this.inFlightMessages.containsKey(receiptHandle))
+			return false;
+
+		TimingWheel.Timeout timeout = this.inFlightMessages.remove(receiptHandle);
+		if (timeout == null) {
+			LOG.log(Level.SEVERE,
+					"Message not found in inflight messages for receiptHandle [" + receiptHandle + "].");
+			throw new RuntimeException(
+					"Message not found in inflight messages for receiptHandle [" + receiptHandle + "].");
+		}
+		// Cancel the re-insertion of the message to queue head
+		if (!timeout.cancel())
+			return false;
+		if (this.leases != null)
+			this.leases.release(receiptHandle);
+		unlockGroup(timeout.message());
+		return true;
+	}
+
+	/**
+	 * Deletes the messages, the leases of a durable queue are dropped with one write.
+	 * @param receiptHandles
+	 * @return number of messages deleted
+	 */
+	public int deleteBatch(List<String> receiptHandles) {
+		List<String> deleted = new ArrayList<>(receiptHandles.size());
+		for (String receiptHandle : receiptHandles) {
+			TimingWheel.Timeout timeout = (receiptHandle != null) ? this.inFlightMessages.remove(receiptHandle) : null;
+			// Cancel the re-insertion of the message to queue head
+			if (timeout != null && timeout.cancel()) {
+				deleted.add(receiptHandle);
+				unlockGroup(timeout.message());
+			}
+		}
+		if (this.leases != null && !deleted.isEmpty())
+			this.leases.release(deleted);
+		return deleted.size();
+	}
+
+	public void withVisibilityTimeout(long visibilityTimeout) {
+		this.visibilityTimeout = visibilityTimeout;
+	}
+
+	public int inFlightSize() {
+		return this.inFlightMessages.size();
+	}
+
+	/**
+	 * @return delayed messages not due yet, they do not count in {@link #size()}
+	 */
+	public int delayedSize() {
+		return this.delayed.get();
+	}
+
+	/**
+	 * @return messages waiting in the queue, the spilled ones included
+	 */
+	public int size() {
+		FileQueue<Message> spill = this.spill;
+		return this.queue.size() + (spill != null ? spill.size() : 0);
+	}
+}
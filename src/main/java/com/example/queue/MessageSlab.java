@@ -0,0 +1,126 @@
+package com.example.queue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Stores messages outside the heap, encoded with {@link RecordCodec} into direct buffer arenas. A
+ * stored message is referred to by a long handle holding its arena and offset.
+ *
+ * <p>
+ * Arenas are filled front to back and never compacted, an arena is recycled once every message in it
+ * was freed. Queues free their messages roughly in the order they stored them, so arenas empty out
+ * one after the other. Records larger than an arena get an arena of their own.
+ *
+ * <p>
+ * Not thread safe, the owning queue calls it under its lock.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class MessageSlab {
+
+	static final int DEFAULT_ARENA_SIZE = 4 << 20;
+
+	// Empty arenas kept for reuse, the others are left to the garbage collector
+	private static final int MAX_FREE_ARENAS = 4;
+
+	private static final class Arena {
+		private final ByteBuffer buffer;
+		private int id;
+		private int live;
+
+		private Arena(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+	}
+
+	private final int arenaSize;
+	private final List<Arena> arenas = new ArrayList<>();
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+	private final Deque<Arena> freeArenas = new ArrayDeque<>();
+	private Arena current;
+
+	MessageSlab(int arenaSize) {
+		if (arenaSize <= 0)
+			throw new IllegalArgumentException("Arena size must be positive.");
+		this.arenaSize = arenaSize;
+	}
+
+	/**
+	 * @param message
+	 * @return handle of the stored message
+	 */
+	long store(Message message) {
+		ByteBuffer record = RecordCodec.encode(message);
+		int size = record.remaining();
+		if (this.current == null || this.current.buffer.remaining() < size)
+			this.current = allocate(size);
+
+		Arena arena = this.current;
+		int offset = arena.buffer.position();
+		arena.buffer.put(record);
+		arena.live++;
+		return (long) arena.id << 32 | offset;
+	}
+
+	Message load(long handle) {
+		return RecordCodec.decode(arena(handle).buffer, (int) handle);
+	}
+
+	void free(long handle) {
+		Arena arena = arena(handle);
+		if (--arena.live > 0)
+			return;
+		if (arena == this.current)
+			// Start over, nothing in the arena is referred to any more
+			arena.buffer.clear();
+		else
+			release(arena);
+	}
+
+	/**
+	 * @return number of arenas holding messages
+	 */
+	int arenaCount() {
+		return this.arenas.size() - this.freeIds.size();
+	}
+
+	private Arena arena(long handle) {
+		return this.arenas.get((int) (handle >>> 32));
+	}
+
+	private Arena allocate(int recordSize) {
+		Arena previous = this.current;
+		if (previous != null && previous.live == 0)
+			release(previous);
+
+		Arena arena = (recordSize <= this.arenaSize) ? this.freeArenas.poll() : null;
+		if (arena == null)
+			arena = new Arena(ByteBuffer.allocateDirect(Math.max(this.arenaSize, recordSize)));
+		arena.buffer.clear();
+		arena.live = 0;
+
+		Integer id = this.freeIds.poll();
+		if (id == null) {
+			arena.id = this.arenas.size();
+			this.arenas.add(arena);
+		} else {
+			arena.id = id;
+			this.arenas.set(id, arena);
+		}
+		return arena;
+	}
+
+	private void release(Arena arena) {
+		this.arenas.set(arena.id, null);
+		this.freeIds.push(arena.id);
+		if (arena.buffer.capacity() == this.arenaSize && this.freeArenas.size() < MAX_FREE_ARENAS)
+			this.freeArenas.push(arena);
+	}
+}
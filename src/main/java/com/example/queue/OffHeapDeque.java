@@ -0,0 +1,432 @@
+package com.example.queue;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Blocking deque keeping its messages outside the heap. Ids and bodies are stored in a
+ * {@link MessageSlab}, the heap only holds a long handle per message in a circular array. A
+ * {@link Message} is materialized again when it is polled, so a pending message costs the heap eight
+ * bytes instead of the message object, its strings and a deque node.
+ *
+ * <p>
+ * Requeued messages are never rejected, the capacity only bounds {@link #offerLast(Message)}.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class OffHeapDeque implements BlockingDeque<Message> {
+
+	private static final int INITIAL_HANDLES = 16;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+
+	private final int capacity;
+	private final MessageSlab slab;
+	private long[] handles = new long[INITIAL_HANDLES];
+	private int head;
+	// Written under the lock, read without it
+	private volatile int count;
+
+	public OffHeapDeque() {
+		this(Integer.MAX_VALUE);
+	}
+
+	public OffHeapDeque(int capacity) {
+		this(capacity, MessageSlab.DEFAULT_ARENA_SIZE);
+	}
+
+	OffHeapDeque(int capacity, int arenaSize) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive.");
+		this.capacity = capacity;
+		this.slab = new MessageSlab(arenaSize);
+	}
+
+	@Override
+	public boolean offerFirst(Message message) {
+		Objects.requireNonNull(message);
+		this.lock.lock();
+		try {
+			ensureRoom();
+			this.head = (this.head - 1) & (this.handles.length - 1);
+			this.handles[this.head] = this.slab.store(message);
+			this.count++;
+			this.notEmpty.signal();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offerLast(Message message) {
+		Objects.requireNonNull(message);
+		this.lock.lock();
+		try {
+			return append(message);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offerLast(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		Objects.requireNonNull(message);
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (!append(message)) {
+				if (nanos <= 0)
+					return false;
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void putLast(Message message) throws InterruptedException {
+		offerLast(message, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stores the messages that fit under one lock.
+	 * @throws IllegalStateException if not all of them fit, the ones that did are added.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends Message> messages) {
+		Objects.requireNonNull(messages);
+		if (messages.isEmpty())
+			return false;
+		this.lock.lock();
+		try {
+			for (Message message : messages) {
+				if (!append(Objects.requireNonNull(message)))
+					throw new IllegalStateException("Queue is full.");
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message pollFirst() {
+		this.lock.lock();
+		try {
+			return first(true);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while (this.count == 0) {
+				if (nanos <= 0)
+					return null;
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			return first(true);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public Message takeFirst() throws InterruptedException {
+		return pollFirst(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public Message peekFirst() {
+		this.lock.lock();
+		try {
+			return first(false);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<? super Message> c, int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this)
+			throw new IllegalArgumentException();
+		this.lock.lock();
+		try {
+			int drained = 0;
+			while (drained < maxElements && this.count > 0) {
+				c.add(first(true));
+				drained++;
+			}
+			return drained;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<? super Message> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int size() {
+		return this.count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Math.max(0, this.capacity - size());
+	}
+
+	@Override
+	public boolean offer(Message message) {
+		return offerLast(message);
+	}
+
+	@Override
+	public boolean offer(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		return offerLast(message, timeout, unit);
+	}
+
+	@Override
+	public void put(Message message) throws InterruptedException {
+		putLast(message);
+	}
+
+	@Override
+	public boolean add(Message message) {
+		addLast(message);
+		return true;
+	}
+
+	@Override
+	public void addLast(Message message) {
+		if (!offerLast(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public void addFirst(Message message) {
+		if (!offerFirst(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public Message poll() {
+		return pollFirst();
+	}
+
+	@Override
+	public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+
+	@Override
+	public Message take() throws InterruptedException {
+		return takeFirst();
+	}
+
+	@Override
+	public Message peek() {
+		return peekFirst();
+	}
+
+	/**
+	 * Called under the lock.
+	 */
+	private boolean append(Message message) {
+		if (this.count >= this.capacity)
+			return false;
+		ensureRoom();
+		this.handles[(this.head + this.count) & (this.handles.length - 1)] = this.slab.store(message);
+		this.count++;
+		this.notEmpty.signal();
+		return true;
+	}
+
+	/**
+	 * Materializes the head message, called under the lock.
+	 * @param remove, false to leave it in the deque.
+	 */
+	private Message first(boolean remove) {
+		if (this.count == 0)
+			return null;
+		long handle = this.handles[this.head];
+		Message message = this.slab.load(handle);
+		if (remove) {
+			this.slab.free(handle);
+			this.head = (this.head + 1) & (this.handles.length - 1);
+			this.count--;
+			this.notFull.signal();
+		}
+		return message;
+	}
+
+	/**
+	 * Doubles the handle array when it is full, called under the lock.
+	 */
+	private void ensureRoom() {
+		if (this.count < this.handles.length)
+			return;
+		long[] grown = new long[this.handles.length << 1];
+		for (int i = 0; i < this.count; i++)
+			grown[i] = this.handles[(this.head + i) & (this.handles.length - 1)];
+		this.handles = grown;
+		this.head = 0;
+	}
+
+	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+
+	@Override
+	public void putFirst(Message message) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean offerFirst(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message takeLast() throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Object[] toArray() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public <E> E[] toArray(E[] a) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message peekLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pop() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> descendingIterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message remove() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message element() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> iterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void push(Message e) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+}
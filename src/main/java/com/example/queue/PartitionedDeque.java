@@ -0,0 +1,436 @@
+package com.example.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Blocking deque spreading the messages of one queue over several partitions, so that producers and
+ * consumers on different cores do not contend for the lock of a single deque.
+ *
+ * <p>
+ * Every thread has a home partition picked by its id. Producers append to it, consumers take from it
+ * first and steal from the other partitions once it is empty. A consumer waiting for a message parks on
+ * its home partition and looks at the others again every few milliseconds. The order of the messages
+ * is kept within a partition only, except for message groups: all the messages of a group go to the
+ * partition of the group, so a FIFO queue keeps the order of each group. Partitions of a FIFO queue
+ * thus need room for every message of a group, the other messages move on to the next partition with
+ * room when theirs is full.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class PartitionedDeque<T extends BlockingDeque<Message>> implements BlockingDeque<Message>, MessageGroups {
+
+	// Consumers parked on their home partition look for messages in the others at least this often
+	private static final long STEAL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	protected final List<T> partitions;
+
+	/**
+	 * @param partitions, at least two.
+	 */
+	public PartitionedDeque(List<T> partitions) {
+		Objects.requireNonNull(partitions, "Partitions can not be null.");
+		if (partitions.size() < 2)
+			throw new IllegalArgumentException("At least two partitions are required.");
+		for (T partition : partitions)
+			Objects.requireNonNull(partition, "Partition can not be null.");
+		this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+	}
+
+	public int partitionCount() {
+		return this.partitions.size();
+	}
+
+	/**
+	 * Index of the home partition of the calling thread.
+	 */
+	protected int home() {
+		return (int) (Thread.currentThread().getId() % this.partitions.size());
+	}
+
+	/**
+	 * Partition the message is appended to, the one of its group if it has one.
+	 */
+	protected int partitionOf(Message message) {
+		String messageGroupId = MessageAttributes.messageGroupId(message);
+		return (messageGroupId != null) ? partitionOf(messageGroupId) : home();
+	}
+
+	protected int partitionOf(String key) {
+		return Math.floorMod(key.hashCode(), this.partitions.size());
+	}
+
+	/**
+	 * @return the head of the partition, null if it is empty
+	 */
+	protected Message poll(T partition) {
+		return partition.pollFirst();
+	}
+
+	/**
+	 * Puts the message back at the head of the partition of its group, or of the partition its id
+	 * hashes to so that requeued messages spread over the partitions.
+	 */
+	@Override
+	public boolean offerFirst(Message message) {
+		Objects.requireNonNull(message);
+		String messageGroupId = MessageAttributes.messageGroupId(message);
+		String key = (messageGroupId != null) ? messageGroupId : String.valueOf(message.getMessageId());
+		return this.partitions.get(partitionOf(key)).offerFirst(message);
+	}
+
+	/**
+	 * Appends to the home partition, or to the next one with room if it is full. Messages of a group
+	 * only go to the partition of the group if it keeps the order of the groups.
+	 */
+	@Override
+	public boolean offerLast(Message message) {
+		Objects.requireNonNull(message);
+		int first = partitionOf(message);
+		T partition = this.partitions.get(first);
+		if (partition.offerLast(message))
+			return true;
+		if (partition instanceof MessageGroups && MessageAttributes.messageGroupId(message) != null)
+			return false;
+		int size = this.partitions.size();
+		for (int i = 1; i < size; i++) {
+			if (this.partitions.get((first + i) % size).offerLast(message))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean offerLast(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		if (offerLast(message))
+			return true;
+		return this.partitions.get(partitionOf(message)).offerLast(message, timeout, unit);
+	}
+
+	@Override
+	public void putLast(Message message) throws InterruptedException {
+		offerLast(message, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Appends the batch to the home partition with one call if it has room for all of it. Otherwise,
+	 * and for the messages of groups, the messages are appended one by one as {@link #offerLast} does.
+	 * @throws IllegalStateException if not all of them fit
+	 */
+	@Override
+	public boolean addAll(Collection<? extends Message> messages) {
+		Objects.requireNonNull(messages);
+		if (messages.isEmpty())
+			return false;
+		boolean grouped = false;
+		for (Message message : messages)
+			grouped |= MessageAttributes.messageGroupId(Objects.requireNonNull(message)) != null;
+		T home = this.partitions.get(home());
+		if (!grouped && home.remainingCapacity() >= messages.size())
+			return home.addAll(messages);
+		for (Message message : messages) {
+			if (!offerLast(message))
+				throw new IllegalStateException("Queue is full.");
+		}
+		return true;
+	}
+
+	/**
+	 * Lets consumers take the next message of the group, in the partition of the group.
+	 */
+	@Override
+	public boolean unlock(String messageGroupId) {
+		Objects.requireNonNull(messageGroupId, "Message group id can not be null.");
+		T partition = this.partitions.get(partitionOf(messageGroupId));
+		return (partition instanceof MessageGroups) && ((MessageGroups) partition).unlock(messageGroupId);
+	}
+
+	/**
+	 * Takes from the home partition, then steals from the others.
+	 */
+	@Override
+	public Message pollFirst() {
+		int first = home();
+		int size = this.partitions.size();
+		for (int i = 0; i < size; i++) {
+			Message message = poll(this.partitions.get((first + i) % size));
+			if (message != null)
+				return message;
+		}
+		return null;
+	}
+
+	@Override
+	public Message pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (true) {
+			Message message = pollFirst();
+			if (message != null)
+				return message;
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return null;
+			message = this.partitions.get(home()).pollFirst(Math.min(remaining, STEAL_CHECK_NANOS),
+					TimeUnit.NANOSECONDS);
+			if (message != null)
+				return message;
+		}
+	}
+
+	@Override
+	public Message takeFirst() throws InterruptedException {
+		return pollFirst(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public Message peekFirst() {
+		int first = home();
+		int size = this.partitions.size();
+		for (int i = 0; i < size; i++) {
+			Message message = this.partitions.get((first + i) % size).peekFirst();
+			if (message != null)
+				return message;
+		}
+		return null;
+	}
+
+	/**
+	 * Drains the home partition first, then the others.
+	 */
+	@Override
+	public int drainTo(Collection<? super Message> c, int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this)
+			throw new IllegalArgumentException();
+		int first = home();
+		int size = this.partitions.size();
+		int drained = 0;
+		for (int i = 0; i < size && drained < maxElements; i++)
+			drained += this.partitions.get((first + i) % size).drainTo(c, maxElements - drained);
+		return drained;
+	}
+
+	@Override
+	public int drainTo(Collection<? super Message> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int size() {
+		long size = 0;
+		for (T partition : this.partitions)
+			size += partition.size();
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for (T partition : this.partitions) {
+			if (!partition.isEmpty())
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		long remaining = 0;
+		for (T partition : this.partitions)
+			remaining += partition.remainingCapacity();
+		return (int) Math.min(remaining, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean offer(Message message) {
+		return offerLast(message);
+	}
+
+	@Override
+	public boolean offer(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		return offerLast(message, timeout, unit);
+	}
+
+	@Override
+	public void put(Message message) throws InterruptedException {
+		putLast(message);
+	}
+
+	@Override
+	public boolean add(Message message) {
+		addLast(message);
+		return true;
+	}
+
+	@Override
+	public void addLast(Message message) {
+		if (!offerLast(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public void addFirst(Message message) {
+		if (!offerFirst(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public Message poll() {
+		return pollFirst();
+	}
+
+	@Override
+	public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+
+	@Override
+	public Message take() throws InterruptedException {
+		return takeFirst();
+	}
+
+	@Override
+	public Message peek() {
+		return peekFirst();
+	}
+
+	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+
+	@Override
+	public void putFirst(Message message) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean offerFirst(Message message, long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message takeLast() throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Object[] toArray() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public <E> E[] toArray(E[] a) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message removeLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pollLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message getLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message peekLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message pop() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> descendingIterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message remove() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Message element() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<Message> iterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void push(Message e) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+}
@@ -0,0 +1,213 @@
+package com.example.queue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * {@link PartitionedDeque} of file queues, each partition has a folder and a lock of its own and may
+ * sit on a volume of its own. Leases and delayed messages are kept by the partition that handed out or
+ * journaled the message, the queue remembers which one so that releasing, extending or requeueing the
+ * message goes back there.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class PartitionedFileQueue extends PartitionedDeque<FileQueue<Message>>
+		implements DurableLeases, DurableDelays, Closeable {
+
+	private static final long STEAL_CHECK_MILLIS = 10;
+
+	private final ConcurrentMap<String, FileQueue<Message>> leased = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, FileQueue<Message>> delayed = new ConcurrentHashMap<>();
+
+	public PartitionedFileQueue(List<FileQueue<Message>> partitions) {
+		super(partitions);
+	}
+
+	/**
+	 * File queues hand out an empty message instead of null.
+	 */
+	@Override
+	protected Message poll(FileQueue<Message> partition) {
+		Message message = partition.pollFirst();
+		return (message != null && message.getBody() != null) ? message : null;
+	}
+
+	@Override
+	public Message lease(long deadline) {
+		int first = home();
+		int size = this.partitions.size();
+		for (int i = 0; i < size; i++) {
+			FileQueue<Message> partition = this.partitions.get((first + i) % size);
+			Message message = partition.lease(deadline);
+			if (message != null) {
+				this.leased.put(message.getReceiptHandle(), partition);
+				return message;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List<Message> lease(long deadline, int maxMessages) {
+		List<Message> messages = new ArrayList<>(Math.min(maxMessages, 16));
+		int first = home();
+		int size = this.partitions.size();
+		for (int i = 0; i < size && messages.size() < maxMessages; i++) {
+			FileQueue<Message> partition = this.partitions.get((first + i) % size);
+			for (Message message : partition.lease(deadline, maxMessages - messages.size())) {
+				this.leased.put(message.getReceiptHandle(), partition);
+				messages.add(message);
+			}
+		}
+		return messages;
+	}
+
+	/**
+	 * Parks on the home partition and looks at the others again every few milliseconds.
+	 */
+	@Override
+	public Message lease(long visibilityTimeout, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (true) {
+			Message message = lease(System.currentTimeMillis() + visibilityTimeout);
+			if (message != null)
+				return message;
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining <= 0)
+				return null;
+			FileQueue<Message> partition = this.partitions.get(home());
+			message = partition.lease(visibilityTimeout, Math.min(remaining, STEAL_CHECK_MILLIS), TimeUnit.MILLISECONDS);
+			if (message != null) {
+				this.leased.put(message.getReceiptHandle(), partition);
+				return message;
+			}
+		}
+	}
+
+	/**
+	 * Each run of messages leased from the same partition is put back with one call.
+	 */
+	@Override
+	public List<Message> expire(List<Message> messages) {
+		List<Message> rejected = new ArrayList<>();
+		int start = 0;
+		while (start < messages.size()) {
+			FileQueue<Message> partition = owner(this.leased, messages.get(start));
+			int end = start + 1;
+			while (end < messages.size() && owner(this.leased, messages.get(end)) == partition)
+				end++;
+			List<Message> full = partition.expire(messages.subList(start, end));
+			Set<String> kept = new HashSet<>();
+			for (Message message : full)
+				kept.add(message.getReceiptHandle());
+			for (Message message : messages.subList(start, end)) {
+				if (!kept.contains(message.getReceiptHandle()))
+					this.leased.remove(message.getReceiptHandle());
+			}
+			rejected.addAll(full);
+			start = end;
+		}
+		return rejected;
+	}
+
+	@Override
+	public boolean extend(String receiptHandle, long deadline) {
+		FileQueue<Message> partition = (receiptHandle != null) ? this.leased.get(receiptHandle) : null;
+		return partition != null && partition.extend(receiptHandle, deadline);
+	}
+
+	@Override
+	public boolean release(String receiptHandle) {
+		FileQueue<Message> partition = (receiptHandle != null) ? this.leased.remove(receiptHandle) : null;
+		return partition != null && partition.release(receiptHandle);
+	}
+
+	@Override
+	public int release(List<String> receiptHandles) {
+		int released = 0;
+		for (Map.Entry<FileQueue<Message>, List<String>> entry : byPartition(this.leased, receiptHandles).entrySet())
+			released += entry.getKey().release(entry.getValue());
+		return released;
+	}
+
+	@Override
+	public void recover(ObjLongConsumer<Message> consumer) {
+		for (FileQueue<Message> partition : this.partitions) {
+			partition.recover((message, deadline) -> {
+				this.leased.put(message.getReceiptHandle(), partition);
+				consumer.accept(message, deadline);
+			});
+		}
+	}
+
+	/**
+	 * Journaled by the home partition, the messages are pushed to whichever partition takes them once
+	 * they are due.
+	 */
+	@Override
+	public void delay(List<Message> messages, long deadline) {
+		FileQueue<Message> partition = this.partitions.get(home());
+		partition.delay(messages, deadline);
+		for (Message message : messages)
+			this.delayed.put(message.getReceiptHandle(), partition);
+	}
+
+	@Override
+	public List<String> delivered(List<String> receiptHandles) {
+		List<String> delivered = new ArrayList<>(receiptHandles.size());
+		for (Map.Entry<FileQueue<Message>, List<String>> entry : byPartition(this.delayed, receiptHandles).entrySet())
+			delivered.addAll(entry.getKey().delivered(entry.getValue()));
+		return delivered;
+	}
+
+	@Override
+	public void recoverDelays(ObjLongConsumer<Message> consumer) {
+		for (FileQueue<Message> partition : this.partitions) {
+			partition.recoverDelays((message, deadline) -> {
+				this.delayed.put(message.getReceiptHandle(), partition);
+				consumer.accept(message, deadline);
+			});
+		}
+	}
+
+	@Override
+	public void close() {
+		for (FileQueue<Message> partition : this.partitions)
+			partition.close();
+	}
+
+	/**
+	 * Partition holding the message, the home partition if it is not known.
+	 */
+	private FileQueue<Message> owner(ConcurrentMap<String, FileQueue<Message>> owners, Message message) {
+		FileQueue<Message> partition = owners.get(message.getReceiptHandle());
+		return (partition != null) ? partition : this.partitions.get(home());
+	}
+
+	/**
+	 * Removes the receipt handles from owners and groups them by the partition holding them, unknown
+	 * ones are left out.
+	 */
+	private static Map<FileQueue<Message>, List<String>> byPartition(ConcurrentMap<String, FileQueue<Message>> owners,
+			List<String> receiptHandles) {
+		Map<FileQueue<Message>, List<String>> byPartition = new LinkedHashMap<>();
+		for (String receiptHandle : receiptHandles) {
+			FileQueue<Message> partition = (receiptHandle != null) ? owners.remove(receiptHandle) : null;
+			if (partition != null)
+				byPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(receiptHandle);
+		}
+		return byPartition;
+	}
+}
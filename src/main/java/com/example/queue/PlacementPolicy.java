@@ -0,0 +1,60 @@
+package com.example.queue;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Picks the root directory of a new {@link FileQueue} out of several, typically one per mounted
+ * volume, so that the I/O of many queues spreads over the volumes.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public enum PlacementPolicy {
+
+	/**
+	 * Hash of the queue name modulo the number of roots. Stable for a fixed list of roots and needs no
+	 * I/O, but does not look at how full the volumes are.
+	 */
+	HASH {
+		@Override
+		public File select(String queueName, List<File> rootDirectories) {
+			return rootDirectories.get(Math.floorMod(queueName.hashCode(), rootDirectories.size()));
+		}
+	},
+
+	/**
+	 * The root with the most usable space, ties go to the root holding fewer queues.
+	 */
+	LEAST_USED {
+		@Override
+		public File select(String queueName, List<File> rootDirectories) {
+			File selected = null;
+			long selectedSpace = -1;
+			int selectedQueues = 0;
+			for (File rootDirectory : rootDirectories) {
+				rootDirectory.mkdirs();
+				long space = rootDirectory.getUsableSpace();
+				int queues = queueCount(rootDirectory);
+				if (space > selectedSpace || (space == selectedSpace && queues < selectedQueues)) {
+					selected = rootDirectory;
+					selectedSpace = space;
+					selectedQueues = queues;
+				}
+			}
+			return selected;
+		}
+	};
+
+	/**
+	 * @param queueName
+	 * @param rootDirectories, not empty.
+	 * @return root directory for the new queue
+	 */
+	public abstract File select(String queueName, List<File> rootDirectories);
+
+	private static int queueCount(File rootDirectory) {
+		File[] queues = rootDirectory.listFiles(File::isDirectory);
+		return queues == null ? 0 : queues.length;
+	}
+}
@@ -0,0 +1,157 @@
+package com.example.queue;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Memory mapped metadata of a file backed queue: how many messages were enqueued and dequeued so far
+ * and the head and tail positions of the store. The meaning of the positions is up to the store.
+ *
+ * <p>
+ * Stores update the header under the queue lock together with the data it describes, the position
+ * first and the counter after it. The counters can be read at any time without the lock, which makes
+ * the depth of the queue a constant time read.
+ *
+ * <p>
+ * The header also counts the consumers blocked on an empty queue. Memory mapped writes raise no file
+ * change event, so while the count is positive producers {@link #touch()} the header file to wake the
+ * consumers of other processes.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class QueueHeader implements Closeable {
+
+	private static final Logger LOG = Logger.getLogger(QueueHeader.class.getName());
+
+	private static final int MAGIC = 0x51484452;
+
+	// Header layout
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_ENQUEUED = 8;
+	private static final int HEADER_DEQUEUED = 16;
+	private static final int HEADER_HEAD = 24;
+	private static final int HEADER_TAIL = 32;
+	private static final int HEADER_WAITERS = 40;
+	private static final int HEADER_SIZE = 64;
+
+	private final File headerFile;
+	private final FileChannel channel;
+	private final MappedByteBuffer header;
+	private final boolean created;
+
+	QueueHeader(File queueRoot) {
+		this.headerFile = new File(queueRoot, "header");
+		try {
+			this.channel = FileChannel.open(this.headerFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to map header file [" + this.headerFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to map header file [" + this.headerFile.getPath() + "].", e);
+		}
+		this.created = this.header.getInt(HEADER_MAGIC) != MAGIC;
+		if (this.created)
+			this.header.putInt(HEADER_MAGIC, MAGIC);
+	}
+
+	/**
+	 * @return true if the header file did not exist before, all the fields are then zero.
+	 */
+	boolean created() {
+		return this.created;
+	}
+
+	long head() {
+		return this.header.getLong(HEADER_HEAD);
+	}
+
+	long tail() {
+		return this.header.getLong(HEADER_TAIL);
+	}
+
+	void head(long head) {
+		this.header.putLong(HEADER_HEAD, head);
+	}
+
+	void tail(long tail) {
+		this.header.putLong(HEADER_TAIL, tail);
+	}
+
+	void appended(long tail) {
+		appended(tail, 1);
+	}
+
+	void appended(long tail, int count) {
+		this.header.putLong(HEADER_TAIL, tail);
+		this.header.putLong(HEADER_ENQUEUED, this.header.getLong(HEADER_ENQUEUED) + count);
+	}
+
+	void polled(long head) {
+		this.header.putLong(HEADER_HEAD, head);
+		this.header.putLong(HEADER_DEQUEUED, this.header.getLong(HEADER_DEQUEUED) + 1);
+	}
+
+	/**
+	 * Sets the counters to match a store that already holds messages.
+	 * @param size
+	 */
+	void reset(long size) {
+		this.header.putLong(HEADER_DEQUEUED, 0);
+		this.header.putLong(HEADER_ENQUEUED, size);
+	}
+
+	/**
+	 * Number of messages in the store. Read without the queue lock, so it may be off by a concurrent
+	 * enqueue or dequeue but is never negative.
+	 */
+	long size() {
+		long dequeued = this.header.getLong(HEADER_DEQUEUED);
+		long enqueued = this.header.getLong(HEADER_ENQUEUED);
+		return Math.max(0, enqueued - dequeued);
+	}
+
+	/**
+	 * Adds delta to the number of blocked consumers, called under the queue lock.
+	 * @param delta
+	 */
+	void waiting(int delta) {
+		this.header.putLong(HEADER_WAITERS, Math.max(0, this.header.getLong(HEADER_WAITERS) + delta));
+	}
+
+	long waiters() {
+		return this.header.getLong(HEADER_WAITERS);
+	}
+
+	/**
+	 * Rewrites the magic number through the file channel, which raises a modify event on the header
+	 * file without changing its content.
+	 */
+	void touch() {
+		ByteBuffer magic = ByteBuffer.allocate(4).putInt(0, MAGIC);
+		try {
+			this.channel.write(magic, HEADER_MAGIC);
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Failed to touch header file [" + this.headerFile.getPath() + "].", e);
+		}
+	}
+
+	void force() {
+		this.header.force();
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.channel.close();
+		} catch (IOException ignore) {
+		}
+	}
+}
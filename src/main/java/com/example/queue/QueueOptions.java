@@ -0,0 +1,244 @@
+package com.example.queue;
+
+import java.io.File;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capacity of a queue and what {@link MessageQueue#push(com.amazonaws.services.sqs.model.Message)}
+ * does once it is reached, the {@link RedrivePolicy} of the queue if it has one, the delay of the
+ * messages sent without one of their own, whether the queue keeps the order of message groups, how
+ * long it remembers deduplication ids and how many partitions it is spread over.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class QueueOptions {
+
+	public enum OverflowPolicy {
+		/** The producer waits for room up to the block timeout, then the message is rejected. */
+		BLOCK,
+		/** The message is rejected right away. */
+		REJECT,
+		/**
+		 * The oldest messages are dropped to make room for the new one. A FIFO queue drops from the
+		 * groups not in flight only, the message is rejected when every group is.
+		 */
+		DROP_OLDEST,
+		/** Messages over capacity are written to a file queue and moved back as consumers make room. */
+		SPILL_TO_DISK
+	}
+
+	private static final QueueOptions UNBOUNDED = new QueueOptions(0, OverflowPolicy.REJECT, 0, null);
+
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final long blockTimeoutMillis;
+	private final File spillDirectory;
+	private final RedrivePolicy redrivePolicy;
+	private final long deliveryDelayMillis;
+	private final boolean fifo;
+	private final long deduplicationWindowMillis;
+	private final boolean contentBasedDeduplication;
+	private final int partitions;
+
+	private QueueOptions(int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis, File spillDirectory) {
+		this(capacity, overflowPolicy, blockTimeoutMillis, spillDirectory, null, 0, false, 0, false, 1);
+	}
+
+	private QueueOptions(int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis, File spillDirectory,
+			RedrivePolicy redrivePolicy, long deliveryDelayMillis, boolean fifo, long deduplicationWindowMillis,
+			boolean contentBasedDeduplication, int partitions) {
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.blockTimeoutMillis = blockTimeoutMillis;
+		this.spillDirectory = spillDirectory;
+		this.redrivePolicy = redrivePolicy;
+		this.deliveryDelayMillis = deliveryDelayMillis;
+		this.fifo = fifo;
+		this.deduplicationWindowMillis = deduplicationWindowMillis;
+		this.contentBasedDeduplication = contentBasedDeduplication;
+		this.partitions = partitions;
+	}
+
+	public static QueueOptions unbounded() {
+		return UNBOUNDED;
+	}
+
+	public static QueueOptions block(int capacity, long timeout, TimeUnit unit) {
+		if (timeout < 0)
+			throw new IllegalArgumentException("Block timeout can not be negative.");
+		return new QueueOptions(checkCapacity(capacity), OverflowPolicy.BLOCK, unit.toMillis(timeout), null);
+	}
+
+	public static QueueOptions reject(int capacity) {
+		return new QueueOptions(checkCapacity(capacity), OverflowPolicy.REJECT, 0, null);
+	}
+
+	public static QueueOptions dropOldest(int capacity) {
+		return new QueueOptions(checkCapacity(capacity), OverflowPolicy.DROP_OLDEST, 0, null);
+	}
+
+	/**
+	 * @param capacity
+	 * @param spillDirectory, folder of the file queue taking the messages over capacity. The queue
+	 * services treat it as a root and give every queue a folder of its own.
+	 */
+	public static QueueOptions spillToDisk(int capacity, File spillDirectory) {
+		Objects.requireNonNull(spillDirectory, "Spill directory can not be null.");
+		return new QueueOptions(checkCapacity(capacity), OverflowPolicy.SPILL_TO_DISK, 0, spillDirectory);
+	}
+
+	/**
+	 * @param spillDirectory
+	 * @return copy of these spill to disk options spilling to another directory
+	 */
+	public QueueOptions withSpillDirectory(File spillDirectory) {
+		Objects.requireNonNull(spillDirectory, "Spill directory can not be null.");
+		if (this.overflowPolicy != OverflowPolicy.SPILL_TO_DISK)
+			throw new IllegalStateException("Only spill to disk options have a spill directory.");
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, spillDirectory,
+				this.redrivePolicy, this.deliveryDelayMillis, this.fifo, this.deduplicationWindowMillis,
+				this.contentBasedDeduplication, this.partitions);
+	}
+
+	/**
+	 * @param redrivePolicy, null for none.
+	 * @return copy of these options with the redrive policy
+	 */
+	public QueueOptions withRedrivePolicy(RedrivePolicy redrivePolicy) {
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, this.spillDirectory,
+				redrivePolicy, this.deliveryDelayMillis, this.fifo, this.deduplicationWindowMillis,
+				this.contentBasedDeduplication, this.partitions);
+	}
+
+	/**
+	 * @param delay, how long the messages sent without a delay of their own stay invisible. Zero for
+	 * none.
+	 * @param unit
+	 * @return copy of these options with the delivery delay
+	 */
+	public QueueOptions withDeliveryDelay(long delay, TimeUnit unit) {
+		if (delay < 0)
+			throw new IllegalArgumentException("Delivery delay can not be negative.");
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, this.spillDirectory,
+				this.redrivePolicy, unit.toMillis(delay), this.fifo, this.deduplicationWindowMillis,
+				this.contentBasedDeduplication, this.partitions);
+	}
+
+	/**
+	 * @param fifo, true for a queue keeping the order of each message group and handing out one message
+	 * of a group at a time. Every message sent to it needs a message group id.
+	 * @return copy of these options with the queue type
+	 */
+	public QueueOptions withFifo(boolean fifo) {
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, this.spillDirectory,
+				this.redrivePolicy, this.deliveryDelayMillis, fifo, this.deduplicationWindowMillis,
+				this.contentBasedDeduplication, this.partitions);
+	}
+
+	private static int checkCapacity(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive.");
+		return capacity;
+	}
+
+	public boolean isBounded() {
+		return this.capacity > 0;
+	}
+
+	/**
+	 * @return capacity, zero if the queue is unbounded.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	public long getBlockTimeoutMillis() {
+		return this.blockTimeoutMillis;
+	}
+
+	public File getSpillDirectory() {
+		return this.spillDirectory;
+	}
+
+	/**
+	 * @return redrive policy, null if the queue has none
+	 */
+	public RedrivePolicy getRedrivePolicy() {
+		return this.redrivePolicy;
+	}
+
+	/**
+	 * @return delivery delay of the queue in millis, zero if it has none
+	 */
+	public long getDeliveryDelayMillis() {
+		return this.deliveryDelayMillis;
+	}
+
+	/**
+	 * @param window, how long the deduplication ids of the messages sent are remembered, a message sent
+	 * again with the same id within it is dropped. Zero turns deduplication off.
+	 * @param unit
+	 * @param contentBased, true to use the SHA-256 of the body of the messages sent without an id.
+	 * @return copy of these options with deduplication
+	 */
+	public QueueOptions withDeduplication(long window, TimeUnit unit, boolean contentBased) {
+		if (window < 0)
+			throw new IllegalArgumentException("Deduplication window can not be negative.");
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, this.spillDirectory,
+				this.redrivePolicy, this.deliveryDelayMillis, this.fifo, unit.toMillis(window), contentBased,
+				this.partitions);
+	}
+
+	/**
+	 * @param partitions, number of deques or file queues behind the queue url, one by default. The
+	 * capacity is shared by the partitions.
+	 * @return copy of these options with the partition count
+	 */
+	public QueueOptions withPartitions(int partitions) {
+		if (partitions <= 0)
+			throw new IllegalArgumentException("Partitions must be positive.");
+		return new QueueOptions(this.capacity, this.overflowPolicy, this.blockTimeoutMillis, this.spillDirectory,
+				this.redrivePolicy, this.deliveryDelayMillis, this.fifo, this.deduplicationWindowMillis,
+				this.contentBasedDeduplication, partitions);
+	}
+
+	public boolean isFifo() {
+		return this.fifo;
+	}
+
+	/**
+	 * @return deduplication window in millis, zero if the queue does not deduplicate
+	 */
+	public long getDeduplicationWindowMillis() {
+		return this.deduplicationWindowMillis;
+	}
+
+	public boolean isContentBasedDeduplication() {
+		return this.contentBasedDeduplication;
+	}
+
+	public int getPartitions() {
+		return this.partitions;
+	}
+
+	@Override
+	public String toString() {
+		String suffix = ((this.redrivePolicy != null) ? " redrivePolicy=" + this.redrivePolicy : "")
+				+ ((this.deliveryDelayMillis > 0) ? " deliveryDelayMillis=" + this.deliveryDelayMillis : "")
+				+ (this.fifo ? " fifo" : "")
+				+ ((this.deduplicationWindowMillis > 0) ? " deduplicationWindowMillis=" + this.deduplicationWindowMillis
+						+ (this.contentBasedDeduplication ? " contentBased" : "") : "")
+				+ ((this.partitions > 1) ? " partitions=" + this.partitions : "");
+		if (!isBounded())
+			return "UNBOUNDED" + suffix;
+		return this.overflowPolicy + "[capacity=" + this.capacity
+				+ (this.overflowPolicy == OverflowPolicy.BLOCK ? ", blockTimeoutMillis=" + this.blockTimeoutMillis : "")
+				+ (this.spillDirectory != null ? ", spillDirectory=" + this.spillDirectory : "") + "]" + suffix;
+	}
+}
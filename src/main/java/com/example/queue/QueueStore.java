@@ -0,0 +1,70 @@
+package com.example.queue;
+
+import java.io.Closeable;
+import java.util.List;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Storage engine behind a {@link FileQueue}. Implementations are not thread safe, the caller must
+ * hold the queue lock around every call.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+interface QueueStore extends Closeable {
+
+	/**
+	 * Appends the message to the tail of the store.
+	 * @param message
+	 * @return false if the store has no room left for the message
+	 */
+	boolean append(Message message);
+
+	/**
+	 * Appends the messages in order, stopping at the first one the store has no room for.
+	 * @param messages
+	 * @return number of messages appended
+	 */
+	default int append(List<Message> messages) {
+		int appended = 0;
+		for (Message message : messages) {
+			if (!append(message))
+				break;
+			appended++;
+		}
+		return appended;
+	}
+
+	/**
+	 * Removes and returns the head message.
+	 * @return message, null if the store is empty
+	 */
+	Message poll();
+
+	/**
+	 * Returns the head message without removing it.
+	 * @return message, null if the store is empty
+	 */
+	Message peek();
+
+	/**
+	 * Number of messages in the store, read from the persisted counters. Unlike the other methods this
+	 * one is called without the queue lock.
+	 */
+	long size();
+
+	/**
+	 * Metadata header of the store.
+	 */
+	QueueHeader header();
+
+	/**
+	 * Forces the written messages and the read position to disk. Unlike the other methods this one
+	 * is called without the queue lock, concurrently with the writes it covers.
+	 */
+	void force();
+
+	@Override
+	void close();
+}
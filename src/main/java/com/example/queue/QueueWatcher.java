@@ -0,0 +1,89 @@
+package com.example.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wakes up the consumers waiting on a queue when another process changes the files of its folder.
+ * One daemon thread serves every watched folder of the JVM. On Linux the watch service is backed by
+ * inotify, so an idle consumer costs no CPU.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class QueueWatcher {
+
+	private static final Logger LOG = Logger.getLogger(QueueWatcher.class.getName());
+
+	private static final class Holder {
+		static final QueueWatcher INSTANCE = new QueueWatcher();
+	}
+
+	private final WatchService watchService;
+	private final ConcurrentMap<WatchKey, FileQueueLock> locks = new ConcurrentHashMap<>();
+
+	private QueueWatcher() {
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to create watch service.", e);
+			throw new RuntimeException("Failed to create watch service.", e);
+		}
+		Thread thread = new Thread(this::run, "queue-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Starts watching the queue folder, nothing changes if it is already watched.
+	 * @param queueRoot
+	 * @param lock lock signalled on a change
+	 */
+	static void watch(File queueRoot, FileQueueLock lock) {
+		Holder.INSTANCE.register(queueRoot.getAbsoluteFile().toPath(), lock);
+	}
+
+	/**
+	 * Registering a folder again gives back its key, a folder created again under the same path gets a
+	 * new one.
+	 */
+	private void register(Path folder, FileQueueLock lock) {
+		try {
+			WatchKey key = folder.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			this.locks.putIfAbsent(key, lock);
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to watch folder [" + folder + "].", e);
+			throw new RuntimeException("Failed to watch folder [" + folder + "].", e);
+		}
+	}
+
+	private void run() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = this.watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+			// Overflow included, the consumers check the queue again anyway
+			key.pollEvents();
+			FileQueueLock lock = this.locks.get(key);
+			if (lock != null)
+				lock.signalAll();
+			// Folder removed, the next waiter registers it again
+			if (!key.reset())
+				this.locks.remove(key);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package com.example.queue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Binary record format of the file backed queues.
+ *
+ * <pre>
+ * int   length    bytes following the checksum
+ * int   checksum  CRC-32 of the bytes following it
+ * byte  flags
+ * ids   message id and receipt handle, 16 bytes each when both are UUIDs,
+ *       otherwise a short length followed by the UTF-8 bytes of each
+ * attrs only with the attributes flag, a short count followed by the name and the value
+ *       of each attribute, a short length and the UTF-8 bytes each
+ * body  UTF-8 bytes up to the end of the record
+ * </pre>
+ *
+ * A reader checks that the record fits and its checksum matches before decoding, so a torn or
+ * damaged record is reported instead of being parsed.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class RecordCodec {
+
+	static final int HEADER_SIZE = 8;
+
+	private static final int FLAG_TEXT_IDS = 1;
+	private static final int FLAG_NULL_BODY = 1 << 1;
+	private static final int FLAG_ATTRIBUTES = 1 << 2;
+
+	private static final int MIN_LENGTH = 1 + 2 * 2;
+	private static final int NULL_ID = -1;
+
+	private static final ThreadLocal<CRC32> CRC = ThreadLocal.withInitial(CRC32::new);
+
+	private RecordCodec() {
+	}
+
+	/**
+	 * Encodes the message into a new buffer ready to be written.
+	 * @param message
+	 * @return buffer holding exactly one record
+	 */
+	static ByteBuffer encode(Message message) {
+		String messageId = message.getMessageId();
+		String receiptHandle = message.getReceiptHandle();
+		boolean uuids = isUuid(messageId) && isUuid(receiptHandle);
+		byte[] messageIdBytes = uuids ? null : textId(messageId);
+		byte[] receiptHandleBytes = uuids ? null : textId(receiptHandle);
+		byte[] body = message.getBody() == null ? new byte[0] : message.getBody().getBytes(StandardCharsets.UTF_8);
+		byte[][] attributes = attributes(message);
+		int attributesLength = 0;
+		if (attributes != null) {
+			attributesLength = 2;
+			for (byte[] attribute : attributes)
+				attributesLength += 2 + idLength(attribute);
+		}
+
+		int length = 1 + (uuids ? 32 : 4 + idLength(messageIdBytes) + idLength(receiptHandleBytes)) + attributesLength
+				+ body.length;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length);
+		buffer.putInt(length);
+		buffer.putInt(0);
+
+		int flags = (uuids ? 0 : FLAG_TEXT_IDS) | (message.getBody() == null ? FLAG_NULL_BODY : 0)
+				| (attributes != null ? FLAG_ATTRIBUTES : 0);
+		buffer.put((byte) flags);
+		if (uuids) {
+			putUuid(buffer, messageId);
+			putUuid(buffer, receiptHandle);
+		} else {
+			putTextId(buffer, messageIdBytes);
+			putTextId(buffer, receiptHandleBytes);
+		}
+		if (attributes != null) {
+			buffer.putShort((short) (attributes.length / 2));
+			for (byte[] attribute : attributes)
+				putTextId(buffer, attribute);
+		}
+		buffer.put(body);
+
+		buffer.putInt(4, checksum(buffer, HEADER_SIZE, length));
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Reads the length of the record starting at offset without checking it.
+	 * @return total size of the record, -1 if the header itself does not fit before limit
+	 */
+	static int recordSize(ByteBuffer buffer, int offset, int limit) {
+		if (limit - offset < HEADER_SIZE)
+			return -1;
+		int length = buffer.getInt(offset);
+		return length < MIN_LENGTH ? -1 : HEADER_SIZE + length;
+	}
+
+	/**
+	 * Checks that the record starting at offset ends before limit and its checksum matches.
+	 * @return total size of the record, -1 if it is truncated or damaged
+	 */
+	static int check(ByteBuffer buffer, int offset, int limit) {
+		int size = recordSize(buffer, offset, limit);
+		if (size < 0 || size > limit - offset)
+			return -1;
+		return checksum(buffer, offset + HEADER_SIZE, size - HEADER_SIZE) == buffer.getInt(offset + 4) ? size : -1;
+	}
+
+	/**
+	 * Decodes a record accepted by {@link #check(ByteBuffer, int, int)}.
+	 */
+	static Message decode(ByteBuffer buffer, int offset) {
+		int end = offset + HEADER_SIZE + buffer.getInt(offset);
+		int position = offset + HEADER_SIZE;
+		int flags = buffer.get(position++);
+
+		Message message = new Message();
+		if ((flags & FLAG_TEXT_IDS) == 0) {
+			message.setMessageId(new UUID(buffer.getLong(position), buffer.getLong(position + 8)).toString());
+			message.setReceiptHandle(new UUID(buffer.getLong(position + 16), buffer.getLong(position + 24)).toString());
+			position += 32;
+		} else {
+			int length = buffer.getShort(position);
+			message.setMessageId(length == NULL_ID ? null : string(buffer, position + 2, length));
+			position += 2 + Math.max(length, 0);
+			length = buffer.getShort(position);
+			message.setReceiptHandle(length == NULL_ID ? null : string(buffer, position + 2, length));
+			position += 2 + Math.max(length, 0);
+		}
+		if ((flags & FLAG_ATTRIBUTES) != 0) {
+			int count = buffer.getShort(position);
+			position += 2;
+			for (int i = 0; i < count; i++) {
+				int nameLength = buffer.getShort(position);
+				String name = nameLength == NULL_ID ? null : string(buffer, position + 2, nameLength);
+				position += 2 + Math.max(nameLength, 0);
+				int valueLength = buffer.getShort(position);
+				String value = valueLength == NULL_ID ? null : string(buffer, position + 2, valueLength);
+				position += 2 + Math.max(valueLength, 0);
+				message.getAttributes().put(name, value);
+			}
+		}
+		if ((flags & FLAG_NULL_BODY) == 0)
+			message.setBody(string(buffer, position, end - position));
+		return message;
+	}
+
+	private static int checksum(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit(offset + length).position(offset);
+		CRC32 crc = CRC.get();
+		crc.reset();
+		crc.update(slice);
+		return (int) crc.getValue();
+	}
+
+	private static String string(ByteBuffer buffer, int offset, int length) {
+		if (buffer.hasArray())
+			return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+
+		byte[] bytes = new byte[length];
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(offset);
+		slice.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return names and values of the attributes one after the other, null if the message has none
+	 */
+	private static byte[][] attributes(Message message) {
+		Map<String, String> attributes = message.getAttributes();
+		if (attributes.isEmpty())
+			return null;
+		if (attributes.size() > Short.MAX_VALUE)
+			throw new IllegalArgumentException("Message [" + message.getMessageId() + "] has too many attributes.");
+		byte[][] encoded = new byte[attributes.size() * 2][];
+		int i = 0;
+		for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+			encoded[i++] = textId(attribute.getKey());
+			encoded[i++] = textId(attribute.getValue());
+		}
+		return encoded;
+	}
+
+	private static byte[] textId(String id) {
+		if (id == null)
+			return null;
+		byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE)
+			throw new IllegalArgumentException("Id [" + id + "] is too long.");
+		return bytes;
+	}
+
+	private static int idLength(byte[] id) {
+		return id == null ? 0 : id.length;
+	}
+
+	private static void putTextId(ByteBuffer buffer, byte[] id) {
+		if (id == null) {
+			buffer.putShort((short) NULL_ID);
+			return;
+		}
+		buffer.putShort((short) id.length);
+		buffer.put(id);
+	}
+
+	private static void putUuid(ByteBuffer buffer, String uuid) {
+		buffer.putLong(hex(uuid, 0, 8) << 32 | hex(uuid, 9, 13) << 16 | hex(uuid, 14, 18));
+		buffer.putLong(hex(uuid, 19, 23) << 48 | hex(uuid, 24, 36));
+	}
+
+	/**
+	 * Only the canonical lower case form is stored in binary, so decoding gives back the same string.
+	 */
+	private static boolean isUuid(String id) {
+		if (id == null || id.length() != 36)
+			return false;
+		for (int i = 0; i < 36; i++) {
+			char c = id.charAt(i);
+			boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+			if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')))
+				return false;
+		}
+		return true;
+	}
+
+	private static long hex(String value, int from, int to) {
+		long result = 0;
+		for (int i = from; i < to; i++)
+			result = result << 4 | Character.digit(value.charAt(i), 16);
+		return result;
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.queue;
+
+import java.util.Objects;
+
+/**
+ * Moves a message to a dead-letter queue once it was received maxReceiveCount times without being
+ * deleted, instead of making it visible again. The count is kept in the ApproximateReceiveCount
+ * attribute of the message.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class RedrivePolicy {
+
+	private final String deadLetterQueueUrl;
+	private final int maxReceiveCount;
+
+	/**
+	 * @param deadLetterQueueUrl, queue of the same service, it must exist before the queue using it.
+	 * @param maxReceiveCount
+	 */
+	public RedrivePolicy(String deadLetterQueueUrl, int maxReceiveCount) {
+		Objects.requireNonNull(deadLetterQueueUrl, "Dead-letter queue url can not be null.");
+		if (maxReceiveCount <= 0)
+			throw new IllegalArgumentException("Max receive count must be positive.");
+		this.deadLetterQueueUrl = deadLetterQueueUrl;
+		this.maxReceiveCount = maxReceiveCount;
+	}
+
+	public String getDeadLetterQueueUrl() {
+		return this.deadLetterQueueUrl;
+	}
+
+	public int getMaxReceiveCount() {
+		return this.maxReceiveCount;
+	}
+
+	@Override
+	public String toString() {
+		return "[deadLetterQueueUrl=" + this.deadLetterQueueUrl + ", maxReceiveCount=" + this.maxReceiveCount + "]";
+	}
+}
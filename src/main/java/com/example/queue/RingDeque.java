@@ -0,0 +1,567 @@
+package com.example.queue;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, array based, lock free multi-producer multi-consumer queue for the in-memory queues.
+ *
+ * <p>
+ * Every slot of the ring carries a sequence number telling whether it is free for the producer or
+ * ready for the consumer of a given position. Producers claim the tail and consumers the head with a
+ * compare and set, then publish the slot by advancing its sequence. The head and the tail sit on cache
+ * lines of their own and no node is allocated per element. A batch claims a whole range of slots with
+ * one compare and set.
+ *
+ * <p>
+ * The ring is sized to the next power of two, producers keep to the exact capacity by checking their
+ * position against the head. The tail caches the limit that check gave, so producers only read the
+ * head of the consumers when they get close to it.
+ *
+ * <p>
+ * The ring itself can only be appended to, so {@link #offerFirst(Object)} puts the element in a lock
+ * free redelivery lane that consumers read before the ring. Those elements were accepted by the queue
+ * before and are never rejected, the capacity only bounds the producers.
+ *
+ * <p>
+ * Only the blocking calls take a lock, and only when they have to wait. Producers and consumers signal
+ * it solely while somebody is waiting on it.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class RingDeque<T> implements BlockingDeque<T> {
+
+	/**
+	 * Counter on a cache line of its own, so producers moving the tail do not invalidate the head read
+	 * by the consumers.
+	 */
+	@SuppressWarnings("unused")
+	private static final class PaddedSequence extends AtomicLong {
+		private static final long serialVersionUID = 1L;
+		// Highest position producers may claim, only used on the tail
+		private volatile long limit;
+		private long p1, p2, p3, p4, p5, p6;
+	}
+
+	private final int capacity;
+	private final int mask;
+	private final Object[] buffer;
+	private final AtomicLongArray sequences;
+	private final PaddedSequence head = new PaddedSequence();
+	private final PaddedSequence tail = new PaddedSequence();
+
+	private final ConcurrentLinkedDeque<T> redelivery = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger redeliverySize = new AtomicInteger();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+	private final AtomicInteger consumersWaiting = new AtomicInteger();
+	private final AtomicInteger producersWaiting = new AtomicInteger();
+
+	public RingDeque(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+		int size = 1;
+		while (size < capacity)
+			size <<= 1;
+		this.capacity = capacity;
+		this.mask = size - 1;
+		this.buffer = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			this.sequences.set(i, i);
+		this.tail.limit = capacity;
+	}
+
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Requeues the element ahead of the ring, it is never rejected.
+	 */
+	@Override
+	public boolean offerFirst(T message) {
+		Objects.requireNonNull(message);
+		this.redelivery.offerFirst(message);
+		this.redeliverySize.incrementAndGet();
+		signalNotEmpty();
+		return true;
+	}
+
+	@Override
+	public boolean offerLast(T message) {
+		Objects.requireNonNull(message);
+		if (!offerRing(message))
+			return false;
+		signalNotEmpty();
+		return true;
+	}
+
+	@Override
+	public boolean offerLast(T message, long timeout, TimeUnit unit) throws InterruptedException {
+		if (offerLast(message))
+			return true;
+
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		this.producersWaiting.incrementAndGet();
+		try {
+			while (!offerRing(message)) {
+				if (nanos <= 0)
+					return false;
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+			// Pass the signal on while slots are left
+			if (remainingCapacity() > 0)
+				this.notFull.signal();
+		} finally {
+			this.producersWaiting.decrementAndGet();
+			this.lock.unlock();
+		}
+		signalNotEmpty();
+		return true;
+	}
+
+	@Override
+	public void putLast(T message) throws InterruptedException {
+		offerLast(message, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public T pollFirst() {
+		T message = this.redelivery.pollFirst();
+		if (message != null) {
+			this.redeliverySize.decrementAndGet();
+			return message;
+		}
+		message = pollRing();
+		if (message != null)
+			signalNotFull();
+		return message;
+	}
+
+	@Override
+	public T pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		T message = pollFirst();
+		if (message != null)
+			return message;
+
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		// Counted before checking again, so a producer either sees the waiter or we see its element
+		this.consumersWaiting.incrementAndGet();
+		try {
+			while ((message = pollFirst()) == null) {
+				if (nanos <= 0)
+					return null;
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			// Pass the signal on while elements are left
+			if (!isEmpty())
+				this.notEmpty.signal();
+			return message;
+		} finally {
+			this.consumersWaiting.decrementAndGet();
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public T takeFirst() throws InterruptedException {
+		return pollFirst(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public T peekFirst() {
+		T message = this.redelivery.peekFirst();
+		if (message != null)
+			return message;
+		while (true) {
+			long position = this.head.get();
+			int index = (int) (position & this.mask);
+			long sequence = this.sequences.get(index);
+			if (sequence < position + 1)
+				return null;
+			if (sequence > position + 1)
+				continue;
+			@SuppressWarnings("unchecked")
+			T element = (T) this.buffer[index];
+			if (element != null && this.head.get() == position)
+				return element;
+		}
+	}
+
+	/**
+	 * Adds the elements that fit with a single claim on the ring.
+	 * @throws IllegalStateException if not all of them fit, the ones that did are added.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> messages) {
+		Objects.requireNonNull(messages);
+		if (messages.isEmpty())
+			return false;
+		Object[] elements = messages.toArray();
+		for (Object element : elements)
+			Objects.requireNonNull(element);
+
+		int added = 0;
+		while (added < elements.length) {
+			long position = this.tail.get();
+			long limit = this.head.get() + this.capacity;
+			int count = 0;
+			while (added + count < elements.length && position + count < limit
+					&& this.sequences.get((int) ((position + count) & this.mask)) == position + count)
+				count++;
+			if (count == 0) {
+				if (position >= limit || this.sequences.get((int) (position & this.mask)) < position)
+					break;
+				continue;
+			}
+			if (!this.tail.compareAndSet(position, position + count))
+				continue;
+			for (int i = 0; i < count; i++) {
+				int index = (int) ((position + i) & this.mask);
+				this.buffer[index] = elements[added + i];
+				this.sequences.set(index, position + i + 1);
+			}
+			added += count;
+		}
+		if (added > 0)
+			signalNotEmpty();
+		if (added < elements.length)
+			throw new IllegalStateException("Queue is full.");
+		return true;
+	}
+
+	/**
+	 * Drains the redelivery lane, then takes up to the rest from the ring with a single claim.
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c, int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this)
+			throw new IllegalArgumentException();
+
+		int drained = 0;
+		T message;
+		while (drained < maxElements && (message = this.redelivery.pollFirst()) != null) {
+			this.redeliverySize.decrementAndGet();
+			c.add(message);
+			drained++;
+		}
+
+		int fromRing = 0;
+		while (drained + fromRing < maxElements) {
+			long position = this.head.get();
+			int count = 0;
+			while (drained + fromRing + count < maxElements
+					&& this.sequences.get((int) ((position + count) & this.mask)) == position + count + 1)
+				count++;
+			if (count == 0) {
+				if (this.sequences.get((int) (position & this.mask)) < position + 1)
+					break;
+				continue;
+			}
+			if (!this.head.compareAndSet(position, position + count))
+				continue;
+			for (int i = 0; i < count; i++) {
+				int index = (int) ((position + i) & this.mask);
+				@SuppressWarnings("unchecked")
+				T element = (T) this.buffer[index];
+				this.buffer[index] = null;
+				this.sequences.set(index, position + i + this.buffer.length);
+				c.add(element);
+			}
+			fromRing += count;
+		}
+		if (fromRing > 0)
+			signalNotFull();
+		return drained + fromRing;
+	}
+
+	@Override
+	public int drainTo(Collection<? super T> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int size() {
+		long head = this.head.get();
+		long ringSize = Math.max(0, Math.min(this.capacity, this.tail.get() - head));
+		return (int) ringSize + Math.max(0, this.redeliverySize.get());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		long head = this.head.get();
+		return (int) (this.capacity - Math.max(0, Math.min(this.capacity, this.tail.get() - head)));
+	}
+
+	@Override
+	public boolean offer(T message) {
+		return offerLast(message);
+	}
+
+	@Override
+	public boolean offer(T message, long timeout, TimeUnit unit) throws InterruptedException {
+		return offerLast(message, timeout, unit);
+	}
+
+	@Override
+	public void put(T message) throws InterruptedException {
+		putLast(message);
+	}
+
+	@Override
+	public boolean add(T message) {
+		addLast(message);
+		return true;
+	}
+
+	@Override
+	public void addLast(T message) {
+		if (!offerLast(message))
+			throw new IllegalStateException("Queue is full.");
+	}
+
+	@Override
+	public void addFirst(T message) {
+		offerFirst(message);
+	}
+
+	@Override
+	public void putFirst(T message) {
+		offerFirst(message);
+	}
+
+	@Override
+	public boolean offerFirst(T message, long timeout, TimeUnit unit) {
+		return offerFirst(message);
+	}
+
+	@Override
+	public T poll() {
+		return pollFirst();
+	}
+
+	@Override
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return pollFirst(timeout, unit);
+	}
+
+	@Override
+	public T take() throws InterruptedException {
+		return takeFirst();
+	}
+
+	@Override
+	public T peek() {
+		return peekFirst();
+	}
+
+	private boolean offerRing(T message) {
+		while (true) {
+			long position = this.tail.get();
+			if (position >= this.tail.limit) {
+				// The head read is at most as recent as the real one, so the limit never overshoots
+				long limit = this.head.get() + this.capacity;
+				if (position >= limit)
+					return false;
+				this.tail.limit = limit;
+			}
+			int index = (int) (position & this.mask);
+			long sequence = this.sequences.get(index);
+			if (sequence == position) {
+				if (this.tail.compareAndSet(position, position + 1)) {
+					this.buffer[index] = message;
+					this.sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (sequence < position) {
+				// Slot not consumed yet since the last lap, the ring is full
+				return false;
+			}
+		}
+	}
+
+	private T pollRing() {
+		while (true) {
+			long position = this.head.get();
+			int index = (int) (position & this.mask);
+			long sequence = this.sequences.get(index);
+			if (sequence == position + 1) {
+				if (this.head.compareAndSet(position, position + 1)) {
+					@SuppressWarnings("unchecked")
+					T message = (T) this.buffer[index];
+					this.buffer[index] = null;
+					this.sequences.set(index, position + this.buffer.length);
+					return message;
+				}
+			} else if (sequence < position + 1) {
+				// Slot not published yet, the ring is empty
+				return null;
+			}
+		}
+	}
+
+	private void signalNotEmpty() {
+		if (this.consumersWaiting.get() == 0)
+			return;
+		this.lock.lock();
+		try {
+			this.notEmpty.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void signalNotFull() {
+		if (this.producersWaiting.get() == 0)
+			return;
+		this.lock.lock();
+		try {
+			this.notFull.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	//To make implementation simple, the following methods are unsupported. Can be implemented as per requirements
+
+	@Override
+	public T takeLast() throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Object[] toArray() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public <E> E[] toArray(E[] a) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T removeFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T removeLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T pollLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T getFirst() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T getLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T peekLast() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T pop() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<T> descendingIterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T remove() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public T element() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+
+	@Override
+	public void push(T e) {
+		throw new UnsupportedOperationException("Not yet implemented.");
+	}
+}
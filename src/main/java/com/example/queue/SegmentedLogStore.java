@@ -0,0 +1,347 @@
+package com.example.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Keeps the messages of a queue in fixed size, append-only segment files. The position of the next
+ * message to read is persisted in the memory mapped {@link QueueHeader}, so a dequeue only advances
+ * the head instead of rewriting the remaining messages. Segments behind the head are deleted by a
+ * background thread.
+ *
+ * <p>
+ * The head and tail of the header are the read and the write position, each packed as segment and
+ * offset into a single long so it is updated in one store. The header is shared through the page
+ * cache, so every process holding the queue lock sees the positions written by the others. Bytes past
+ * the write position, left by a writer that died half way, are never read and get overwritten by the
+ * next append.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class SegmentedLogStore implements QueueStore {
+
+	private static final Logger LOG = Logger.getLogger(SegmentedLogStore.class.getName());
+
+	static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private static final ExecutorService CLEANER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "segment-cleaner");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final File queueRoot;
+	private final int segmentSize;
+	private final QueueHeader header;
+
+	private volatile FileChannel writeChannel;
+	private long writeSegmentId = -1;
+	private FileChannel readChannel;
+	private long readSegmentId = -1;
+	private ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+
+	SegmentedLogStore(String queueFolderName) {
+		this(queueFolderName, DEFAULT_SEGMENT_SIZE);
+	}
+
+	SegmentedLogStore(String queueFolderName, int segmentSize) {
+		if (segmentSize <= 0)
+			throw new IllegalArgumentException("Segment size must be positive.");
+
+		this.queueRoot = new File(queueFolderName);
+		this.segmentSize = segmentSize;
+
+		this.header = new QueueHeader(this.queueRoot);
+		scheduleCleanup(segment(this.header.head()));
+	}
+
+	@Override
+	public boolean append(Message message) {
+		write(RecordCodec.encode(message), 1);
+		return true;
+	}
+
+	/**
+	 * The records fitting in the rest of the current segment go out in a single write.
+	 */
+	@Override
+	public int append(List<Message> messages) {
+		ByteBuffer[] records = new ByteBuffer[messages.size()];
+		for (int i = 0; i < records.length; i++)
+			records[i] = RecordCodec.encode(messages.get(i));
+
+		int from = 0;
+		while (from < records.length) {
+			long room = this.segmentSize - position(this.header.tail());
+			int to = from;
+			long size = 0;
+			while (to < records.length && size + records[to].remaining() <= room)
+				size += records[to++].remaining();
+
+			if (to - from <= 1) {
+				// Alone or rolling over to the next segment
+				write(records[from], 1);
+				from++;
+				continue;
+			}
+			ByteBuffer run = ByteBuffer.allocate((int) size);
+			for (int i = from; i < to; i++)
+				run.put(records[i]);
+			run.flip();
+			write(run, to - from);
+			from = to;
+		}
+		return records.length;
+	}
+
+	private void write(ByteBuffer records, int count) {
+		long write = this.header.tail();
+		long segment = segment(write);
+		long position = position(write);
+		FileChannel channel = writeChannel(segment);
+		try {
+			if (position > 0 && position + records.remaining() > this.segmentSize) {
+				// Drop whatever a dead writer left past the last record before moving on
+				channel.truncate(position);
+				segment++;
+				position = 0;
+				channel = writeChannel(segment);
+			}
+			long end = position + records.remaining();
+			while (records.hasRemaining())
+				channel.write(records, end - records.remaining());
+			this.header.appended(pack(segment, end), count);
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to write [" + count + "] messages to segment ["
+					+ segmentFile(segment).getPath() + "].", e);
+			throw new RuntimeException("Failed to write [" + count + "] messages to segment ["
+					+ segmentFile(segment).getPath() + "].", e);
+		}
+	}
+
+	@Override
+	public Message poll() {
+		return read(true);
+	}
+
+	@Override
+	public Message peek() {
+		return read(false);
+	}
+
+	@Override
+	public long size() {
+		return this.header.size();
+	}
+
+	private Message read(boolean remove) {
+		while (true) {
+			long read = this.header.head();
+			long write = this.header.tail();
+			long segment = segment(read);
+			long position = position(read);
+			boolean lastSegment = segment >= segment(write);
+			FileChannel channel = readChannel(segment);
+
+			try {
+				long limit = lastSegment ? position(write) : (channel == null ? 0 : channel.size());
+				if (position < limit) {
+					int size = readRecord(channel, position, limit);
+					if (size > 0) {
+						if (remove)
+							this.header.polled(pack(segment, position + size));
+						return RecordCodec.decode(this.readBuffer, 0);
+					}
+					// A damaged record leaves no way to find the next one in this segment
+					LOG.log(Level.WARNING, "Skipping damaged records from position [" + position + "] of segment ["
+							+ segmentFile(segment).getPath() + "].");
+					this.header.head(pack(segment, limit));
+				}
+			} catch (IOException e) {
+				LOG.log(Level.SEVERE, "Failed to read segment [" + segmentFile(segment).getPath() + "].", e);
+				throw new RuntimeException("Failed to read segment [" + segmentFile(segment).getPath() + "].", e);
+			}
+
+			if (lastSegment) {
+				// Drained, drop any drift left by skipped records
+				if (this.header.size() != 0)
+					this.header.reset(0);
+				return null;
+			}
+
+			this.header.head(pack(segment + 1, 0));
+			scheduleCleanup(segment + 1);
+		}
+	}
+
+	@Override
+	public QueueHeader header() {
+		return this.header;
+	}
+
+	@Override
+	public void force() {
+		FileChannel channel = this.writeChannel;
+		try {
+			if (channel != null)
+				channel.force(false);
+		} catch (ClosedChannelException e) {
+			// Rolled over, the segment was forced before it was closed.
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to force segment of queue [" + this.queueRoot.getPath() + "].", e);
+			throw new RuntimeException("Failed to force segment of queue [" + this.queueRoot.getPath() + "].", e);
+		}
+		this.header.force();
+	}
+
+	@Override
+	public void close() {
+		closeQuietly(this.writeChannel);
+		closeQuietly(this.readChannel);
+		this.header.close();
+	}
+
+	/**
+	 * Reads the record starting at position into the read buffer.
+	 * @return size of the record, -1 if it is truncated or damaged
+	 */
+	private int readRecord(FileChannel channel, long position, long limit) throws IOException {
+		int available = (int) Math.min(limit - position, Integer.MAX_VALUE);
+		if (channel == null || !readFully(channel, position, RecordCodec.HEADER_SIZE))
+			return -1;
+
+		int size = RecordCodec.recordSize(this.readBuffer, 0, available);
+		if (size < 0 || size > available)
+			return -1;
+
+		if (this.readBuffer.capacity() < size) {
+			this.readBuffer = ByteBuffer.allocate(Math.max(size, this.readBuffer.capacity() * 2));
+		}
+		if (!readFully(channel, position, size))
+			return -1;
+		return RecordCodec.check(this.readBuffer, 0, size);
+	}
+
+	private boolean readFully(FileChannel channel, long position, int length) throws IOException {
+		this.readBuffer.clear();
+		this.readBuffer.limit(length);
+		while (this.readBuffer.hasRemaining()) {
+			if (channel.read(this.readBuffer, position + this.readBuffer.position()) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	private static long pack(long segment, long position) {
+		return segment << 32 | position;
+	}
+
+	private static long segment(long packed) {
+		return packed >>> 32;
+	}
+
+	private static long position(long packed) {
+		return packed & 0xFFFFFFFFL;
+	}
+
+	private FileChannel writeChannel(long segment) {
+		if (this.writeSegmentId == segment)
+			return this.writeChannel;
+
+		forceAndClose(this.writeChannel);
+		File file = segmentFile(segment);
+		try {
+			this.writeChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			this.writeSegmentId = segment;
+		} catch (IOException e) {
+			this.writeChannel = null;
+			this.writeSegmentId = -1;
+			LOG.log(Level.SEVERE, "Failed to open segment [" + file.getPath() + "].", e);
+			throw new RuntimeException("Failed to open segment [" + file.getPath() + "].", e);
+		}
+		return this.writeChannel;
+	}
+
+	private FileChannel readChannel(long segment) {
+		if (this.readSegmentId == segment)
+			return this.readChannel;
+
+		closeQuietly(this.readChannel);
+		this.readChannel = null;
+		this.readSegmentId = -1;
+
+		File file = segmentFile(segment);
+		if (!file.exists())
+			return null;
+		try {
+			this.readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			this.readSegmentId = segment;
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to open segment [" + file.getPath() + "].", e);
+			throw new RuntimeException("Failed to open segment [" + file.getPath() + "].", e);
+		}
+		return this.readChannel;
+	}
+
+	private File segmentFile(long segment) {
+		return new File(this.queueRoot, String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * Deletes the segments before readSegment on the cleaner thread.
+	 */
+	private void scheduleCleanup(long readSegment) {
+		CLEANER.execute(() -> {
+			File[] segments = this.queueRoot
+					.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+			if (segments == null)
+				return;
+			for (File file : segments) {
+				String name = file.getName();
+				long segment = Long.parseLong(
+						name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+				if (segment < readSegment && !file.delete() && file.exists())
+					LOG.log(Level.WARNING, "Failed to delete consumed segment [" + file.getPath() + "].");
+			}
+		});
+	}
+
+	/**
+	 * A finished segment is forced before it is closed, a concurrent {@link #force()} may still hold
+	 * the old channel.
+	 */
+	private void forceAndClose(FileChannel channel) {
+		if (channel == null)
+			return;
+		try {
+			channel.force(false);
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Failed to force segment of queue [" + this.queueRoot.getPath() + "].", e);
+		}
+		closeQuietly(channel);
+	}
+
+	private static void closeQuietly(FileChannel channel) {
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+		} catch (IOException ignore) {
+		}
+	}
+}
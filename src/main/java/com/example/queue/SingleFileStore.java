@@ -0,0 +1,344 @@
+package com.example.queue;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Keeps all the messages of a queue in one text file, one message per line. The message count is
+ * kept in a {@link QueueHeader} next to it.
+ *
+ * <p>
+ * Each line holds a {@link RecordCodec} record in Base64, so bodies may contain line breaks and the
+ * attributes are kept. Lines of the former id:receipt handle:body format are still read.
+ *
+ * <p>
+ * A crash in the middle of a write leaves a torn last line, it is cut off when the store opens. A
+ * damaged line found later is dropped with a warning, the read goes on with the next message.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 22-Aug-2017
+ */
+final class SingleFileStore implements QueueStore {
+
+	private static final Logger LOG = Logger.getLogger(SingleFileStore.class.getName());
+
+	private final String queueFolderName;
+	private final File messagesFile;
+	private final QueueHeader header;
+
+	SingleFileStore(String queueFolderName) {
+		this.queueFolderName = queueFolderName;
+		this.messagesFile = new File(queueFolderName + "/messages");
+
+		if (!this.messagesFile.exists()) {
+			try {
+				this.messagesFile.createNewFile();
+			} catch (IOException e) {
+				LOG.log(Level.SEVERE, "Failed to create file [" + this.messagesFile.getPath() + "].");
+				throw new RuntimeException("Failed to create file [" + this.messagesFile.getPath() + "].", e);
+			}
+		}
+
+		boolean cut = cutTornTail();
+		this.header = new QueueHeader(new File(queueFolderName));
+		// Messages written before the header existed are counted once, and again after a cut
+		if (this.header.created() || cut)
+			this.header.reset(countLines(this.messagesFile));
+	}
+
+	@Override
+	public boolean append(Message message) {
+		writeMessage(message);
+		this.header.appended(0);
+		return true;
+	}
+
+	/**
+	 * Opens the messages file once for all the messages.
+	 */
+	@Override
+	public int append(List<Message> messages) {
+		try (PrintWriter pw = new PrintWriter(new FileWriter(this.messagesFile, true))) {
+			for (Message message : messages)
+				pw.println(toRecord(message));
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to write [" + messages.size() + "] messages to queue file ["
+					+ this.messagesFile.getPath() + "]");
+			throw new RuntimeException("Failed to write [" + messages.size() + "] messages to queue file ["
+					+ this.messagesFile.getPath() + "]", e);
+		}
+		this.header.appended(0, messages.size());
+		return messages.size();
+	}
+
+	@Override
+	public Message poll() {
+		Message message = first();
+		if (message == null) {
+			if (this.header.size() != 0)
+				this.header.reset(0);
+			return null;
+		}
+		prepareNewFile(this.messagesFile);
+		this.header.polled(0);
+		return message;
+	}
+
+	@Override
+	public Message peek() {
+		return first();
+	}
+
+	@Override
+	public long size() {
+		return this.header.size();
+	}
+
+	@Override
+	public QueueHeader header() {
+		return this.header;
+	}
+
+	/**
+	 * A concurrent poll replaces the file, the force is retried until the new one is in place.
+	 */
+	@Override
+	public void force() {
+		while (true) {
+			try (FileChannel channel = FileChannel.open(this.messagesFile.toPath(), StandardOpenOption.WRITE)) {
+				channel.force(false);
+				this.header.force();
+				return;
+			} catch (NoSuchFileException e) {
+				Thread.yield();
+			} catch (IOException e) {
+				LOG.log(Level.SEVERE, "Failed to force file [" + this.messagesFile.getPath() + "].", e);
+				throw new RuntimeException("Failed to force file [" + this.messagesFile.getPath() + "].", e);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		this.header.close();
+	}
+
+	/**
+	 * Drops the damaged lines at the head of the file.
+	 * @return message of the first intact line, null if there is none
+	 */
+	private Message first() {
+		while (true) {
+			String record = readFirstLine(this.messagesFile).orElse("");
+			if (record.isEmpty())
+				return null;
+			Message message = toMessage(record);
+			if (message != null)
+				return message;
+
+			LOG.log(Level.WARNING, "Damaged record in queue file [" + this.messagesFile.getPath() + "], dropping it.");
+			prepareNewFile(this.messagesFile);
+			this.header.polled(0);
+		}
+	}
+
+	/**
+	 * Base64 has no colon, a line holding one was written in the former format.
+	 * @return null if the record is damaged
+	 */
+	private Message toMessage(String record) {
+		if (record.indexOf(':') >= 0) {
+			String[] dataArray = record.split(":", 3);
+			if (dataArray.length < 3)
+				return null;
+			Message msg = new Message();
+			msg.setMessageId(dataArray[0]);
+			msg.setReceiptHandle(dataArray[1]);
+			msg.setBody(dataArray[2]);
+			return msg;
+		}
+		ByteBuffer buffer;
+		try {
+			buffer = ByteBuffer.wrap(Base64.getDecoder().decode(record));
+		} catch (IllegalArgumentException e) {
+			buffer = ByteBuffer.allocate(0);
+		}
+		if (RecordCodec.check(buffer, 0, buffer.limit()) != buffer.limit())
+			return null;
+		return RecordCodec.decode(buffer, 0);
+	}
+
+	/**
+	 * Cuts off the last line if it is not terminated or does not hold an intact record, so the next
+	 * append starts on a line of its own.
+	 * @return true if a line was cut off
+	 */
+	private boolean cutTornTail() {
+		try (FileChannel channel = FileChannel.open(this.messagesFile.toPath(), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			long end = channel.size();
+			if (end == 0)
+				return false;
+
+			ByteBuffer last = ByteBuffer.allocate(1);
+			readFully(channel, last, end - 1);
+			boolean terminated = last.get(0) == '\n';
+			long start = lineStart(channel, terminated ? end - 1 : end);
+			if (terminated) {
+				ByteBuffer line = ByteBuffer.allocate((int) (end - 1 - start));
+				readFully(channel, line, start);
+				String record = new String(line.array(), Charset.defaultCharset()).trim();
+				if (record.isEmpty() || toMessage(record) != null)
+					return false;
+			}
+			LOG.log(Level.WARNING, "Torn record at [" + start + "] in queue file [" + this.messagesFile.getPath()
+					+ "], cutting it off.");
+			channel.truncate(start);
+			return true;
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to check the tail of queue file [" + this.messagesFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to check the tail of queue file [" + this.messagesFile.getPath() + "].",
+					e);
+		}
+	}
+
+	/**
+	 * Scans backwards from end for the line break ending the previous line.
+	 */
+	private static long lineStart(FileChannel channel, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long position = end;
+		while (position > 0) {
+			int length = (int) Math.min(buffer.capacity(), position);
+			buffer.clear().limit(length);
+			readFully(channel, buffer, position - length);
+			for (int i = length - 1; i >= 0; i--)
+				if (buffer.get(i) == '\n')
+					return position - length + i + 1;
+			position -= length;
+		}
+		return 0;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new EOFException("Unexpected end of file at [" + (position + buffer.position()) + "].");
+	}
+
+	private static String toRecord(Message message) {
+		ByteBuffer buffer = RecordCodec.encode(message);
+		return Base64.getEncoder().encodeToString(buffer.array());
+	}
+
+	private File createTempFile() {
+		File tempFile = new File(this.queueFolderName + "/temp");
+		try {
+			if (!tempFile.exists())
+				tempFile.createNewFile();
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to create the file [" + tempFile.getPath() + "].", e);
+			throw new RuntimeException("Failed to create file [" + tempFile.getPath() + "].");
+		}
+		return tempFile;
+	}
+
+	private Optional<String> readFirstLine(File file) {
+		FileReader reader = null;
+		BufferedReader br = null;
+		try {
+			reader = new FileReader(file);
+			br = new BufferedReader(reader);
+			String line = br.readLine();
+			return Optional.ofNullable(line);
+		} catch (IOException ex) {
+			LOG.log(Level.SEVERE,
+					"Exception occurred while reading first " + "line from file [" + file.getPath() + "].", ex);
+		} finally {
+			try {
+				br.close();
+			} catch (IOException ignore) {
+			}
+			try {
+				reader.close();
+			} catch (IOException ignore) {
+			}
+		}
+		return Optional.empty();
+	}
+
+	private long countLines(File file) {
+		try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+			long lines = 0;
+			while (br.readLine() != null)
+				lines++;
+			return lines;
+		} catch (IOException ex) {
+			LOG.log(Level.SEVERE, "Exception occurred while counting the lines of file [" + file.getPath() + "].", ex);
+			throw new RuntimeException("Exception occurred while counting the lines of file [" + file.getPath() + "].",
+					ex);
+		}
+	}
+
+	private void copyFile(File source, File target, boolean skipFirstLine) {
+		BufferedReader br = null;
+		PrintWriter pw = null;
+		try {
+			br = new BufferedReader(new FileReader(source));
+			pw = new PrintWriter(new FileWriter(target));
+
+			if (skipFirstLine)
+				br.readLine();
+
+			String line;
+			while ((line = br.readLine()) != null) {
+				pw.println(line);
+			}
+		} catch (IOException ex) {
+			LOG.log(Level.SEVERE, "Exception occurred while copying the contents from file [" + source.getPath()
+					+ "] to [" + target.getPath() + "].", ex);
+		} finally {
+			try {
+				br.close();
+			} catch (IOException ignore) {
+			}
+			pw.close();
+		}
+	}
+
+	private void prepareNewFile(File messagesFile) {
+		File tempFile = createTempFile();
+		copyFile(messagesFile, tempFile, true);
+		String messagesFilePath = messagesFile.getPath();
+		messagesFile.delete();
+		tempFile.renameTo(new File(messagesFilePath));
+	}
+
+	private void writeMessage(Message message) {
+		try (PrintWriter pw = new PrintWriter(new FileWriter(this.messagesFile, true))) {
+			pw.println(toRecord(message));
+		} catch (IOException e) {
+			LOG.log(Level.SEVERE, "Failed to write the message [" + message + "] to queue file ["
+					+ this.messagesFile.getPath() + "]");
+			throw new RuntimeException("Failed to write the message [" + message + "] to queue file ["
+					+ this.messagesFile.getPath() + "]", e);
+		}
+	}
+}
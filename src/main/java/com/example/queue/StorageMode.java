@@ -0,0 +1,28 @@
+package com.example.queue;
+
+/**
+ * On-disk layout used by a {@link FileQueue}.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public enum StorageMode {
+
+	/**
+	 * All messages in a single text file, one message per line. Every dequeue rewrites the remaining
+	 * lines, so the cost grows with the queue depth.
+	 */
+	SINGLE_FILE,
+
+	/**
+	 * Fixed size append-only segment files with a persisted read cursor. Enqueue is a single append,
+	 * dequeue advances the cursor and consumed segments are deleted in the background.
+	 */
+	SEGMENTED_LOG,
+
+	/**
+	 * A fixed size circular file mapped into memory once, with the head and tail kept in a mapped
+	 * header. Enqueue and dequeue are memory copies. The queue rejects messages once the ring is full.
+	 */
+	MAPPED_RING
+}
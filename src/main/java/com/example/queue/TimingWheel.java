@@ -0,0 +1,218 @@
+package com.example.queue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Hashed timing wheel tracking the visibility deadlines of the in-flight messages of every
+ * {@link MessageQueue} in the JVM, driven by a single ticker thread.
+ *
+ * <p>
+ * Scheduling appends the timeout to a lock free queue the ticker moves into the bucket of its
+ * deadline, deadlines further than one revolution away wait there for the remaining rounds.
+ * Cancelling is a single compare and set, the ticker unlinks cancelled timeouts when it passes their
+ * bucket. Timeouts expiring in the same tick are handed to their owner as one batch.
+ *
+ * <p>
+ * The ticker must never block, a stalled tick delays the timeouts of every queue. Owners whose work on
+ * expiry may block hand it off, to an executor of their own or to the daemon threads of
+ * {@link #executor()}.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+final class TimingWheel {
+
+	private static final Logger LOG = Logger.getLogger(TimingWheel.class.getName());
+
+	private static final long TICK_MILLIS = 10;
+	private static final int WHEEL_SIZE = 512;
+
+	private static final class Holder {
+		static final TimingWheel INSTANCE = new TimingWheel(TICK_MILLIS, WHEEL_SIZE);
+	}
+
+	/**
+	 * Receives the messages whose deadline passed, on the ticker thread.
+	 */
+	interface Expiry {
+		void expired(List<Message> messages);
+	}
+
+	static final class Timeout {
+
+		private static final int WAITING = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater
+				.newUpdater(Timeout.class, "state");
+
+		private final Message message;
+		private final Expiry expiry;
+		private final long deadline;
+		private volatile int state;
+
+		// Owned by the ticker thread
+		private long rounds;
+		private Timeout next;
+
+		private Timeout(Message message, Expiry expiry, long deadline) {
+			this.message = message;
+			this.expiry = expiry;
+			this.deadline = deadline;
+		}
+
+		Message message() {
+			return this.message;
+		}
+
+		/**
+		 * @return true if the timeout was cancelled before it expired
+		 */
+		boolean cancel() {
+			return STATE.compareAndSet(this, WAITING, CANCELLED);
+		}
+
+		private boolean expire() {
+			return STATE.compareAndSet(this, WAITING, EXPIRED);
+		}
+	}
+
+	private final long tickNanos;
+	private final int mask;
+	private final Timeout[] heads;
+	private final Timeout[] tails;
+	private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+	private final long startNanos = System.nanoTime();
+	private final ExecutorService executor;
+	private long tick;
+
+	TimingWheel(long tickMillis, int wheelSize) {
+		if (Integer.bitCount(wheelSize) != 1)
+			throw new IllegalArgumentException("Wheel size must be a power of two.");
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		this.mask = wheelSize - 1;
+		this.heads = new Timeout[wheelSize];
+		this.tails = new Timeout[wheelSize];
+		AtomicInteger workers = new AtomicInteger();
+		this.executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "timing-wheel-worker-" + workers.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		Thread ticker = new Thread(this::run, "timing-wheel");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	static TimingWheel shared() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * @return executor running the expiry work of owners without an executor of their own, off the
+	 *         ticker thread
+	 */
+	Executor executor() {
+		return this.executor;
+	}
+
+	/**
+	 * @param message
+	 * @param delayMillis
+	 * @param expiry receives the message once the delay elapsed, unless the timeout is cancelled
+	 * @return handle to cancel the timeout
+	 */
+	Timeout schedule(Message message, long delayMillis, Expiry expiry) {
+		long deadline = System.nanoTime() - this.startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+		Timeout timeout = new Timeout(message, expiry, deadline);
+		this.scheduled.add(timeout);
+		return timeout;
+	}
+
+	private void run() {
+		Map<Expiry, List<Message>> batches = new IdentityHashMap<>();
+		while (true) {
+			long next = (this.tick + 1) * this.tickNanos;
+			long sleepNanos;
+			while ((sleepNanos = next - (System.nanoTime() - this.startNanos)) > 0)
+				LockSupport.parkNanos(this, sleepNanos);
+
+			transferScheduled();
+			expireBucket((int) (this.tick & this.mask), batches);
+			this.tick++;
+
+			for (Map.Entry<Expiry, List<Message>> batch : batches.entrySet()) {
+				try {
+					batch.getKey().expired(batch.getValue());
+				} catch (RuntimeException e) {
+					LOG.log(Level.SEVERE, "Failed to hand over [" + batch.getValue().size() + "] expired messages.", e);
+				}
+			}
+			batches.clear();
+		}
+	}
+
+	private void transferScheduled() {
+		Timeout timeout;
+		while ((timeout = this.scheduled.poll()) != null) {
+			if (timeout.state == Timeout.CANCELLED)
+				continue;
+			// Already due timeouts go to the current bucket
+			long ticks = Math.max(timeout.deadline / this.tickNanos, this.tick);
+			timeout.rounds = (ticks - this.tick) / this.heads.length;
+			int bucket = (int) (ticks & this.mask);
+			if (this.tails[bucket] == null)
+				this.heads[bucket] = timeout;
+			else
+				this.tails[bucket].next = timeout;
+			this.tails[bucket] = timeout;
+		}
+	}
+
+	private void expireBucket(int bucket, Map<Expiry, List<Message>> batches) {
+		Timeout previous = null;
+		Timeout timeout = this.heads[bucket];
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			boolean remove = timeout.state == Timeout.CANCELLED;
+			if (!remove && timeout.rounds <= 0) {
+				if (timeout.expire())
+					batches.computeIfAbsent(timeout.expiry, expiry -> new ArrayList<>()).add(timeout.message);
+				remove = true;
+			} else if (!remove) {
+				timeout.rounds--;
+			}
+
+			if (remove) {
+				if (previous == null)
+					this.heads[bucket] = next;
+				else
+					previous.next = next;
+				if (next == null)
+					this.tails[bucket] = previous;
+				timeout.next = null;
+			} else {
+				previous = timeout;
+			}
+			timeout = next;
+		}
+	}
+}
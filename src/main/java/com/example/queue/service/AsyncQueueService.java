@@ -0,0 +1,90 @@
+package com.example.queue.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Non-blocking counterpart of {@link QueueService}, each call returns right away with a future
+ * completed once the queue answered. Failures complete the future exceptionally, invalid arguments
+ * still throw.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public interface AsyncQueueService {
+
+	/**
+	 * Pushes the message to specified queueUrl.
+	 * @param queueUrl
+	 * @param messageBody
+	 * @return future completed once the message was sent
+	 */
+	public CompletableFuture<Void> sendMessage(String queueUrl, String messageBody);
+	
+	
+	/**
+	 * Pushes the messages to specified queueUrl with as few calls to the underlying queue as it takes.
+	 * @param queueUrl
+	 * @param messageBodies
+	 * @return future completed once all the messages were sent
+	 */
+	public CompletableFuture<Void> sendMessageBatch(String queueUrl, List<String> messageBodies);
+	
+	
+	/**
+	 * Gets a message from specified queueUrl.
+	 * @param queueUrl
+	 * @return future of the message, of what {@link QueueService#recieveMessage(String)} returns on an
+	 * empty queue if there is none
+	 */
+	public CompletableFuture<Message> receiveMessage(String queueUrl);
+	
+	
+	/**
+	 * Long poll, completes once a message arrived on specified queueUrl or waitTime elapsed.
+	 * @param queueUrl
+	 * @param waitTime
+	 * @param unit
+	 * @return future of the message, as for an empty queue if none arrived in time
+	 */
+	public CompletableFuture<Message> receiveMessage(String queueUrl, long waitTime, TimeUnit unit);
+	
+	
+	/**
+	 * Gets up to maxNumberOfMessages messages from specified queueUrl with one call to the
+	 * underlying queue.
+	 * @param queueUrl
+	 * @param maxNumberOfMessages
+	 * @return future of the messages, empty if there are none
+	 */
+	public CompletableFuture<List<Message>> receiveMessages(String queueUrl, int maxNumberOfMessages);
+	
+	
+	/**
+	 * Delete the message with receiptHandle in specified queueUrl
+	 * @param queueUrl
+	 * @param receiptHandle
+	 * @return future of false if the message was not in flight
+	 */
+	public CompletableFuture<Boolean> deleteMessage(String queueUrl, String receiptHandle);
+	
+	
+	/**
+	 * Deletes the messages with receiptHandles in specified queueUrl.
+	 * @param queueUrl
+	 * @param receiptHandles
+	 * @return future of the number of messages deleted
+	 */
+	public CompletableFuture<Integer> deleteMessageBatch(String queueUrl, List<String> receiptHandles);
+	
+	
+	/**
+	 * Gets the message count on specified queueUrl
+	 * @param queueUrl
+	 * @return future of the message count
+	 */
+	public CompletableFuture<Integer> getMessageCount(String queueUrl);
+}
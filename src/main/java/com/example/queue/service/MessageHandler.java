@@ -0,0 +1,20 @@
+package com.example.queue.service;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Work done on each message of a {@link Subscription}. Returning deletes the message, throwing makes
+ * it visible again right away so that another consumer can retry it.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+	/**
+	 * @param message
+	 * @throws Exception to have the message redelivered
+	 */
+	void handle(Message message) throws Exception;
+}
@@ -0,0 +1,272 @@
+package com.example.queue.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Reactive Streams publisher of the messages of a queue, see
+ * {@link QueueService#publisher(String, SubscriptionOptions)}.
+ *
+ * <p>
+ * Nothing is received ahead of demand: each subscription receives as many messages as its subscriber
+ * requested, up to the batch size per call, and hands them over as they come. The subscriber gets a
+ * {@link QueueSubscription} and acknowledges each message through it, at most concurrency messages are
+ * handed over and not acknowledged. Demand and acknowledgements thus go straight to the queue, no
+ * buffer sits in between.
+ *
+ * <p>
+ * Receiving blocks, a subscription with demand holds a thread of the executor of the options, or of a
+ * daemon pool of the publisher if there is none, until the demand is met or it is cancelled.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class QueuePublisher implements Publisher<Message> {
+
+	private static final Logger LOG = Logger.getLogger(QueuePublisher.class.getName());
+
+	private final QueueService queueService;
+	private final String queueUrl;
+	private final SubscriptionOptions options;
+	private final Executor executor;
+
+	QueuePublisher(QueueService queueService, String queueUrl, SubscriptionOptions options) {
+		this.queueService = Objects.requireNonNull(queueService, "Queue service can not be null.");
+		this.queueUrl = Objects.requireNonNull(queueUrl, "Queue url can not be null.");
+		this.options = Objects.requireNonNull(options, "Options can not be null.");
+		if (options.getExecutor() != null) {
+			this.executor = options.getExecutor();
+		} else {
+			AtomicInteger workers = new AtomicInteger();
+			this.executor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "publisher-" + queueUrl + "-" + workers.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	public String getQueueUrl() {
+		return this.queueUrl;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super Message> subscriber) {
+		Objects.requireNonNull(subscriber, "Subscriber can not be null.");
+		QueueSubscription subscription = new QueueSubscription(subscriber);
+		try {
+			subscriber.onSubscribe(subscription);
+		} catch (RuntimeException e) {
+			LOG.log(Level.SEVERE, "Subscriber of queue [" + this.queueUrl + "] failed on subscribe.", e);
+			subscription.cancel();
+		}
+	}
+
+	/**
+	 * Subscription handed to each subscriber, to request and acknowledge messages.
+	 */
+	public final class QueueSubscription implements org.reactivestreams.Subscription {
+
+		private final Subscriber<? super Message> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		// Runs of the receive loop asked for, only the first one schedules it
+		private final AtomicInteger pending = new AtomicInteger();
+		private final Semaphore permits;
+		private final Set<String> unacknowledged = ConcurrentHashMap.newKeySet();
+		// Signalled by the receive loop, never by the thread failing
+		private final AtomicReference<Throwable> error = new AtomicReference<>();
+		private volatile boolean cancelled;
+		// Owned by the receive loop
+		private boolean terminated;
+
+		private QueueSubscription(Subscriber<? super Message> subscriber) {
+			this.subscriber = subscriber;
+			this.permits = new Semaphore(QueuePublisher.this.options.getConcurrency());
+		}
+
+		@Override
+		public void request(long n) {
+			if (this.cancelled)
+				return;
+			if (n <= 0) {
+				fail(new IllegalArgumentException("Demand must be positive, was " + n + "."));
+				schedule();
+				return;
+			}
+			this.requested.accumulateAndGet(n, (current, added) -> {
+				long sum = current + added;
+				return (sum < 0) ? Long.MAX_VALUE : sum;
+			});
+			schedule();
+		}
+
+		/**
+		 * Stops receiving, the messages handed over can still be acknowledged.
+		 */
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+		}
+
+		/**
+		 * Deletes the message from the queue.
+		 * @param message
+		 * @return false if it was already acknowledged or not handed over by this subscription
+		 */
+		public boolean acknowledge(Message message) {
+			if (!this.unacknowledged.remove(message.getReceiptHandle()))
+				return false;
+			try {
+				return QueuePublisher.this.queueService.deleteMessage(QueuePublisher.this.queueUrl,
+						message.getReceiptHandle());
+			} finally {
+				acknowledged(1);
+			}
+		}
+
+		/**
+		 * Deletes the messages from the queue with one call.
+		 * @param messages
+		 * @return number of messages deleted
+		 */
+		public int acknowledge(List<Message> messages) {
+			List<String> receiptHandles = new ArrayList<>(messages.size());
+			for (Message message : messages) {
+				if (this.unacknowledged.remove(message.getReceiptHandle()))
+					receiptHandles.add(message.getReceiptHandle());
+			}
+			if (receiptHandles.isEmpty())
+				return 0;
+			try {
+				return QueuePublisher.this.queueService.deleteMessageBatch(QueuePublisher.this.queueUrl,
+						receiptHandles);
+			} finally {
+				acknowledged(receiptHandles.size());
+			}
+		}
+
+		/**
+		 * Makes the message visible again right away, so that it is delivered again.
+		 * @param message
+		 * @return false if it was already acknowledged or not handed over by this subscription
+		 */
+		public boolean release(Message message) {
+			if (!this.unacknowledged.remove(message.getReceiptHandle()))
+				return false;
+			try {
+				return QueuePublisher.this.queueService.changeMessageVisibility(QueuePublisher.this.queueUrl,
+						message.getReceiptHandle(), 0);
+			} finally {
+				acknowledged(1);
+			}
+		}
+
+		/**
+		 * @return number of messages handed over and not acknowledged yet
+		 */
+		public int unacknowledged() {
+			return this.unacknowledged.size();
+		}
+
+		private void acknowledged(int count) {
+			this.permits.release(count);
+			schedule();
+		}
+
+		/**
+		 * A run rejected by the executor still owns the receive loop, it goes around once on the calling
+		 * thread to signal the error, nothing else signals the subscriber meanwhile.
+		 */
+		private void schedule() {
+			if (this.pending.getAndIncrement() != 0)
+				return;
+			try {
+				QueuePublisher.this.executor.execute(this::run);
+			} catch (RejectedExecutionException e) {
+				fail(e);
+				run();
+			}
+		}
+
+		/**
+		 * Cancels the subscription, the next run of the receive loop signals the first error.
+		 */
+		private void fail(Throwable e) {
+			this.error.compareAndSet(null, e);
+			this.cancelled = true;
+		}
+
+		/**
+		 * Receives while there is demand and room for unacknowledged messages. Requests and
+		 * acknowledgements arriving meanwhile make it go around once more instead of starting another
+		 * run, so the subscriber is signalled by one thread at a time, errors included.
+		 */
+		private void run() {
+			int runs = 1;
+			do {
+				while (!this.cancelled) {
+					int maxMessages = (int) Math.min(Math.min(this.requested.get(),
+							QueuePublisher.this.options.getBatchSize()), this.permits.availablePermits());
+					// Only this run takes permits, the ones seen free are there
+					if (maxMessages == 0 || !this.permits.tryAcquire(maxMessages))
+						break;
+					List<Message> messages;
+					try {
+						messages = Subscription.receive(QueuePublisher.this.queueService, QueuePublisher.this.queueUrl,
+								maxMessages, QueuePublisher.this.options.getWaitTimeMillis());
+					} catch (RuntimeException e) {
+						this.permits.release(maxMessages);
+						LOG.log(Level.SEVERE, "Failed to receive messages from queue [" + QueuePublisher.this.queueUrl
+								+ "].", e);
+						fail(e);
+						break;
+					}
+					this.permits.release(maxMessages - messages.size());
+					if (this.requested.get() != Long.MAX_VALUE)
+						this.requested.addAndGet(-messages.size());
+					for (Message message : messages) {
+						this.unacknowledged.add(message.getReceiptHandle());
+						try {
+							this.subscriber.onNext(message);
+						} catch (RuntimeException e) {
+							LOG.log(Level.SEVERE, "Subscriber of queue [" + QueuePublisher.this.queueUrl
+									+ "] failed on message [" + message.getMessageId() + "].", e);
+							this.cancelled = true;
+						}
+					}
+				}
+				signalError();
+				runs = this.pending.addAndGet(-runs);
+			} while (runs != 0);
+		}
+
+		private void signalError() {
+			Throwable error = this.error.get();
+			if (error == null || this.terminated)
+				return;
+			this.terminated = true;
+			try {
+				this.subscriber.onError(error);
+			} catch (RuntimeException e) {
+				LOG.log(Level.SEVERE, "Subscriber of queue [" + QueuePublisher.this.queueUrl + "] failed on error.", e);
+			}
+		}
+	}
+}
@@ -2,8 +2,10 @@ package com.example.queue.service;
 
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.example.queue.QueueOptions;
 
 /**
  * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a> 
@@ -20,6 +22,46 @@ public interface QueueService {
 	public void sendMessage(String queueUrl, String messageBody);
 	
 	
+	/**
+	 * Pushes the message to specified queueUrl, invisible to consumers until the delay elapsed. The
+	 * delay replaces the delivery delay of the queue, zero makes the message visible right away.
+	 * @param queueUrl
+	 * @param messageBody
+	 * @param delay, in millis.
+	 */
+	public void sendMessage(String queueUrl, String messageBody, long delay);
+	
+	
+	/**
+	 * Pushes the message to specified FIFO queueUrl. Messages of the same group are received in the
+	 * order they were sent and one at a time, the next one once the previous one was deleted or became
+	 * visible again. Different groups are received in parallel.
+	 * @param queueUrl
+	 * @param messageBody
+	 * @param messageGroupId
+	 */
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId);
+	
+	
+	/**
+	 * Pushes the message to specified queueUrl unless a message with the same deduplicationId was sent
+	 * within the deduplication window of the queue, so that producers can retry safely.
+	 * @param queueUrl
+	 * @param messageBody
+	 * @param messageGroupId, null for a standard queue.
+	 * @param deduplicationId, null to use the content hash if the queue deduplicates by content.
+	 */
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId, String deduplicationId);
+	
+	
+	/**
+	 * Pushes the messages to specified queueUrl with one call to the underlying queue.
+	 * @param queueUrl
+	 * @param messageBodies
+	 */
+	public void sendMessageBatch(String queueUrl, List<String> messageBodies);
+	
+	
 	/**
 	 * Gets the messages from specified queueUrl.
 	 * @param queueUrl
@@ -28,6 +70,48 @@ public interface QueueService {
 	public Message recieveMessage(String queueUrl);
 	
 	
+	/**
+	 * Gets up to maxNumberOfMessages messages from specified queueUrl with one call to the
+	 * underlying queue.
+	 * @param queueUrl
+	 * @param maxNumberOfMessages
+	 * @return messages, empty if there are none
+	 */
+	public List<Message> receiveMessages(String queueUrl, int maxNumberOfMessages);
+	
+	
+	/**
+	 * Gets the messages from specified queueUrl, hidden for the given visibility timeout instead of
+	 * the default one of the queue.
+	 * @param queueUrl
+	 * @param visibilityTimeout, in millis.
+	 * @return Message
+	 */
+	public Message recieveMessage(String queueUrl, long visibilityTimeout);
+	
+	
+	/**
+	 * Long poll, waits up to waitTime for a message to arrive on specified queueUrl instead of
+	 * returning right away when the queue is empty.
+	 * @param queueUrl
+	 * @param waitTime
+	 * @param unit
+	 * @return Message, as for an empty queue if none arrived in time
+	 */
+	public Message recieveMessage(String queueUrl, long waitTime, TimeUnit unit);
+	
+	
+	/**
+	 * Hides the received message for visibilityTimeout from now on, so that long running work can
+	 * extend its lease. Zero makes the message visible again right away.
+	 * @param queueUrl
+	 * @param receiptHandle
+	 * @param visibilityTimeout, in millis.
+	 * @return false if the message is not in flight any more
+	 */
+	public boolean changeMessageVisibility(String queueUrl, String receiptHandle, long visibilityTimeout);
+	
+	
 	/**
 	 * Delete the message with receiptHandle in specified queueUrl
 	 * @param queueUrl
@@ -36,23 +120,78 @@ public interface QueueService {
 	public boolean deleteMessage(String queueUrl, String receiptHandle);
 	
 	
+	/**
+	 * Deletes the messages with receiptHandles in specified queueUrl.
+	 * @param queueUrl
+	 * @param receiptHandles
+	 * @return number of messages deleted
+	 */
+	public int deleteMessageBatch(String queueUrl, List<String> receiptHandles);
+	
+	
+	/**
+	 * Pushes the messages of specified queueUrl to the handler instead of having the caller poll. A
+	 * message is deleted once the handler returned and made visible again right away if it threw, at
+	 * most options.getConcurrency() messages are handled at a time.
+	 * @param queueUrl
+	 * @param handler
+	 * @param options, concurrency, batch size and executor of the handlers.
+	 * @return subscription, to be closed to stop receiving
+	 */
+	public default Subscription subscribe(String queueUrl, MessageHandler handler, SubscriptionOptions options) {
+		return new Subscription(this, queueUrl, handler, options);
+	}
+	
+	
+	/**
+	 * Publishes the messages of specified queueUrl to Reactive Streams subscribers. Messages are received
+	 * as the subscribers request them, and acknowledged through the {@link QueuePublisher.QueueSubscription}
+	 * each subscriber is given.
+	 * @param queueUrl
+	 * @param options, batch size of the receives and messages left unacknowledged at most.
+	 * @return publisher
+	 */
+	public default QueuePublisher publisher(String queueUrl, SubscriptionOptions options) {
+		return new QueuePublisher(this, queueUrl, options);
+	}
+	
+	
 	// Additional Api's 
 	
 	/**
 	 * Creates the queue with specified queueUrl. The scheduler service for Amazon SQS Service does not make any sense.
 	 * No need to pass scheduler service.
 	 * @param queueUrl
-	 * @param executorService, please pass null for Amazon SQS service.
+	 * @param executorService, please pass null for Amazon SQS service. The other services take null too,
+	 * their queues then requeue expired messages on shared daemon threads.
 	 * @return QueueName
 	 */
 	public String createQueue(String queueUrl, ScheduledExecutorService executorService);
 
+	/**
+	 * Creates the queue with specified queueUrl, bounded, delayed, FIFO and deduplicated as the options
+	 * say. A queue that already exists keeps the options it was created with.
+	 * @param queueUrl
+	 * @param executorService, please pass null for Amazon SQS service.
+	 * @param options, capacity and overflow policy of the queue.
+	 * @return QueueName
+	 */
+	public String createQueue(String queueUrl, ScheduledExecutorService executorService, QueueOptions options);
+
 	/**
 	 * Gets the message count on specified queueUrl
 	 * @param queueUrl
 	 * @return message count
 	 */
 	public int getMessageCount(String queueUrl);
+
+	/**
+	 * Gets the number of messages specified queueUrl takes before its overflow policy applies, cheap
+	 * enough for producers to throttle on.
+	 * @param queueUrl
+	 * @return remaining capacity, Integer.MAX_VALUE for an unbounded queue
+	 */
+	public int getRemainingCapacity(String queueUrl);
 	
 	/**
 	 * Deletes the queue by queueUrl
@@ -0,0 +1,213 @@
+package com.example.queue.service;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Push consumer of a queue, see {@link QueueService#subscribe(String, MessageHandler, SubscriptionOptions)}.
+ *
+ * <p>
+ * One daemon thread receives the messages and hands each of them to the executor. A semaphore holds a
+ * permit per message in flight: the receiver asks for as many messages as there are free permits, up
+ * to the batch size, and a permit comes back once its message was deleted or released. Receiving thus
+ * overlaps with handling, and at most concurrency messages are received and not acknowledged. An empty
+ * batch is followed by a long poll, so an idle subscription does not spin.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class Subscription implements Closeable {
+
+	private static final Logger LOG = Logger.getLogger(Subscription.class.getName());
+
+	private final QueueService queueService;
+	private final String queueUrl;
+	private final MessageHandler handler;
+	private final SubscriptionOptions options;
+	private final Executor executor;
+	// Null if the executor was passed in the options
+	private final ExecutorService ownedExecutor;
+	private final Semaphore permits;
+	private final Thread receiver;
+	private volatile boolean running = true;
+
+	Subscription(QueueService queueService, String queueUrl, MessageHandler handler, SubscriptionOptions options) {
+		this.queueService = Objects.requireNonNull(queueService, "Queue service can not be null.");
+		this.queueUrl = Objects.requireNonNull(queueUrl, "Queue url can not be null.");
+		this.handler = Objects.requireNonNull(handler, "Handler can not be null.");
+		this.options = Objects.requireNonNull(options, "Options can not be null.");
+		this.permits = new Semaphore(options.getConcurrency());
+		if (options.getExecutor() != null) {
+			this.executor = options.getExecutor();
+			this.ownedExecutor = null;
+		} else {
+			AtomicInteger workers = new AtomicInteger();
+			this.ownedExecutor = Executors.newFixedThreadPool(options.getConcurrency(), runnable -> {
+				Thread thread = new Thread(runnable, "subscription-" + queueUrl + "-" + workers.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.executor = this.ownedExecutor;
+		}
+		this.receiver = new Thread(this::run, "subscription-" + queueUrl);
+		this.receiver.setDaemon(true);
+		this.receiver.start();
+	}
+
+	public String getQueueUrl() {
+		return this.queueUrl;
+	}
+
+	/**
+	 * @return number of messages received and not acknowledged yet
+	 */
+	public int inFlight() {
+		return this.options.getConcurrency() - this.permits.availablePermits();
+	}
+
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Stops receiving and waits up to the wait time for the messages in flight to be acknowledged. The
+	 * ones still in flight then become visible again once their visibility timeout expires.
+	 *
+	 * <p>
+	 * The receiver is not interrupted, an interrupt inside a file queue would close its journal channel.
+	 * It sees the stop within a wait time, once its long poll or its wait for a permit returns.
+	 */
+	@Override
+	public void close() {
+		if (!this.running)
+			return;
+		this.running = false;
+		try {
+			this.receiver.join(2 * this.options.getWaitTimeMillis());
+			int concurrency = this.options.getConcurrency();
+			if (this.permits.tryAcquire(concurrency, this.options.getWaitTimeMillis(), TimeUnit.MILLISECONDS))
+				this.permits.release(concurrency);
+			else
+				LOG.log(Level.WARNING, "Subscription to queue [" + this.queueUrl + "] closed with " + inFlight()
+						+ " messages in flight.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (this.ownedExecutor != null)
+				this.ownedExecutor.shutdown();
+		}
+	}
+
+	private void run() {
+		while (this.running) {
+			int acquired;
+			try {
+				acquired = acquire();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (acquired == 0)
+				continue;
+			List<Message> messages;
+			try {
+				messages = receive(this.queueService, this.queueUrl, acquired, this.options.getWaitTimeMillis());
+			} catch (RuntimeException e) {
+				this.permits.release(acquired);
+				LOG.log(Level.SEVERE, "Failed to receive messages from queue [" + this.queueUrl + "].", e);
+				pause();
+				continue;
+			}
+			this.permits.release(acquired - messages.size());
+			for (Message message : messages)
+				dispatch(message);
+		}
+	}
+
+	/**
+	 * Waits for a free permit, then takes the free ones up to the batch size.
+	 *
+	 * @return 0 if the subscription was closed while waiting
+	 */
+	private int acquire() throws InterruptedException {
+		while (!this.permits.tryAcquire(this.options.getWaitTimeMillis(), TimeUnit.MILLISECONDS))
+			if (!this.running)
+				return 0;
+		int acquired = 1;
+		while (acquired < this.options.getBatchSize() && this.permits.tryAcquire())
+			acquired++;
+		return acquired;
+	}
+
+	/**
+	 * Long polls for one message when the queue has none ready, the next receive takes a batch again.
+	 * Shared with {@link QueuePublisher}.
+	 */
+	static List<Message> receive(QueueService queueService, String queueUrl, int maxMessages, long waitTimeMillis) {
+		List<Message> messages = queueService.receiveMessages(queueUrl, maxMessages);
+		if (!messages.isEmpty() || Thread.currentThread().isInterrupted())
+			return messages;
+		Message message = queueService.recieveMessage(queueUrl, waitTimeMillis, TimeUnit.MILLISECONDS);
+		// File queues hand out an empty message instead of null
+		if (message == null || message.getBody() == null)
+			return Collections.emptyList();
+		return Collections.singletonList(message);
+	}
+
+	private void dispatch(Message message) {
+		try {
+			this.executor.execute(() -> handle(message));
+		} catch (RejectedExecutionException e) {
+			LOG.log(Level.SEVERE, "Message [" + message.getMessageId() + "] rejected by the executor.", e);
+			acknowledge(message, false);
+		}
+	}
+
+	private void handle(Message message) {
+		boolean handled = false;
+		try {
+			this.handler.handle(message);
+			handled = true;
+		} catch (Exception e) {
+			LOG.log(Level.SEVERE, "Failed to handle message [" + message.getMessageId() + "], releasing it.", e);
+		} finally {
+			acknowledge(message, handled);
+		}
+	}
+
+	/**
+	 * Deletes a handled message, makes any other visible again right away, and gives back its permit.
+	 */
+	private void acknowledge(Message message, boolean handled) {
+		try {
+			if (handled)
+				this.queueService.deleteMessage(this.queueUrl, message.getReceiptHandle());
+			else
+				this.queueService.changeMessageVisibility(this.queueUrl, message.getReceiptHandle(), 0);
+		} catch (RuntimeException e) {
+			LOG.log(Level.SEVERE, "Failed to acknowledge message [" + message.getMessageId() + "].", e);
+		} finally {
+			this.permits.release();
+		}
+	}
+
+	private void pause() {
+		try {
+			Thread.sleep(this.options.getWaitTimeMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
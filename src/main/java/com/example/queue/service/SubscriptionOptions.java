@@ -0,0 +1,105 @@
+package com.example.queue.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How many messages a {@link Subscription} handles at once, how many it receives with one call and
+ * how long it long polls an empty queue, and the executor running its handlers. A
+ * {@link QueuePublisher} takes the same options, concurrency bounding the messages left
+ * unacknowledged and the executor running its receives.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class SubscriptionOptions {
+
+	private static final SubscriptionOptions DEFAULTS = new SubscriptionOptions(10, 10, 1000, null);
+
+	private final int concurrency;
+	private final int batchSize;
+	private final long waitTimeMillis;
+	private final Executor executor;
+
+	private SubscriptionOptions(int concurrency, int batchSize, long waitTimeMillis, Executor executor) {
+		this.concurrency = concurrency;
+		this.batchSize = batchSize;
+		this.waitTimeMillis = waitTimeMillis;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return ten messages in flight, received ten at a time, long polling for a second
+	 */
+	public static SubscriptionOptions defaults() {
+		return DEFAULTS;
+	}
+
+	/**
+	 * @param concurrency, messages received and not acknowledged yet at most.
+	 * @return copy of these options with the concurrency
+	 */
+	public SubscriptionOptions withConcurrency(int concurrency) {
+		if (concurrency <= 0)
+			throw new IllegalArgumentException("Concurrency must be positive.");
+		return new SubscriptionOptions(concurrency, this.batchSize, this.waitTimeMillis, this.executor);
+	}
+
+	/**
+	 * @param batchSize, messages received with one call at most.
+	 * @return copy of these options with the batch size
+	 */
+	public SubscriptionOptions withBatchSize(int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive.");
+		return new SubscriptionOptions(this.concurrency, batchSize, this.waitTimeMillis, this.executor);
+	}
+
+	/**
+	 * @param waitTime, how long a receive waits on an empty queue. It also bounds how long closing the
+	 * subscription waits for its handlers.
+	 * @param unit
+	 * @return copy of these options with the wait time
+	 */
+	public SubscriptionOptions withWaitTime(long waitTime, TimeUnit unit) {
+		if (waitTime <= 0)
+			throw new IllegalArgumentException("Wait time must be positive.");
+		return new SubscriptionOptions(this.concurrency, this.batchSize, unit.toMillis(waitTime), this.executor);
+	}
+
+	/**
+	 * @param executor, runs the handlers. Null for a pool of concurrency daemon threads owned by the
+	 * subscription. On a JDK with virtual threads, a virtual thread per task executor lets blocking
+	 * handlers share a few carrier threads.
+	 * @return copy of these options with the executor
+	 */
+	public SubscriptionOptions withExecutor(Executor executor) {
+		return new SubscriptionOptions(this.concurrency, this.batchSize, this.waitTimeMillis, executor);
+	}
+
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	public long getWaitTimeMillis() {
+		return this.waitTimeMillis;
+	}
+
+	/**
+	 * @return executor, null if the subscription runs its own pool.
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	@Override
+	public String toString() {
+		return "SubscriptionOptions[concurrency=" + this.concurrency + ", batchSize=" + this.batchSize
+				+ ", waitTimeMillis=" + this.waitTimeMillis + (this.executor != null ? ", executor=" + this.executor : "")
+				+ "]";
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.queue.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.sqs.AmazonSQSAsyncClient;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.SendMessageResult;
+import com.example.queue.service.AsyncQueueService;
+import com.google.common.collect.Lists;
+
+/**
+ * {@link AsyncQueueService} over the async SQS client. Each call hands its request to the client with
+ * a handler completing the future, no thread of the caller waits for the round trip. The SDK in use
+ * runs the requests on the executor of the client, whose size bounds the calls in flight.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class AmazonSQSAsyncService implements AsyncQueueService {
+
+	private static final Logger LOG = Logger.getLogger(AmazonSQSAsyncService.class.getName());
+
+	private static final int MAX_WAIT_TIME_SECONDS = 20;
+	private static final int MAX_BATCH_SIZE = 10;
+
+	private final AmazonSQSAsyncClient sqsClient;
+
+	public AmazonSQSAsyncService(AmazonSQSAsyncClient sqsClient) {
+		Objects.requireNonNull(sqsClient);
+		this.sqsClient = sqsClient;
+	}
+
+	@Override
+	public CompletableFuture<Void> sendMessage(String queueUrl, String messageBody) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBody);
+		CompletableFuture<SendMessageResult> future = new CompletableFuture<>();
+		call(future, () -> this.sqsClient.sendMessageAsync(new SendMessageRequest(queueUrl, messageBody),
+				handler(future)));
+		return future.thenApply(result -> null);
+	}
+
+	/**
+	 * The chunks of at most 10 entries SQS takes per batch are sent in parallel.
+	 */
+	@Override
+	public CompletableFuture<Void> sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBodies);
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		for (List<String> chunk : Lists.partition(messageBodies, MAX_BATCH_SIZE)) {
+			List<SendMessageBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++)
+				entries.add(new SendMessageBatchRequestEntry(String.valueOf(i), chunk.get(i)));
+			CompletableFuture<SendMessageBatchResult> future = new CompletableFuture<>();
+			call(future, () -> this.sqsClient.sendMessageBatchAsync(new SendMessageBatchRequest(queueUrl, entries),
+					handler(future)));
+			chunks.add(future.thenAccept(result -> {
+				if (!result.getFailed().isEmpty()) {
+					String message = "Failed to send [" + result.getFailed().size() + "] messages to queue ["
+							+ queueUrl + "].";
+					LOG.log(Level.SEVERE, message);
+					throw new RuntimeException(message);
+				}
+			}));
+		}
+		return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[chunks.size()]));
+	}
+
+	/**
+	 * @return future of the message, null if the queue is empty
+	 */
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return receive(new ReceiveMessageRequest(queueUrl).withMaxNumberOfMessages(1))
+				.thenApply(messages -> messages.isEmpty() ? null : messages.get(0));
+	}
+
+	/**
+	 * SQS waits at most 20 seconds, in whole seconds.
+	 * @return future of the message, null if none arrived in time
+	 */
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		Objects.requireNonNull(queueUrl);
+		int waitTimeSeconds = (int) Math.min(unit.toSeconds(waitTime), MAX_WAIT_TIME_SECONDS);
+		return receive(new ReceiveMessageRequest(queueUrl).withMaxNumberOfMessages(1)
+				.withWaitTimeSeconds(waitTimeSeconds)).thenApply(messages -> messages.isEmpty() ? null : messages.get(0));
+	}
+
+	@Override
+	public CompletableFuture<List<Message>> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		Objects.requireNonNull(queueUrl);
+		return receive(new ReceiveMessageRequest(queueUrl)
+				.withMaxNumberOfMessages(Math.min(maxNumberOfMessages, MAX_BATCH_SIZE)));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteMessage(String queueUrl, String receiptHandle) {
+		Objects.requireNonNull(queueUrl);
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		call(future, () -> this.sqsClient.deleteMessageAsync(new DeleteMessageRequest(queueUrl, receiptHandle),
+				handler(future)));
+		return future.thenApply(result -> true);
+	}
+
+	/**
+	 * The chunks of at most 10 entries SQS takes per batch are deleted in parallel.
+	 */
+	@Override
+	public CompletableFuture<Integer> deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandles);
+		CompletableFuture<Integer> deleted = CompletableFuture.completedFuture(0);
+		for (List<String> chunk : Lists.partition(receiptHandles, MAX_BATCH_SIZE)) {
+			List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++)
+				entries.add(new DeleteMessageBatchRequestEntry(String.valueOf(i), chunk.get(i)));
+			CompletableFuture<DeleteMessageBatchResult> future = new CompletableFuture<>();
+			call(future, () -> this.sqsClient.deleteMessageBatchAsync(new DeleteMessageBatchRequest(queueUrl, entries),
+					handler(future)));
+			deleted = deleted.thenCombine(future, (count, result) -> count + result.getSuccessful().size());
+		}
+		return deleted;
+	}
+
+	@Override
+	public CompletableFuture<Integer> getMessageCount(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		CompletableFuture<GetQueueAttributesResult> future = new CompletableFuture<>();
+		call(future, () -> this.sqsClient.getQueueAttributesAsync(
+				new GetQueueAttributesRequest(queueUrl, Arrays.asList("ApproximateNumberOfMessages")), handler(future)));
+		return future.thenApply(result -> Integer.valueOf(result.getAttributes().get("ApproximateNumberOfMessages")));
+	}
+
+	private CompletableFuture<List<Message>> receive(ReceiveMessageRequest request) {
+		CompletableFuture<ReceiveMessageResult> future = new CompletableFuture<>();
+		call(future, () -> this.sqsClient.receiveMessageAsync(request, handler(future)));
+		return future.thenApply(ReceiveMessageResult::getMessages);
+	}
+
+	/**
+	 * Hands the request to the client, a client failing to take it fails the future instead of the
+	 * caller.
+	 */
+	private static void call(CompletableFuture<?> future, Runnable request) {
+		try {
+			request.run();
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Completes the future from the thread of the client that got the response.
+	 */
+	private static <Q extends AmazonWebServiceRequest, R> AsyncHandler<Q, R> handler(CompletableFuture<R> future) {
+		return new AsyncHandler<Q, R>() {
+			@Override
+			public void onSuccess(Q request, R result) {
+				future.complete(result);
+			}
+
+			@Override
+			public void onError(Exception e) {
+				future.completeExceptionally(e);
+			}
+		};
+	}
+}
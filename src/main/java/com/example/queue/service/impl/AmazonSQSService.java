@@ -1,18 +1,30 @@
 package com.example.queue.service.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.amazonaws.services.sqs.AmazonSQSClient;
+import com.amazonaws.services.sqs.model.CreateQueueRequest;
 import com.amazonaws.services.sqs.model.CreateQueueResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
 import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
 import com.amazonaws.services.sqs.model.ListQueuesResult;
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
 import com.example.queue.service.QueueService;
+import com.google.common.collect.Lists;
 
 /**
  * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a> 
@@ -20,6 +32,11 @@ import com.example.queue.service.QueueService;
  */
 public final class AmazonSQSService implements QueueService {
 
+	private static final Logger LOG = Logger.getLogger(AmazonSQSService.class.getName());
+
+	private static final int MAX_WAIT_TIME_SECONDS = 20;
+	private static final int MAX_BATCH_SIZE = 10;
+
 	private AmazonSQSClient sqsClient = null;
 
 	public AmazonSQSService(AmazonSQSClient sqsClient) {
@@ -34,6 +51,59 @@ public final class AmazonSQSService implements QueueService {
 		this.sqsClient.sendMessage(queueUrl, messageBody);
 	}
 
+	/**
+	 * SQS delays messages in whole seconds, up to 15 minutes.
+	 */
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, long delay) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBody);
+		if (delay < 0)
+			throw new IllegalArgumentException("Delivery delay can not be negative.");
+		this.sqsClient.sendMessage(new SendMessageRequest(queueUrl, messageBody).withDelaySeconds(toSeconds(delay)));
+	}
+
+	/**
+	 * The SQS client in use predates FIFO queues, it has no message group id to send.
+	 */
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBody);
+		Objects.requireNonNull(messageGroupId, "Message group id can not be null.");
+		throw new UnsupportedOperationException("Amazon SQS FIFO queues are not supported by this client.");
+	}
+
+	/**
+	 * Amazon SQS deduplicates FIFO queues only, which the SQS client in use predates. Without a group
+	 * and a deduplication id the message is sent as usual.
+	 */
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId, String deduplicationId) {
+		if (messageGroupId != null || deduplicationId != null)
+			throw new UnsupportedOperationException("Amazon SQS FIFO queues are not supported by this client.");
+		sendMessage(queueUrl, messageBody);
+	}
+
+	/**
+	 * Sent in chunks of the at most 10 entries SQS takes per batch.
+	 */
+	@Override
+	public void sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBodies);
+		for (List<String> chunk : Lists.partition(messageBodies, MAX_BATCH_SIZE)) {
+			List<SendMessageBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++)
+				entries.add(new SendMessageBatchRequestEntry(String.valueOf(i), chunk.get(i)));
+			SendMessageBatchResult result = this.sqsClient.sendMessageBatch(queueUrl, entries);
+			if (!result.getFailed().isEmpty()) {
+				LOG.log(Level.SEVERE, "Failed to send [" + result.getFailed().size() + "] messages to queue [" + queueUrl + "].");
+				throw new RuntimeException("Failed to send [" + result.getFailed().size() + "] messages to queue [" + queueUrl + "].");
+			}
+		}
+	}
+
 	@Override
 	public Message recieveMessage(String queueUrl) {
 		Objects.requireNonNull(queueUrl);
@@ -43,6 +113,50 @@ public final class AmazonSQSService implements QueueService {
 		return receiveMessageResult.getMessages().get(0);
 	}
 
+	/**
+	 * @return message, null if the queue is empty
+	 */
+	@Override
+	public Message recieveMessage(String queueUrl, long visibilityTimeout) {
+		Objects.requireNonNull(queueUrl);
+		ReceiveMessageRequest request = new ReceiveMessageRequest().withQueueUrl(queueUrl).withMaxNumberOfMessages(1)
+				.withVisibilityTimeout(toSeconds(visibilityTimeout));
+		List<Message> messages = this.sqsClient.receiveMessage(request).getMessages();
+		return messages.isEmpty() ? null : messages.get(0);
+	}
+
+	/**
+	 * SQS waits at most 20 seconds, in whole seconds.
+	 * @return message, null if none arrived in time
+	 */
+	@Override
+	public Message recieveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		Objects.requireNonNull(queueUrl);
+		int waitTimeSeconds = (int) Math.min(unit.toSeconds(waitTime), MAX_WAIT_TIME_SECONDS);
+		ReceiveMessageRequest request = new ReceiveMessageRequest().withQueueUrl(queueUrl).withMaxNumberOfMessages(1)
+				.withWaitTimeSeconds(waitTimeSeconds);
+		List<Message> messages = this.sqsClient.receiveMessage(request).getMessages();
+		return messages.isEmpty() ? null : messages.get(0);
+	}
+
+	@Override
+	public boolean changeMessageVisibility(String queueUrl, String receiptHandle, long visibilityTimeout) {
+		Objects.requireNonNull(queueUrl);
+		this.sqsClient.changeMessageVisibility(queueUrl, receiptHandle, toSeconds(visibilityTimeout));
+		return true;
+	}
+
+	/**
+	 * SQS returns at most 10 messages per call.
+	 */
+	@Override
+	public List<Message> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		Objects.requireNonNull(queueUrl);
+		ReceiveMessageRequest request = new ReceiveMessageRequest().withQueueUrl(queueUrl)
+				.withMaxNumberOfMessages(Math.min(maxNumberOfMessages, MAX_BATCH_SIZE));
+		return this.sqsClient.receiveMessage(request).getMessages();
+	}
+
 	@Override
 	public boolean deleteMessage(String queueUrl, String reciepientHandle) {
 		Objects.requireNonNull(queueUrl);
@@ -50,6 +164,20 @@ public final class AmazonSQSService implements QueueService {
 		return true;
 	}
 
+	@Override
+	public int deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandles);
+		int deleted = 0;
+		for (List<String> chunk : Lists.partition(receiptHandles, MAX_BATCH_SIZE)) {
+			List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++)
+				entries.add(new DeleteMessageBatchRequestEntry(String.valueOf(i), chunk.get(i)));
+			deleted += this.sqsClient.deleteMessageBatch(queueUrl, entries).getSuccessful().size();
+		}
+		return deleted;
+	}
+
 
 	// Additional API's
 
@@ -60,6 +188,37 @@ public final class AmazonSQSService implements QueueService {
 		return result.getQueueUrl();
 	}
 
+	/**
+	 * Amazon SQS queues have no capacity, only unbounded standard options are accepted. The redrive
+	 * policy is set as the RedrivePolicy attribute of the queue, pointing at the ARN of the dead-letter
+	 * queue, and the delivery delay as the DelaySeconds attribute. The partition count is ignored,
+	 * Amazon SQS scales a queue by itself.
+	 */
+	@Override
+	public String createQueue(String queueUrl, ScheduledExecutorService executorService, QueueOptions options) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(options);
+		if (options.isBounded())
+			throw new UnsupportedOperationException("Amazon SQS does not support bounded queues.");
+		if (options.isFifo() || options.getDeduplicationWindowMillis() > 0)
+			throw new UnsupportedOperationException("Amazon SQS FIFO queues are not supported by this client.");
+		RedrivePolicy redrivePolicy = options.getRedrivePolicy();
+		if (redrivePolicy == null && options.getDeliveryDelayMillis() == 0)
+			return createQueue(queueUrl, executorService);
+
+		CreateQueueRequest request = new CreateQueueRequest(queueUrl);
+		if (redrivePolicy != null) {
+			String deadLetterQueueArn = this.sqsClient
+					.getQueueAttributes(redrivePolicy.getDeadLetterQueueUrl(), Arrays.asList("QueueArn"))
+					.getAttributes().get("QueueArn");
+			request.addAttributesEntry("RedrivePolicy", "{\"maxReceiveCount\":\"" + redrivePolicy.getMaxReceiveCount()
+					+ "\",\"deadLetterTargetArn\":\"" + deadLetterQueueArn + "\"}");
+		}
+		if (options.getDeliveryDelayMillis() > 0)
+			request.addAttributesEntry("DelaySeconds", String.valueOf(toSeconds(options.getDeliveryDelayMillis())));
+		return this.sqsClient.createQueue(request).getQueueUrl();
+	}
+
 	@Override
 	public int getMessageCount(String queueUrl) {
 		Objects.requireNonNull(queueUrl);
@@ -68,6 +227,12 @@ public final class AmazonSQSService implements QueueService {
 		return Integer.valueOf(queueAttributes.getAttributes().get("ApproximateNumberOfMessages"));
 	}
 
+	@Override
+	public int getRemainingCapacity(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return Integer.MAX_VALUE;
+	}
+
 	@Override
 	public boolean deleteQueue(String queueUrl) {
 		Objects.requireNonNull(queueUrl);
@@ -80,4 +245,14 @@ public final class AmazonSQSService implements QueueService {
 		ListQueuesResult listQueues = this.sqsClient.listQueues();
 		return listQueues.getQueueUrls();
 	}
+
+	/**
+	 * SQS counts visibility timeouts and delays in whole seconds, rounded up so a message is never
+	 * hidden for less than asked.
+	 */
+	private static int toSeconds(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Duration can not be negative, was [" + millis + "] ms.");
+		return (int) Math.min(TimeUnit.MILLISECONDS.toSeconds(millis + 999), Integer.MAX_VALUE);
+	}
 }
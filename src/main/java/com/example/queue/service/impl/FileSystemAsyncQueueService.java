@@ -0,0 +1,127 @@
+package com.example.queue.service.impl;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.example.queue.service.AsyncQueueService;
+
+/**
+ * {@link AsyncQueueService} over a {@link FileSystemQueueService}. Taking the file lock and writing the
+ * queue files block, so each call runs on the I/O executor and completes its future from there; the
+ * callers chain their work on the futures instead of waiting. The executor bounds how many calls hit
+ * the disk at once.
+ *
+ * <p>
+ * A long poll finding the queue empty holds a thread for its whole wait time. It waits on the poll
+ * executor, so waiting consumers never hold up the sends and deletes on the I/O executor.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class FileSystemAsyncQueueService implements AsyncQueueService {
+
+	private final FileSystemQueueService queueService;
+	private final Executor ioExecutor;
+	private final Executor pollExecutor;
+
+	/**
+	 * Long polls wait on daemon threads created as they are needed.
+	 * @param queueService
+	 * @param ioExecutor, runs the calls to the queue files.
+	 */
+	public FileSystemAsyncQueueService(FileSystemQueueService queueService, Executor ioExecutor) {
+		this(queueService, ioExecutor, longPollExecutor());
+	}
+
+	/**
+	 * @param queueService
+	 * @param ioExecutor, runs the calls to the queue files.
+	 * @param pollExecutor, runs the long polls that have to wait for a message.
+	 */
+	public FileSystemAsyncQueueService(FileSystemQueueService queueService, Executor ioExecutor,
+			Executor pollExecutor) {
+		this.queueService = Objects.requireNonNull(queueService, "Queue service can not be null.");
+		this.ioExecutor = Objects.requireNonNull(ioExecutor, "Executor can not be null.");
+		this.pollExecutor = Objects.requireNonNull(pollExecutor, "Poll executor can not be null.");
+	}
+
+	@Override
+	public CompletableFuture<Void> sendMessage(String queueUrl, String messageBody) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBody);
+		return CompletableFuture.runAsync(() -> this.queueService.sendMessage(queueUrl, messageBody), this.ioExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Void> sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBodies);
+		return CompletableFuture.runAsync(() -> this.queueService.sendMessageBatch(queueUrl, messageBodies),
+				this.ioExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return CompletableFuture.supplyAsync(() -> this.queueService.recieveMessage(queueUrl), this.ioExecutor);
+	}
+
+	/**
+	 * Tries once on the I/O executor, only an empty queue is waited for on the poll executor.
+	 */
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		Objects.requireNonNull(unit);
+		return receiveMessage(queueUrl).thenCompose(message -> {
+			// File queues hand out an empty message instead of null
+			if (waitTime <= 0 || (message != null && message.getBody() != null))
+				return CompletableFuture.completedFuture(message);
+			return CompletableFuture.supplyAsync(() -> this.queueService.recieveMessage(queueUrl, waitTime, unit),
+					this.pollExecutor);
+		});
+	}
+
+	@Override
+	public CompletableFuture<List<Message>> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		Objects.requireNonNull(queueUrl);
+		return CompletableFuture.supplyAsync(() -> this.queueService.receiveMessages(queueUrl, maxNumberOfMessages),
+				this.ioExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteMessage(String queueUrl, String receiptHandle) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandle);
+		return CompletableFuture.supplyAsync(() -> this.queueService.deleteMessage(queueUrl, receiptHandle),
+				this.ioExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandles);
+		return CompletableFuture.supplyAsync(() -> this.queueService.deleteMessageBatch(queueUrl, receiptHandles),
+				this.ioExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Integer> getMessageCount(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return CompletableFuture.supplyAsync(() -> this.queueService.getMessageCount(queueUrl), this.ioExecutor);
+	}
+
+	private static Executor longPollExecutor() {
+		AtomicInteger pollers = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "long-poll-" + pollers.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
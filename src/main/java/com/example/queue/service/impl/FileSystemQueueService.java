@@ -1,15 +1,27 @@
 package com.example.queue.service.impl;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.example.queue.Durability;
 import com.example.queue.FileQueue;
 import com.example.queue.MessageQueue;
+import com.example.queue.PartitionedFileQueue;
+import com.example.queue.PlacementPolicy;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
+import com.example.queue.StorageMode;
 import com.example.queue.service.QueueService;
 
 /**
@@ -20,15 +32,66 @@ public final class FileSystemQueueService implements QueueService {
 
 	private static final Logger LOG = Logger.getLogger(FileSystemQueueService.class.getName());
 
-	private MessageQueueServiceHelper<FileQueue<Message>> serviceHelper = null;
-	private ConcurrentMap<String, MessageQueue<FileQueue<Message>>> queues = null;
+	private MessageQueueServiceHelper<BlockingDeque<Message>> serviceHelper = null;
+	private ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = null;
+	private final StorageMode storageMode;
+	private final Durability durability;
+	private volatile List<File> rootDirectories = Collections.singletonList(FileQueue.DEFAULT_ROOT_DIRECTORY);
+	private volatile PlacementPolicy placementPolicy = PlacementPolicy.HASH;
 
-	public FileSystemQueueService(ConcurrentMap<String, MessageQueue<FileQueue<Message>>> queues) {
+	public FileSystemQueueService(ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues) {
+		this(queues, StorageMode.SINGLE_FILE);
+	}
+
+	/**
+	 * @param queues
+	 * @param storageMode, on-disk layout of the queues created by this service.
+	 */
+	public FileSystemQueueService(ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues,
+			StorageMode storageMode) {
+		this(queues, storageMode, Durability.none());
+	}
+
+	/**
+	 * @param queues
+	 * @param storageMode, on-disk layout of the queues created by this service.
+	 * @param durability, how the queues created by this service force messages to disk.
+	 */
+	public FileSystemQueueService(ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues,
+			StorageMode storageMode, Durability durability) {
+		Objects.requireNonNull(storageMode, "Storage mode can not be null.");
+		Objects.requireNonNull(durability, "Durability can not be null.");
 		this.queues = queues;
+		this.storageMode = storageMode;
+		this.durability = durability;
 		this.serviceHelper = new MessageQueueServiceHelper<>(queues);
 	}
 
-	public void setMessageQueueHelper(MessageQueueServiceHelper<FileQueue<Message>> helper) {
+	/**
+	 * Sets the directory new queues are created in, {@link FileQueue#DEFAULT_ROOT_DIRECTORY} by default.
+	 * @param rootDirectory
+	 */
+	public void withRootDirectory(File rootDirectory) {
+		withRootDirectories(PlacementPolicy.HASH, rootDirectory);
+	}
+
+	/**
+	 * Spreads new queues over several root directories, typically one per volume. A queue found in one
+	 * of the roots is opened there, otherwise the placement policy picks the root.
+	 * @param placementPolicy
+	 * @param rootDirectories
+	 */
+	public void withRootDirectories(PlacementPolicy placementPolicy, File... rootDirectories) {
+		Objects.requireNonNull(placementPolicy, "Placement policy can not be null.");
+		if (rootDirectories.length == 0)
+			throw new IllegalArgumentException("At least one root directory is required.");
+		for (File rootDirectory : rootDirectories)
+			Objects.requireNonNull(rootDirectory, "Root directory can not be null.");
+		this.rootDirectories = Collections.unmodifiableList(Arrays.asList(rootDirectories.clone()));
+		this.placementPolicy = placementPolicy;
+	}
+
+	public void setMessageQueueHelper(MessageQueueServiceHelper<BlockingDeque<Message>> helper) {
 		this.serviceHelper = helper;
 	}
 
@@ -37,36 +100,147 @@ public final class FileSystemQueueService implements QueueService {
 		this.serviceHelper.sendMessage(queueUrl, messageBody);
 	}
 
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, long delay) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, delay);
+	}
+
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, messageGroupId);
+	}
+
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId, String deduplicationId) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, messageGroupId, deduplicationId);
+	}
+
+	@Override
+	public void sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		this.serviceHelper.sendMessageBatch(queueUrl, messageBodies);
+	}
+
 	@Override
 	public Message recieveMessage(String queueUrl) {
 		return this.serviceHelper.recieveMessage(queueUrl);
 	}
 
+	@Override
+	public List<Message> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		return this.serviceHelper.receiveMessages(queueUrl, maxNumberOfMessages);
+	}
+
+	@Override
+	public Message recieveMessage(String queueUrl, long visibilityTimeout) {
+		return this.serviceHelper.recieveMessage(queueUrl, visibilityTimeout);
+	}
+
+	@Override
+	public Message recieveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		return this.serviceHelper.recieveMessage(queueUrl, waitTime, unit);
+	}
+
+	@Override
+	public boolean changeMessageVisibility(String queueUrl, String receiptHandle, long visibilityTimeout) {
+		return this.serviceHelper.changeMessageVisibility(queueUrl, receiptHandle, visibilityTimeout);
+	}
+
 	@Override
 	public boolean deleteMessage(String queueUrl, String reciepientHandle) {
 		return this.serviceHelper.deleteMessage(queueUrl, reciepientHandle);
 	}
 
+	@Override
+	public int deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		return this.serviceHelper.deleteMessageBatch(queueUrl, receiptHandles);
+	}
+
 
 	//Additional API's
 	
 	@Override
 	public String createQueue(String queueUrl, ScheduledExecutorService executorService) {
+		return createQueue(queueUrl, executorService, QueueOptions.unbounded());
+	}
+
+	/**
+	 * The capacity is checked against the depth kept in the queue header, producers of several
+	 * processes racing for the last slots may overshoot it slightly. The queues are on disk already,
+	 * so they do not spill. FIFO queues are in memory only, and so are the deduplication ids, a restart
+	 * starts a new deduplication window.
+	 *
+	 * <p>
+	 * A partitioned queue is a {@link PartitionedFileQueue} of one file queue per partition, in the
+	 * <code>partition-N</code> folders of the queue. Each partition is placed on a root directory of
+	 * its own as the placement policy says, so that the partitions of a queue spread over the volumes.
+	 * A queue keeps the partition count it was created with.
+	 */
+	@Override
+	public String createQueue(String queueUrl, ScheduledExecutorService executorService, QueueOptions options) {
 		Objects.requireNonNull(queueUrl);
-		MessageQueue<FileQueue<Message>> queue = this.serviceHelper.getQueue(queueUrl);
+		Objects.requireNonNull(options, "Queue options can not be null.");
+		if (options.getOverflowPolicy() == QueueOptions.OverflowPolicy.SPILL_TO_DISK)
+			throw new IllegalArgumentException("File system queues do not spill to disk.");
+		if (options.isFifo())
+			throw new IllegalArgumentException("File system queues do not support FIFO.");
+		MessageQueue<BlockingDeque<Message>> queue = this.queues.get(queueUrl);
 		if (queue != null) {
 			LOG.log(Level.INFO, "Queue with queueUrl [" + queueUrl + "] is already exists.");
 			return queueUrl;
 		}
-		this.queues.put(queueUrl, new MessageQueue<>(new FileQueue<Message>(queueUrl), null));
+		// Opening the queue recovers the leases and the delayed messages left behind by a previous run
+		BlockingDeque<Message> deque;
+		int partitions = options.getPartitions();
+		if (partitions == 1) {
+			deque = openFileQueue(queueUrl);
+		} else {
+			List<FileQueue<Message>> fileQueues = new ArrayList<>(partitions);
+			for (int i = 0; i < partitions; i++)
+				fileQueues.add(openFileQueue(queueUrl + File.separator + "partition-" + i));
+			deque = new PartitionedFileQueue(fileQueues);
+		}
+		// Without an executor the expired messages are requeued on the worker threads of the timing wheel
+		MessageQueue<BlockingDeque<Message>> messageQueue = (executorService != null)
+				? new MessageQueue<>(deque, executorService) : new MessageQueue<>(deque);
+		messageQueue.withQueueOptions(options);
+		RedrivePolicy redrivePolicy = options.getRedrivePolicy();
+		if (redrivePolicy != null)
+			messageQueue.withDeadLetterQueue(this.serviceHelper.getQueue(redrivePolicy.getDeadLetterQueueUrl()),
+					redrivePolicy.getMaxReceiveCount());
+		this.queues.put(queueUrl, messageQueue);
 		return queueUrl;
 	}
 
+	private FileQueue<Message> openFileQueue(String queueFolderName) {
+		FileQueue<Message> fileQueue = new FileQueue<>(rootDirectory(queueFolderName), queueFolderName,
+				this.storageMode);
+		fileQueue.withDurability(this.durability);
+		return fileQueue;
+	}
+
+	/**
+	 * The root already holding the queue, so that a restart finds it whatever the policy and the free
+	 * space say by then.
+	 */
+	private File rootDirectory(String queueFolderName) {
+		List<File> rootDirectories = this.rootDirectories;
+		for (File rootDirectory : rootDirectories) {
+			if (new File(rootDirectory, queueFolderName).isDirectory())
+				return rootDirectory;
+		}
+		return this.placementPolicy.select(queueFolderName, rootDirectories);
+	}
+
 	@Override
 	public int getMessageCount(String queueUrl) {
 		return this.serviceHelper.getMessageCount(queueUrl);
 	}
 
+	@Override
+	public int getRemainingCapacity(String queueUrl) {
+		return this.serviceHelper.getRemainingCapacity(queueUrl);
+	}
+
 	@Override
 	public boolean deleteQueue(String queueUrl) {
 		return this.serviceHelper.deleteQueue(queueUrl);
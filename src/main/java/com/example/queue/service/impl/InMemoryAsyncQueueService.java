@@ -0,0 +1,110 @@
+package com.example.queue.service.impl;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.amazonaws.services.sqs.model.Message;
+import com.example.queue.service.AsyncQueueService;
+
+/**
+ * {@link AsyncQueueService} over an {@link InMemoryQueueService}. Sending, receiving and deleting in
+ * memory never wait for I/O, so the futures are completed by the calling thread before they are
+ * returned. Only a long poll finding the queue empty waits, on the executor; it holds a thread of it
+ * for its whole wait time, so the executor should not be shared with work that must not wait.
+ *
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public final class InMemoryAsyncQueueService implements AsyncQueueService {
+
+	private final InMemoryQueueService queueService;
+	private final Executor executor;
+
+	/**
+	 * @param queueService
+	 * @param executor, runs the long polls that have to wait for a message.
+	 */
+	public InMemoryAsyncQueueService(InMemoryQueueService queueService, Executor executor) {
+		this.queueService = Objects.requireNonNull(queueService, "Queue service can not be null.");
+		this.executor = Objects.requireNonNull(executor, "Executor can not be null.");
+	}
+
+	@Override
+	public CompletableFuture<Void> sendMessage(String queueUrl, String messageBody) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBody);
+		return complete(() -> {
+			this.queueService.sendMessage(queueUrl, messageBody);
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<Void> sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(messageBodies);
+		return complete(() -> {
+			this.queueService.sendMessageBatch(queueUrl, messageBodies);
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return complete(() -> this.queueService.recieveMessage(queueUrl));
+	}
+
+	/**
+	 * Completed right away if a message is ready.
+	 */
+	@Override
+	public CompletableFuture<Message> receiveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		Objects.requireNonNull(unit);
+		CompletableFuture<Message> message = receiveMessage(queueUrl);
+		if (waitTime <= 0 || message.isCompletedExceptionally() || message.join() != null)
+			return message;
+		return CompletableFuture.supplyAsync(() -> this.queueService.recieveMessage(queueUrl, waitTime, unit),
+				this.executor);
+	}
+
+	@Override
+	public CompletableFuture<List<Message>> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		Objects.requireNonNull(queueUrl);
+		return complete(() -> this.queueService.receiveMessages(queueUrl, maxNumberOfMessages));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteMessage(String queueUrl, String receiptHandle) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandle);
+		return complete(() -> this.queueService.deleteMessage(queueUrl, receiptHandle));
+	}
+
+	@Override
+	public CompletableFuture<Integer> deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		Objects.requireNonNull(queueUrl);
+		Objects.requireNonNull(receiptHandles);
+		return complete(() -> this.queueService.deleteMessageBatch(queueUrl, receiptHandles));
+	}
+
+	@Override
+	public CompletableFuture<Integer> getMessageCount(String queueUrl) {
+		Objects.requireNonNull(queueUrl);
+		return complete(() -> this.queueService.getMessageCount(queueUrl));
+	}
+
+	private static <T> CompletableFuture<T> complete(Supplier<T> call) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			future.complete(call.get());
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+}
@@ -1,15 +1,25 @@
 package com.example.queue.service.impl;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.example.queue.MessageGroupDeque;
 import com.example.queue.MessageQueue;
+import com.example.queue.OffHeapDeque;
+import com.example.queue.PartitionedDeque;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
+import com.example.queue.RingDeque;
 import com.example.queue.service.QueueService;
 
 /**
@@ -20,15 +30,42 @@ public final class InMemoryQueueService implements QueueService {
 
 	private static final Logger LOG = Logger.getLogger(InMemoryQueueService.class.getName());
 
-	private MessageQueueServiceHelper<LinkedBlockingDeque<Message>> serviceHelper = null;
-	private ConcurrentMap<String, MessageQueue<LinkedBlockingDeque<Message>>> queues = null;
+	private MessageQueueServiceHelper<BlockingDeque<Message>> serviceHelper = null;
+	private ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = null;
+	private final int ringCapacity;
+	private volatile boolean offHeapStorage;
 
-	public InMemoryQueueService(ConcurrentMap<String, MessageQueue<LinkedBlockingDeque<Message>>> queues) {
+	/**
+	 * Queues created by this service are backed by an unbounded {@link LinkedBlockingDeque}.
+	 * @param queues
+	 */
+	public InMemoryQueueService(ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues) {
+		this(queues, 0);
+	}
+
+	/**
+	 * @param queues
+	 * @param ringCapacity, queues created by this service are backed by a lock free {@link RingDeque}
+	 * of this capacity, or by a {@link LinkedBlockingDeque} if it is zero.
+	 */
+	public InMemoryQueueService(ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues, int ringCapacity) {
+		if (ringCapacity < 0)
+			throw new IllegalArgumentException("Ring capacity can not be negative.");
 		this.queues = queues;
+		this.ringCapacity = ringCapacity;
 		this.serviceHelper = new MessageQueueServiceHelper<>(queues);
 	}
 
-	public void setMessageQueueHelper(MessageQueueServiceHelper<LinkedBlockingDeque<Message>> helper) {
+	/**
+	 * Keeps the pending messages of the queues created from now on outside the heap, in an
+	 * {@link OffHeapDeque}, instead of in a {@link RingDeque} or {@link LinkedBlockingDeque}.
+	 * @param offHeapStorage
+	 */
+	public void withOffHeapStorage(boolean offHeapStorage) {
+		this.offHeapStorage = offHeapStorage;
+	}
+
+	public void setMessageQueueHelper(MessageQueueServiceHelper<BlockingDeque<Message>> helper) {
 		this.serviceHelper = helper;
 	}
 
@@ -37,37 +74,139 @@ public final class InMemoryQueueService implements QueueService {
 		this.serviceHelper.sendMessage(queueUrl, messageBody);
 	}
 
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, long delay) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, delay);
+	}
+
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, messageGroupId);
+	}
+
+	@Override
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId, String deduplicationId) {
+		this.serviceHelper.sendMessage(queueUrl, messageBody, messageGroupId, deduplicationId);
+	}
+
+	@Override
+	public void sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		this.serviceHelper.sendMessageBatch(queueUrl, messageBodies);
+	}
+
 	@Override
 	public Message recieveMessage(String queueUrl) {
 		return this.serviceHelper.recieveMessage(queueUrl);
 	}
 
+	@Override
+	public List<Message> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		return this.serviceHelper.receiveMessages(queueUrl, maxNumberOfMessages);
+	}
+
+	@Override
+	public Message recieveMessage(String queueUrl, long visibilityTimeout) {
+		return this.serviceHelper.recieveMessage(queueUrl, visibilityTimeout);
+	}
+
+	@Override
+	public Message recieveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		return this.serviceHelper.recieveMessage(queueUrl, waitTime, unit);
+	}
+
+	@Override
+	public boolean changeMessageVisibility(String queueUrl, String receiptHandle, long visibilityTimeout) {
+		return this.serviceHelper.changeMessageVisibility(queueUrl, receiptHandle, visibilityTimeout);
+	}
+
 	@Override
 	public boolean deleteMessage(String queueUrl, String receiptHandle) {
 		return this.serviceHelper.deleteMessage(queueUrl, receiptHandle);
 	}
 
+	@Override
+	public int deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		return this.serviceHelper.deleteMessageBatch(queueUrl, receiptHandles);
+	}
+
 	
 	//Additional API's
 	
 	@Override
 	public String createQueue(String queueUrl, ScheduledExecutorService executorService) {
+		return createQueue(queueUrl, executorService, QueueOptions.unbounded());
+	}
+
+	/**
+	 * Bounded queues are backed by a {@link RingDeque} of their capacity, or an {@link OffHeapDeque} with
+	 * off-heap storage. FIFO queues are backed by a {@link MessageGroupDeque} and keep their messages on
+	 * the heap. A partitioned queue is backed by a {@link PartitionedDeque} of such deques, sharing the
+	 * capacity, the ring capacity applies to each partition.
+	 */
+	@Override
+	public String createQueue(String queueUrl, ScheduledExecutorService executorService, QueueOptions options) {
 		Objects.requireNonNull(queueUrl);
-		MessageQueue<LinkedBlockingDeque<Message>> queue = this.serviceHelper.getQueue(queueUrl);
+		Objects.requireNonNull(options, "Queue options can not be null.");
+		MessageQueue<BlockingDeque<Message>> queue = this.queues.get(queueUrl);
 		if (queue != null) {
 			LOG.log(Level.INFO, "Queue with queueUrl [" + queueUrl + "] is already exists.");
 			return queueUrl;
 		}
-		this.queues.put(queueUrl,
-				new MessageQueue<LinkedBlockingDeque<Message>>(new LinkedBlockingDeque<>(), executorService));
+		int partitions = options.getPartitions();
+		BlockingDeque<Message> deque;
+		if (partitions == 1) {
+			deque = newDeque(options, options.getCapacity());
+		} else {
+			// The queue checks the capacity against the size of all the partitions. A FIFO partition
+			// takes every message of its groups, the others share the capacity rounded up.
+			int capacity = options.isFifo() ? options.getCapacity()
+					: (options.getCapacity() + partitions - 1) / partitions;
+			List<BlockingDeque<Message>> deques = new ArrayList<>(partitions);
+			for (int i = 0; i < partitions; i++)
+				deques.add(newDeque(options, capacity));
+			deque = new PartitionedDeque<>(deques);
+		}
+
+		// Without an executor the expired messages are requeued on the worker threads of the timing wheel
+		MessageQueue<BlockingDeque<Message>> messageQueue = (executorService != null)
+				? new MessageQueue<>(deque, executorService) : new MessageQueue<>(deque);
+		if (options.getOverflowPolicy() == QueueOptions.OverflowPolicy.SPILL_TO_DISK)
+			options = options.withSpillDirectory(new File(options.getSpillDirectory(), queueUrl));
+		messageQueue.withQueueOptions(options);
+		RedrivePolicy redrivePolicy = options.getRedrivePolicy();
+		if (redrivePolicy != null)
+			messageQueue.withDeadLetterQueue(this.serviceHelper.getQueue(redrivePolicy.getDeadLetterQueueUrl()),
+					redrivePolicy.getMaxReceiveCount());
+		this.queues.put(queueUrl, messageQueue);
 		return queueUrl;
 	}
+
+	/**
+	 * @param capacity, zero if the deque is unbounded.
+	 */
+	private BlockingDeque<Message> newDeque(QueueOptions options, int capacity) {
+		if (options.isFifo())
+			return new MessageGroupDeque((capacity > 0) ? capacity : Integer.MAX_VALUE);
+		if (this.offHeapStorage)
+			return new OffHeapDeque((capacity > 0) ? capacity
+					: (this.ringCapacity > 0) ? this.ringCapacity : Integer.MAX_VALUE);
+		if (capacity > 0)
+			return new RingDeque<>(capacity);
+		if (this.ringCapacity > 0)
+			return new RingDeque<>(this.ringCapacity);
+		return new LinkedBlockingDeque<>();
+	}
 	
 	@Override
 	public int getMessageCount(String queueUrl) {
 		return this.serviceHelper.getMessageCount(queueUrl);
 	}
 
+	@Override
+	public int getRemainingCapacity(String queueUrl) {
+		return this.serviceHelper.getRemainingCapacity(queueUrl);
+	}
+
 	@Override
 	public boolean deleteQueue(String queueUrl) {
 		return this.serviceHelper.deleteQueue(queueUrl);
@@ -1,14 +1,19 @@
 package com.example.queue.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
+import com.example.queue.DeduplicationCache;
+import com.example.queue.MessageGroups;
 import com.example.queue.MessageQueue;
 import com.google.common.collect.Lists;
 
@@ -30,10 +35,55 @@ public class MessageQueueServiceHelper<T extends BlockingDeque<Message>>  {
 		this.getQueue(queueUrl).push(prepareMessage(messageBody));
 	}
 
+	public void sendMessage(String queueUrl, String messageBody, long delay) {
+		this.getQueue(queueUrl).push(prepareMessage(messageBody), delay);
+	}
+
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId) {
+		Objects.requireNonNull(messageGroupId, "Message group id can not be null.");
+		sendMessage(queueUrl, messageBody, messageGroupId, null);
+	}
+
+	public void sendMessage(String queueUrl, String messageBody, String messageGroupId, String deduplicationId) {
+		Message message = prepareMessage(messageBody);
+		if (messageGroupId != null)
+			message.getAttributes().put(MessageGroups.MESSAGE_GROUP_ID, messageGroupId);
+		if (deduplicationId != null)
+			message.getAttributes().put(DeduplicationCache.MESSAGE_DEDUPLICATION_ID, deduplicationId);
+		this.getQueue(queueUrl).push(message);
+	}
+
+	public void sendMessageBatch(String queueUrl, List<String> messageBodies) {
+		List<Message> messages = new ArrayList<>(messageBodies.size());
+		for (String messageBody : messageBodies)
+			messages.add(prepareMessage(messageBody));
+		this.getQueue(queueUrl).pushAll(messages);
+	}
+
 	public Message recieveMessage(String queueUrl) {
 		return this.getQueue(queueUrl).poll();
 	}
 
+	public List<Message> receiveMessages(String queueUrl, int maxNumberOfMessages) {
+		return this.getQueue(queueUrl).pollBatch(maxNumberOfMessages);
+	}
+
+	public int deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+		return this.getQueue(queueUrl).deleteBatch(receiptHandles);
+	}
+
+	public Message recieveMessage(String queueUrl, long visibilityTimeout) {
+		return this.getQueue(queueUrl).poll(visibilityTimeout);
+	}
+
+	public Message recieveMessage(String queueUrl, long waitTime, TimeUnit unit) {
+		return this.getQueue(queueUrl).poll(waitTime, unit);
+	}
+
+	public boolean changeMessageVisibility(String queueUrl, String receiptHandle, long visibilityTimeout) {
+		return this.getQueue(queueUrl).changeVisibility(receiptHandle, visibilityTimeout);
+	}
+
 	public boolean deleteMessage(String queueUrl, String reciepientHandle) {
 		return this.getQueue(queueUrl).delete(reciepientHandle);
 	}
@@ -43,6 +93,10 @@ public class MessageQueueServiceHelper<T extends BlockingDeque<Message>>  {
 	public int getMessageCount(String queueUrl) {
 		return this.getQueue(queueUrl).size();
 	}
+
+	public int getRemainingCapacity(String queueUrl) {
+		return this.getQueue(queueUrl).remainingCapacity();
+	}
 	
 	public boolean deleteQueue(String queueUrl) {
 		return (this.queues.remove(queueUrl) != null) ? true : false;
@@ -0,0 +1,52 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class DeduplicationCacheTest {
+
+	@Test
+	public void shouldForgetIdsOnceTheWindowPassed() throws InterruptedException {
+		DeduplicationCache cache = new DeduplicationCache(60, DeduplicationCache.DEFAULT_MAX_ENTRIES);
+		assertTrue(cache.add("order-1"));
+		assertFalse(cache.add("order-1"));
+		assertTrue(cache.add("order-2"));
+
+		// Remembered for the window and at most one slice of it longer
+		Thread.sleep(200);
+		assertTrue(cache.add("order-1"));
+		assertFalse(cache.add("order-1"));
+	}
+
+	@Test
+	public void shouldForgetRemovedIds() {
+		DeduplicationCache cache = new DeduplicationCache(60000, DeduplicationCache.DEFAULT_MAX_ENTRIES);
+		for (int i = 0; i < 1000; i++)
+			assertTrue(cache.add("message" + i));
+		// Removal keeps the ids probed past the freed slots reachable
+		for (int i = 0; i < 1000; i += 2)
+			assertTrue(cache.remove("message" + i));
+		assertFalse(cache.remove("message0"));
+		assertEquals(500, cache.size());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i % 2 == 0, cache.add("message" + i));
+	}
+
+	@Test
+	public void shouldStayWithinMaxEntries() {
+		int maxEntries = 4096;
+		DeduplicationCache cache = new DeduplicationCache(60000, maxEntries);
+		for (int i = 0; i < 100000; i++)
+			assertTrue(cache.add("message" + i));
+		assertTrue(cache.size() <= maxEntries);
+		// The newest ids are still remembered
+		assertFalse(cache.add("message99999"));
+	}
+}
@@ -0,0 +1,392 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class FileQueueTest {
+
+	@Before
+	public void init() {
+		removeDirectory(new File("/var/queues/file-queue-test"));
+	}
+
+	@Test
+	public void shouldIgnoreStaleLockDirectory() {
+		// Left behind by a crashed process using the old mkdir lock
+		new File("/var/queues/file-queue-test/.lock").mkdirs();
+
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		assertTrue(queue.offerLast(message("id1", "body")));
+		assertEquals("body", queue.pollFirst().getBody());
+		queue.close();
+	}
+
+	@Test
+	public void shouldShareLockBetweenQueueInstances() throws InterruptedException {
+		int executionTimes = 1000;
+		FileQueue<Message> producerQueue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		FileQueue<Message> consumerQueue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		Set<String> received = ConcurrentHashMap.newKeySet();
+
+		CountDownLatch latch = new CountDownLatch(executionTimes);
+		for (int i = 0; i < executionTimes; i++) {
+			String id = "id" + i;
+			executorService.submit(() -> {
+				try {
+					producerQueue.offerLast(message(id, "body " + id));
+					String body = consumerQueue.pollFirst().getBody();
+					if (body != null)
+						received.add(body);
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		latch.await();
+		executorService.shutdown();
+
+		String body;
+		while ((body = consumerQueue.pollFirst().getBody()) != null)
+			assertTrue(received.add(body));
+		assertEquals(executionTimes, received.size());
+		assertNull(producerQueue.pollFirst().getBody());
+		producerQueue.close();
+		consumerQueue.close();
+	}
+
+	@Test
+	public void shouldAcknowledgeWritesWithGroupCommit() throws InterruptedException {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		queue.withDurability(Durability.groupCommit(2, TimeUnit.MILLISECONDS, 16));
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		CountDownLatch latch = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			String id = "id" + i;
+			executorService.submit(() -> {
+				try {
+					assertTrue(queue.offerLast(message(id, id)));
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		latch.await();
+		executorService.shutdown();
+
+		queue.withDurability(Durability.everyWrite());
+		assertTrue(queue.offerLast(message("last", "last")));
+
+		int count = 0;
+		while (queue.pollFirst().getBody() != null)
+			count++;
+		assertEquals(101, count);
+		queue.close();
+	}
+
+	@Test
+	public void shouldJournalLeasesWithGroupCommit() throws InterruptedException {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		queue.withDurability(Durability.groupCommit(2, TimeUnit.MILLISECONDS, 16));
+		for (int i = 0; i < 100; i++)
+			queue.offerLast(message("id" + i, "body" + i));
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		Set<String> receiptHandles = ConcurrentHashMap.newKeySet();
+		CountDownLatch latch = new CountDownLatch(100);
+		long deadline = System.currentTimeMillis() + 60_000;
+		for (int i = 0; i < 100; i++) {
+			executorService.submit(() -> {
+				try {
+					Message message = queue.lease(deadline);
+					assertTrue(queue.extend(message.getReceiptHandle(), deadline + 1));
+					receiptHandles.add(message.getReceiptHandle());
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		latch.await();
+		executorService.shutdown();
+		assertEquals(100, receiptHandles.size());
+		assertEquals(50, queue.release(new ArrayList<>(receiptHandles).subList(0, 50)));
+		queue.close();
+
+		FileQueue<Message> reopened = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		List<Message> leased = new ArrayList<>();
+		reopened.recover((message, leaseDeadline) -> leased.add(message));
+		assertEquals(50, leased.size());
+		reopened.close();
+	}
+
+	@Test
+	public void shouldTrackSizeAndPeekInEveryStorageMode() {
+		for (StorageMode storageMode : StorageMode.values()) {
+			removeDirectory(new File("/var/queues/file-queue-test"));
+			FileQueue<Message> queue = new FileQueue<>("file-queue-test", storageMode);
+			assertTrue(queue.isEmpty());
+			assertNull(queue.peekFirst());
+
+			queue.offerLast(message("id1", "first"));
+			queue.offerLast(message("id2", "second"));
+			assertEquals(2, queue.size());
+			assertEquals("first", queue.peekFirst().getBody());
+			assertEquals(2, queue.size());
+
+			assertEquals("first", queue.pollFirst().getBody());
+			queue.close();
+
+			FileQueue<Message> reopened = new FileQueue<>("file-queue-test", storageMode);
+			assertEquals(storageMode.name(), 1, reopened.size());
+			assertEquals("second", reopened.pollFirst().getBody());
+			assertTrue(reopened.isEmpty());
+			reopened.close();
+		}
+	}
+
+	@Test
+	public void shouldKeepLineBreaksInSingleFileMessages() throws IOException {
+		// Written before the records were encoded
+		File folder = new File("/var/queues/file-queue-test");
+		folder.mkdirs();
+		Files.write(new File(folder, "messages").toPath(), "legacy:legacy:old body\n".getBytes(StandardCharsets.UTF_8));
+
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SINGLE_FILE);
+		Message message = message("id1", "first line\nsecond: line\r\n");
+		message.getAttributes().put("origin", "test");
+		assertTrue(queue.offerLast(message));
+		queue.close();
+
+		FileQueue<Message> reopened = new FileQueue<>("file-queue-test", StorageMode.SINGLE_FILE);
+		assertEquals(2, reopened.size());
+		assertEquals("old body", reopened.pollFirst().getBody());
+		Message polled = reopened.pollFirst();
+		assertEquals("first line\nsecond: line\r\n", polled.getBody());
+		assertEquals("test", polled.getAttributes().get("origin"));
+		assertTrue(reopened.isEmpty());
+		reopened.close();
+	}
+
+	@Test
+	public void shouldSkipDamagedSingleFileMessages() throws IOException {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SINGLE_FILE);
+		queue.offerLast(message("id1", "one"));
+		queue.offerLast(message("id2", "two"));
+		queue.close();
+
+		// Torn by a crash in the middle of the second write
+		File messages = new File("/var/queues/file-queue-test/messages");
+		byte[] content = Files.readAllBytes(messages.toPath());
+		Files.write(messages.toPath(), Arrays.copyOf(content, content.length - 10));
+		FileQueue<Message> reopened = new FileQueue<>("file-queue-test", StorageMode.SINGLE_FILE);
+		assertEquals(1, reopened.size());
+		reopened.offerLast(message("id3", "three"));
+		reopened.close();
+
+		// Damaged in the middle of the file
+		List<String> lines = new ArrayList<>(Files.readAllLines(messages.toPath()));
+		lines.add(1, "not a record");
+		Files.write(messages.toPath(), lines);
+		reopened = new FileQueue<>("file-queue-test", StorageMode.SINGLE_FILE);
+		assertEquals("one", reopened.pollFirst().getBody());
+		assertEquals("three", reopened.peekFirst().getBody());
+		assertEquals("three", reopened.pollFirst().getBody());
+		assertNull(reopened.pollFirst().getBody());
+		assertTrue(reopened.isEmpty());
+		reopened.close();
+	}
+
+	@Test
+	public void shouldKeepDelayedMessagesAcrossRestarts() {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		long deadline = System.currentTimeMillis() + 60000;
+		queue.delay(Collections.singletonList(message("pending", "pending")), deadline);
+		queue.delay(Collections.singletonList(message("due", "due")), System.currentTimeMillis() - 1);
+		assertTrue(queue.isEmpty());
+		queue.close();
+
+		// The due message is pushed when the queue is opened, the pending one is handed over
+		queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		assertEquals("due", queue.pollFirst().getBody());
+		List<Message> pending = new ArrayList<>();
+		queue.recoverDelays((message, messageDeadline) -> {
+			assertEquals(deadline, messageDeadline);
+			pending.add(message);
+		});
+		assertEquals(1, pending.size());
+		assertEquals("pending", pending.get(0).getBody());
+
+		assertEquals(Arrays.asList("pending"), queue.delivered(Arrays.asList("pending", "unknown")));
+		queue.close();
+		queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		queue.recoverDelays((message, messageDeadline) -> pending.add(message));
+		assertEquals(1, pending.size());
+		queue.close();
+	}
+
+	@Test
+	public void shouldShareTheLeaseJournalBetweenLiveQueues() {
+		long deadline = System.currentTimeMillis() + 60000;
+		FileQueue<Message> first = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		FileQueue<Message> second = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		for (String id : Arrays.asList("a", "b", "c", "d"))
+			first.offerLast(message(id, id));
+
+		// Both append to the journal, neither overwrites the entries of the other
+		assertEquals("a", first.lease(deadline).getBody());
+		assertEquals("b", second.lease(deadline).getBody());
+		assertEquals("c", first.lease(deadline).getBody());
+		assertTrue(second.release("a"));
+
+		// A third queue compacts the journal when it opens, the others pick up the new file
+		FileQueue<Message> third = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		assertTrue(first.extend("b", deadline + 1000));
+		assertEquals("d", second.lease(deadline).getBody());
+		assertTrue(third.release("d"));
+
+		List<String> leased = new ArrayList<>();
+		FileQueue<Message> reopened = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		reopened.recover((message, messageDeadline) -> {
+			leased.add(message.getBody());
+			assertEquals(message.getBody().equals("b") ? deadline + 1000 : deadline, messageDeadline);
+		});
+		assertEquals(Arrays.asList("b", "c"), leased);
+		for (FileQueue<Message> queue : Arrays.asList(first, second, third, reopened))
+			queue.close();
+	}
+
+	@Test
+	public void shouldSurviveInterruptedConsumers() {
+		for (StorageMode storageMode : StorageMode.values()) {
+			removeDirectory(new File("/var/queues/file-queue-test"));
+			long deadline = System.currentTimeMillis() + 60000;
+			FileQueue<Message> queue = new FileQueue<>("file-queue-test", storageMode);
+			queue.offerLast(message("id1", "first"));
+			queue.offerLast(message("id2", "second"));
+
+			// An interrupt would close the channels of the files, it is kept for the caller instead
+			Thread.currentThread().interrupt();
+			Message first = queue.lease(deadline);
+			assertTrue(Thread.interrupted());
+			assertEquals(storageMode.name(), "first", first.getBody());
+			Thread.currentThread().interrupt();
+			assertTrue(queue.release(first.getReceiptHandle()));
+			assertTrue(Thread.interrupted());
+
+			assertEquals(storageMode.name(), "second", queue.lease(deadline).getBody());
+			queue.offerLast(message("id3", "third"));
+			assertEquals(storageMode.name(), "third", queue.pollFirst().getBody());
+			queue.close();
+		}
+	}
+
+	@Test
+	public void shouldRedeliverRequeuedMessagesFirst() {
+		for (StorageMode storageMode : StorageMode.values()) {
+			removeDirectory(new File("/var/queues/file-queue-test"));
+			FileQueue<Message> queue = new FileQueue<>("file-queue-test", storageMode);
+			queue.offerLast(message("id1", "first"));
+			queue.offerLast(message("id2", "second"));
+			queue.offerLast(message("id3", "third"));
+			Message first = queue.pollFirst();
+			Message second = queue.pollFirst();
+
+			assertTrue(queue.offerFirst(first));
+			assertTrue(queue.offerFirst(second));
+			assertEquals(3, queue.size());
+			queue.close();
+
+			FileQueue<Message> reopened = new FileQueue<>("file-queue-test", storageMode);
+			assertEquals(storageMode.name(), "first", reopened.peekFirst().getBody());
+			assertEquals("first", reopened.pollFirst().getBody());
+			assertEquals("second", reopened.pollFirst().getBody());
+			assertEquals("third", reopened.pollFirst().getBody());
+			assertTrue(reopened.isEmpty());
+			reopened.close();
+		}
+	}
+
+	@Test
+	public void shouldWakeUpBlockedConsumer() throws Exception {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.SEGMENTED_LOG);
+		assertNull(queue.pollFirst(10, TimeUnit.MILLISECONDS));
+
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		Future<Message> taken = executorService.submit(() -> queue.takeFirst());
+		Thread.sleep(50);
+		assertTrue(queue.offerLast(message("id1", "body")));
+		assertEquals("body", taken.get(5, TimeUnit.SECONDS).getBody());
+		executorService.shutdown();
+		queue.close();
+	}
+
+	@Test
+	public void shouldWakeUpConsumerOnChangeOfAnotherProcess() throws Exception {
+		FileQueue<Message> queue = new FileQueue<>("file-queue-test", StorageMode.MAPPED_RING);
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		Future<Message> polled = executorService.submit(() -> queue.pollFirst(30, TimeUnit.SECONDS));
+
+		// A second store on the same files bypasses the in-JVM signal, like a producer in another
+		// process. Its mapped write raises no event by itself.
+		MappedRingStore store = new MappedRingStore("/var/queues/file-queue-test");
+		while (store.header().waiters() == 0)
+			Thread.sleep(5);
+		FileQueueLock lock = FileQueueLock.forFolder("/var/queues/file-queue-test");
+		lock.lock();
+		try {
+			assertTrue(store.append(message("id1", "body")));
+			store.header().touch();
+		} finally {
+			lock.unlock();
+		}
+
+		long start = System.nanoTime();
+		assertEquals("body", polled.get(30, TimeUnit.SECONDS).getBody());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		executorService.shutdown();
+		store.close();
+		queue.close();
+	}
+
+	private Message message(String id, String body) {
+		Message message = new Message();
+		message.setMessageId(id);
+		message.setReceiptHandle(id);
+		message.setBody(body);
+		return message;
+	}
+
+	private void removeDirectory(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files)
+				removeDirectory(file);
+		}
+		dir.delete();
+	}
+}
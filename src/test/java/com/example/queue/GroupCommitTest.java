@@ -0,0 +1,61 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class GroupCommitTest {
+
+	@Test
+	public void shouldShareForcesBetweenConcurrentWriters() throws InterruptedException {
+		int executionTimes = 1000;
+		AtomicInteger forces = new AtomicInteger();
+		GroupCommit groupCommit = new GroupCommit(() -> {
+			forces.incrementAndGet();
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 5, 64);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(16);
+		CountDownLatch latch = new CountDownLatch(executionTimes);
+		for (int i = 0; i < executionTimes; i++) {
+			executorService.submit(() -> {
+				try {
+					groupCommit.awaitDurable(groupCommit.appended(1));
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		latch.await();
+		executorService.shutdown();
+
+		assertTrue("Expected batched forces but got " + forces.get(), forces.get() < executionTimes / 2);
+	}
+
+	@Test
+	public void shouldForceOnceBatchIsFull() {
+		AtomicInteger forces = new AtomicInteger();
+		GroupCommit groupCommit = new GroupCommit(forces::incrementAndGet, 60_000, 3);
+		groupCommit.appended(1);
+		groupCommit.appended(1);
+		long start = System.currentTimeMillis();
+		groupCommit.awaitDurable(groupCommit.appended(1));
+
+		assertEquals(1, forces.get());
+		assertTrue(System.currentTimeMillis() - start < 60_000);
+	}
+}
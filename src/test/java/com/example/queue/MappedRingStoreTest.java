@@ -0,0 +1,89 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class MappedRingStoreTest {
+
+	private File queueFolder;
+
+	@Before
+	public void init() throws IOException {
+		this.queueFolder = Files.createTempDirectory("ring-queue").toFile();
+	}
+
+	@After
+	public void cleanup() {
+		File[] files = this.queueFolder.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		this.queueFolder.delete();
+	}
+
+	@Test
+	public void shouldWrapAroundTheEndOfTheRing() {
+		MappedRingStore store = new MappedRingStore(this.queueFolder.getPath(), 256);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(store.append(message("id" + i, "message body " + i)));
+			assertTrue(store.append(message("id" + i, "second body " + i)));
+			assertEquals("message body " + i, store.poll().getBody());
+			assertEquals("second body " + i, store.poll().getBody());
+		}
+		assertNull(store.poll());
+		store.close();
+	}
+
+	@Test
+	public void shouldRejectWhenFull() {
+		MappedRingStore store = new MappedRingStore(this.queueFolder.getPath(), 128);
+		int accepted = 0;
+		while (store.append(message("id" + accepted, "body " + accepted)))
+			accepted++;
+		assertTrue(accepted > 0);
+		assertFalse(store.append(message("id", "body")));
+
+		assertEquals("body 0", store.poll().getBody());
+		assertTrue(store.append(message("id", "body")));
+		store.close();
+	}
+
+	@Test
+	public void shouldKeepMessagesAcrossReopen() {
+		MappedRingStore store = new MappedRingStore(this.queueFolder.getPath(), 1024);
+		store.append(message("id1", "first"));
+		store.append(message("id2", "second"));
+		assertEquals("first", store.poll().getBody());
+		store.close();
+
+		MappedRingStore reopened = new MappedRingStore(this.queueFolder.getPath(), 1024);
+		assertEquals("second", reopened.poll().getBody());
+		assertNull(reopened.poll());
+		reopened.close();
+	}
+
+	private Message message(String id, String body) {
+		Message message = new Message();
+		message.setMessageId(id);
+		message.setReceiptHandle(id);
+		message.setBody(body);
+		return message;
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class MessageGroupDequeTest {
+
+	@Test
+	public void shouldHandOutOneMessagePerGroupInOrder() {
+		MessageGroupDeque deque = new MessageGroupDeque(3);
+		assertTrue(deque.offerLast(message("a1", "a")));
+		assertTrue(deque.offerLast(message("a2", "a")));
+		assertTrue(deque.offerLast(message("b1", "b")));
+		assertFalse(deque.offerLast(message("b2", "b")));
+
+		assertEquals("a1", deque.pollFirst().getBody());
+		assertEquals("b1", deque.pollFirst().getBody());
+		// Both groups are locked, a2 waits for a1
+		assertNull(deque.pollFirst());
+		assertEquals(1, deque.size());
+		assertEquals(2, deque.lockedGroups());
+
+		assertTrue(deque.unlock("a"));
+		assertFalse(deque.unlock("a"));
+		assertEquals("a2", deque.pollFirst().getBody());
+
+		// Put back, b1 unlocks its group and is served first
+		assertTrue(deque.offerLast(message("c1", "c")));
+		assertTrue(deque.offerFirst(message("b1", "b")));
+		assertEquals("b1", deque.pollFirst().getBody());
+		assertEquals("c1", deque.pollFirst().getBody());
+		assertTrue(deque.isEmpty());
+	}
+
+	@Test
+	public void shouldDrainOneMessageOfEachReadyGroup() {
+		MessageGroupDeque deque = new MessageGroupDeque();
+		for (int i = 0; i < 3; i++) {
+			deque.offerLast(message("a" + i, "a"));
+			deque.offerLast(message("b" + i, "b"));
+		}
+		List<Message> drained = new ArrayList<>();
+		assertEquals(2, deque.drainTo(drained, 10));
+		assertEquals("a0", drained.get(0).getBody());
+		assertEquals("b0", drained.get(1).getBody());
+
+		deque.unlock("b");
+		drained.clear();
+		assertEquals(1, deque.drainTo(drained));
+		assertEquals("b1", drained.get(0).getBody());
+		assertEquals(3, deque.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectMessagesWithoutGroup() {
+		Message message = new Message();
+		message.setMessageId("id");
+		new MessageGroupDeque().offerLast(message);
+	}
+
+	private Message message(String body, String messageGroupId) {
+		Message message = new Message();
+		message.setMessageId(body);
+		message.setReceiptHandle(body);
+		message.setBody(body);
+		message.getAttributes().put(MessageGroups.MESSAGE_GROUP_ID, messageGroupId);
+		return message;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class OffHeapDequeTest {
+
+	@Test
+	public void shouldMaterializeMessagesInOrder() {
+		OffHeapDeque deque = new OffHeapDeque(3);
+		Message uuids = message(UUID.randomUUID().toString(), "first");
+		Message text = message("message-2", "second");
+		Message nullBody = message("message-3", null);
+		assertTrue(deque.offerLast(uuids));
+		assertTrue(deque.offerLast(text));
+		assertTrue(deque.offerLast(nullBody));
+		assertFalse(deque.offerLast(message("message-4", "rejected")));
+		assertEquals(0, deque.remainingCapacity());
+
+		assertEquals(uuids, deque.peekFirst());
+		assertEquals(uuids, deque.pollFirst());
+		// Requeued on top of a full deque
+		assertTrue(deque.offerFirst(uuids));
+		assertEquals(3, deque.size());
+
+		List<Message> drained = new ArrayList<>();
+		assertEquals(3, deque.drainTo(drained));
+		assertEquals(uuids, drained.get(0));
+		assertEquals(text, drained.get(1));
+		assertEquals(nullBody, drained.get(2));
+		assertNull(drained.get(2).getBody());
+		assertNull(deque.pollFirst());
+	}
+
+	@Test
+	public void shouldRecycleDrainedArenas() {
+		MessageSlab slab = new MessageSlab(1024);
+		List<Long> handles = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+			handles.add(slab.store(message(UUID.randomUUID().toString(), "body of message " + i)));
+		int arenas = slab.arenaCount();
+		assertTrue(arenas > 1);
+
+		// Freed in order, each arena is released once its last message is gone
+		for (int i = 0; i < 50; i++) {
+			assertEquals("body of message " + i, slab.load(handles.get(i)).getBody());
+			slab.free(handles.get(i));
+		}
+		assertTrue(slab.arenaCount() < arenas);
+		for (int i = 50; i < 100; i++)
+			slab.free(handles.get(i));
+		assertEquals(1, slab.arenaCount());
+
+		// A record larger than an arena gets one of its own
+		char[] body = new char[4096];
+		Arrays.fill(body, 'x');
+		long handle = slab.store(message("large", new String(body)));
+		assertEquals(4096, slab.load(handle).getBody().length());
+	}
+
+	private Message message(String id, String body) {
+		Message message = new Message();
+		message.setMessageId(id);
+		message.setReceiptHandle(id);
+		message.setBody(body);
+		return message;
+	}
+}
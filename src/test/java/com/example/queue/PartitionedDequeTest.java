@@ -0,0 +1,149 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class PartitionedDequeTest {
+
+	@Test
+	public void shouldStealFromOtherPartitions() throws Exception {
+		List<LinkedBlockingDeque<Message>> partitions = Arrays.asList(new LinkedBlockingDeque<>(),
+				new LinkedBlockingDeque<>(), new LinkedBlockingDeque<>());
+		PartitionedDeque<LinkedBlockingDeque<Message>> deque = new PartitionedDeque<>(partitions);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			String body = "message" + i;
+			futures.add(executor.submit(() -> deque.offerLast(message(body, null))));
+		}
+		for (Future<?> future : futures)
+			future.get(5, TimeUnit.SECONDS);
+		assertEquals(30, deque.size());
+
+		// One thread drains all the partitions, whichever its home is
+		List<Message> drained = new ArrayList<>();
+		assertEquals(20, deque.drainTo(drained, 20));
+		for (int i = 0; i < 10; i++)
+			assertTrue(deque.pollFirst() != null);
+		assertNull(deque.pollFirst());
+		assertTrue(deque.isEmpty());
+
+		// A consumer parked on its home partition sees a message sent to another
+		Future<Message> taken = executor.submit(() -> deque.pollFirst(5, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		for (BlockingDeque<Message> partition : partitions)
+			partition.offerLast(message("late", null));
+		assertEquals("late", taken.get(1, TimeUnit.SECONDS).getBody());
+		executor.shutdown();
+	}
+
+	@Test
+	public void shouldKeepTheMessagesOfAGroupInOnePartition() {
+		PartitionedDeque<MessageGroupDeque> deque = new PartitionedDeque<>(
+				Arrays.asList(new MessageGroupDeque(), new MessageGroupDeque(), new MessageGroupDeque()));
+		for (int i = 0; i < 3; i++) {
+			deque.offerLast(message("a" + i, "a"));
+			deque.offerLast(message("b" + i, "b"));
+		}
+		Set<String> bodies = ConcurrentHashMap.newKeySet();
+		Message first = deque.pollFirst();
+		Message second = deque.pollFirst();
+		bodies.add(first.getBody());
+		bodies.add(second.getBody());
+		assertEquals(new HashSet<>(Arrays.asList("a0", "b0")), bodies);
+		// Both groups are locked in their partitions
+		assertNull(deque.pollFirst());
+
+		assertTrue(deque.unlock("a"));
+		assertEquals("a1", deque.pollFirst().getBody());
+		assertTrue(deque.offerFirst(second.getBody().equals("b0") ? second : first));
+		assertEquals("b0", deque.pollFirst().getBody());
+	}
+
+	@Test
+	public void shouldMoveOnToPartitionsWithRoom() {
+		PartitionedDeque<RingDeque<Message>> deque = new PartitionedDeque<>(
+				Arrays.asList(new RingDeque<>(2), new RingDeque<>(2)));
+		// More than the home partition takes, in one batch and then grouped
+		assertTrue(deque.addAll(Arrays.asList(message("m0", null), message("m1", null), message("m2", null))));
+		assertTrue(deque.offerLast(message("g0", "g")));
+		assertEquals(4, deque.size());
+		assertEquals(0, deque.remainingCapacity());
+
+		// A FIFO partition keeps the messages of a group
+		PartitionedDeque<MessageGroupDeque> fifo = new PartitionedDeque<>(
+				Arrays.asList(new MessageGroupDeque(1), new MessageGroupDeque(1)));
+		assertTrue(fifo.offerLast(message("a0", "a")));
+		assertFalse(fifo.offerLast(message("a1", "a")));
+	}
+
+	@Test
+	public void shouldHandOverEveryMessageOnce() throws Exception {
+		int producers = 4;
+		int perProducer = 10000;
+		List<BlockingDeque<Message>> partitions = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+			partitions.add(new RingDeque<>(256));
+		PartitionedDeque<BlockingDeque<Message>> deque = new PartitionedDeque<>(partitions);
+		Set<String> received = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+		CountDownLatch done = new CountDownLatch(producers * perProducer);
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < perProducer; i++)
+					deque.putLast(message("message" + (base + i), null));
+				return null;
+			}));
+			futures.add(executor.submit(() -> {
+				Message message;
+				while ((message = deque.pollFirst(1, TimeUnit.SECONDS)) != null) {
+					assertTrue(received.add(message.getBody()));
+					done.countDown();
+				}
+				return null;
+			}));
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		for (Future<?> future : futures)
+			future.get(5, TimeUnit.SECONDS);
+		assertEquals(producers * perProducer, received.size());
+		executor.shutdown();
+	}
+
+	private Message message(String body, String messageGroupId) {
+		Message message = new Message();
+		message.setMessageId(body);
+		message.setReceiptHandle(body);
+		message.setBody(body);
+		if (messageGroupId != null)
+			message.getAttributes().put(MessageGroups.MESSAGE_GROUP_ID, messageGroupId);
+		return message;
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class RingDequeTest {
+
+	@Test
+	public void shouldRejectOnceFullAndReadRequeuedFirst() {
+		// Not a power of two, the ring still holds exactly three
+		RingDeque<String> deque = new RingDeque<>(3);
+		assertEquals(3, deque.capacity());
+		for (int i = 0; i < 3; i++)
+			assertTrue(deque.offerLast("message" + i));
+		assertFalse(deque.offerLast("rejected"));
+		assertEquals(0, deque.remainingCapacity());
+
+		// Requeued in reverse order like MessageQueue does, on top of a full ring
+		assertEquals("message0", deque.pollFirst());
+		assertEquals("message1", deque.pollFirst());
+		assertTrue(deque.offerFirst("message1"));
+		assertTrue(deque.offerFirst("message0"));
+		assertEquals(3, deque.size());
+		assertEquals("message0", deque.peekFirst());
+
+		for (int i = 0; i < 3; i++)
+			assertEquals("message" + i, deque.pollFirst());
+		assertNull(deque.pollFirst());
+		assertTrue(deque.isEmpty());
+	}
+
+	@Test
+	public void shouldAddAndDrainInBatches() {
+		RingDeque<String> deque = new RingDeque<>(8);
+		deque.addAll(Arrays.asList("a", "b", "c", "d", "e", "f"));
+		assertEquals(2, deque.remainingCapacity());
+		try {
+			deque.addAll(Arrays.asList("g", "h", "i"));
+			fail("Expected the batch not to fit.");
+		} catch (IllegalStateException expected) {
+		}
+		assertEquals(8, deque.size());
+
+		List<String> drained = new ArrayList<>();
+		assertEquals(5, deque.drainTo(drained, 5));
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), drained);
+		drained.clear();
+		assertEquals(3, deque.drainTo(drained));
+		assertEquals(Arrays.asList("f", "g", "h"), drained);
+	}
+
+	@Test
+	public void shouldHandOverEveryElementOnce() throws Exception {
+		int producers = 4;
+		int perProducer = 50000;
+		RingDeque<Integer> deque = new RingDeque<>(64);
+		Set<Integer> received = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+		CountDownLatch done = new CountDownLatch(producers * perProducer);
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < perProducer; i++)
+					deque.putLast(base + i);
+				return null;
+			}));
+			futures.add(executor.submit(() -> {
+				Integer value;
+				while ((value = deque.pollFirst(1, TimeUnit.SECONDS)) != null) {
+					assertTrue(received.add(value));
+					done.countDown();
+				}
+				return null;
+			}));
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		for (Future<?> future : futures)
+			future.get(5, TimeUnit.SECONDS);
+		assertEquals(producers * perProducer, received.size());
+		executor.shutdown();
+	}
+
+	@Test
+	public void shouldWakeUpBlockedConsumer() throws Exception {
+		RingDeque<String> deque = new RingDeque<>(4);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<String> taken = executor.submit(() -> deque.takeFirst());
+		Thread.sleep(50);
+		deque.offerLast("message");
+		assertEquals("message", taken.get(1, TimeUnit.SECONDS));
+		executor.shutdown();
+	}
+}
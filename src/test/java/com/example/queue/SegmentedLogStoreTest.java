@@ -0,0 +1,142 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class SegmentedLogStoreTest {
+
+	private File queueFolder;
+
+	@Before
+	public void init() throws IOException {
+		this.queueFolder = Files.createTempDirectory("segmented-queue").toFile();
+	}
+
+	@After
+	public void cleanup() {
+		removeDirectory(this.queueFolder);
+	}
+
+	@Test
+	public void shouldPollInInsertionOrder() {
+		SegmentedLogStore store = new SegmentedLogStore(this.queueFolder.getPath());
+		for (int i = 0; i < 10; i++)
+			store.append(message("id" + i, "body " + i));
+
+		for (int i = 0; i < 10; i++)
+			assertEquals("body " + i, store.poll().getBody());
+		assertNull(store.poll());
+		store.close();
+	}
+
+	@Test
+	public void shouldResumeFromPersistedCursor() {
+		SegmentedLogStore store = new SegmentedLogStore(this.queueFolder.getPath());
+		store.append(message("id1", "first"));
+		store.append(message("id2", "second"));
+		assertEquals("first", store.poll().getBody());
+		store.close();
+
+		SegmentedLogStore reopened = new SegmentedLogStore(this.queueFolder.getPath());
+		assertEquals("second", reopened.poll().getBody());
+		assertNull(reopened.poll());
+		reopened.close();
+	}
+
+	@Test
+	public void shouldRollAndDeleteConsumedSegments() throws InterruptedException {
+		SegmentedLogStore store = new SegmentedLogStore(this.queueFolder.getPath(), 64);
+		for (int i = 0; i < 20; i++)
+			store.append(message("id" + i, "message body " + i));
+		assertTrue(segmentCount() > 1);
+
+		for (int i = 0; i < 20; i++)
+			assertEquals("message body " + i, store.poll().getBody());
+		assertNull(store.poll());
+
+		// Consumed segments are removed by the cleaner thread
+		for (int i = 0; i < 50 && segmentCount() > 1; i++)
+			Thread.sleep(20);
+		assertEquals(1, segmentCount());
+		store.close();
+	}
+
+	@Test
+	public void shouldKeepBodyAndIdsIntact() {
+		SegmentedLogStore store = new SegmentedLogStore(this.queueFolder.getPath());
+		String uuid = UUID.randomUUID().toString();
+		store.append(message(uuid, "key:value\nsecond line: é中"));
+		store.append(message("not-a-uuid", ""));
+		Message nullBody = message(null, null);
+		store.append(nullBody);
+
+		Message message = store.poll();
+		assertEquals(uuid, message.getMessageId());
+		assertEquals(uuid, message.getReceiptHandle());
+		assertEquals("key:value\nsecond line: é中", message.getBody());
+		message = store.poll();
+		assertEquals("not-a-uuid", message.getMessageId());
+		assertEquals("", message.getBody());
+		message = store.poll();
+		assertNull(message.getMessageId());
+		assertNull(message.getBody());
+		store.close();
+	}
+
+	@Test
+	public void shouldSkipDamagedRecords() throws IOException {
+		SegmentedLogStore store = new SegmentedLogStore(this.queueFolder.getPath(), 64);
+		store.append(message("id1", "first"));
+		store.append(message("id2", "second"));
+		store.append(message("id3", "third"));
+
+		// Damage the body of the first record, the rest of its segment can not be trusted
+		File firstSegment = new File(this.queueFolder, String.format("segment-%019d.log", 0));
+		try (RandomAccessFile file = new RandomAccessFile(firstSegment, "rw")) {
+			file.seek(20);
+			file.write('x');
+		}
+
+		assertEquals("third", store.poll().getBody());
+		assertNull(store.poll());
+		store.close();
+	}
+
+	private int segmentCount() {
+		return this.queueFolder.list((dir, name) -> name.startsWith("segment-")).length;
+	}
+
+	private Message message(String id, String body) {
+		Message message = new Message();
+		message.setMessageId(id);
+		message.setReceiptHandle(id);
+		message.setBody(body);
+		return message;
+	}
+
+	private void removeDirectory(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files)
+				removeDirectory(file);
+		}
+		dir.delete();
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * @author <a href="mailto:sthallapalli@outlook.com">sthallapalli</a>
+ * @since 18-Oct-2026
+ */
+public class TimingWheelTest {
+
+	@Test
+	public void shouldExpireInBatchesAndSkipCancelled() throws InterruptedException {
+		TimingWheel timingWheel = new TimingWheel(5, 8);
+		BlockingQueue<List<Message>> batches = new LinkedBlockingQueue<>();
+		TimingWheel.Expiry expiry = batches::add;
+
+		long start = System.nanoTime();
+		timingWheel.schedule(message("first"), 50, expiry);
+		timingWheel.schedule(message("second"), 50, expiry);
+		TimingWheel.Timeout cancelled = timingWheel.schedule(message("cancelled"), 50, expiry);
+		assertTrue(cancelled.cancel());
+
+		// The schedules may straddle a tick, so they expire in one or two batches in order
+		List<String> expired = new ArrayList<>();
+		int batchCount = 0;
+		while (expired.size() < 2) {
+			List<Message> batch = batches.poll(5, TimeUnit.SECONDS);
+			assertTrue(batch != null && !batch.isEmpty());
+			batch.forEach(message -> expired.add(message.getBody()));
+			batchCount++;
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertTrue(batchCount <= 2);
+		assertEquals(Arrays.asList("first", "second"), expired);
+		assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void shouldWaitForRoundsBeyondOneRevolution() throws InterruptedException {
+		// One revolution is 40ms
+		TimingWheel timingWheel = new TimingWheel(5, 8);
+		List<String> expired = Collections.synchronizedList(new ArrayList<>());
+		TimingWheel.Expiry expiry = messages -> messages.forEach(message -> expired.add(message.getBody()));
+
+		long start = System.nanoTime();
+		TimingWheel.Timeout late = timingWheel.schedule(message("late"), 130, expiry);
+		timingWheel.schedule(message("early"), 10, expiry);
+
+		while (expired.size() < 2 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5))
+			Thread.sleep(5);
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(130));
+		assertEquals("early", expired.get(0));
+		assertEquals("late", expired.get(1));
+		assertFalse(late.cancel());
+	}
+
+	private Message message(String body) {
+		Message message = new Message();
+		message.setMessageId(body);
+		message.setReceiptHandle(body);
+		message.setBody(body);
+		return message;
+	}
+}
@@ -1,17 +1,23 @@
 package com.example.queue.service;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -20,15 +26,30 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.sqs.AmazonSQSAsyncClient;
 import com.amazonaws.services.sqs.AmazonSQSClient;
+import com.amazonaws.services.sqs.model.CreateQueueRequest;
 import com.amazonaws.services.sqs.model.CreateQueueResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
 import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
 import com.amazonaws.services.sqs.model.ListQueuesResult;
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.amazonaws.services.sqs.model.SendMessageResult;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
 import com.example.queue.service.QueueService;
+import com.example.queue.service.impl.AmazonSQSAsyncService;
 import com.example.queue.service.impl.AmazonSQSService;
 
 /**
@@ -56,6 +77,21 @@ public class AmazonSQSServiceTest {
 		verify(this.amazonSQSClient, times(1)).sendMessage(anyString(), anyString());
 	}
 
+	@Test
+	public void testSendMessageToGroup() {
+		try {
+			this.amazonQueueService.sendMessage("queue1", "Message Body", null);
+			Assert.fail("Expected the group id to be checked.");
+		} catch (NullPointerException expected) {
+		}
+		try {
+			this.amazonQueueService.sendMessage("queue1", "Message Body", "group1");
+			Assert.fail("Expected FIFO queues to be unsupported.");
+		} catch (UnsupportedOperationException expected) {
+		}
+		verifyZeroInteractions(this.amazonSQSClient);
+	}
+
 	@Test
 	public void testRecieveMessage() {
 
@@ -85,6 +121,62 @@ public class AmazonSQSServiceTest {
 
 
 	
+	@Test
+	public void testReceiveWithVisibilityTimeoutFromEmptyQueue() {
+		when(this.amazonSQSClient.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(new ReceiveMessageResult());
+		Assert.assertNull(this.amazonQueueService.recieveMessage("queue1", 1500));
+		verify(this.amazonSQSClient, times(1)).receiveMessage(
+				new ReceiveMessageRequest().withQueueUrl("queue1").withMaxNumberOfMessages(1).withVisibilityTimeout(2));
+	}
+
+	@Test
+	public void testLongPoll() {
+		when(this.amazonSQSClient.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(new ReceiveMessageResult());
+		Assert.assertNull(this.amazonQueueService.recieveMessage("queue1", 1, TimeUnit.MINUTES));
+		verify(this.amazonSQSClient, times(1)).receiveMessage(
+				new ReceiveMessageRequest().withQueueUrl("queue1").withMaxNumberOfMessages(1).withWaitTimeSeconds(20));
+	}
+
+	@Test
+	public void testChangeMessageVisibility() {
+		this.amazonQueueService.changeMessageVisibility("queue1", "handle", 1500);
+		verify(this.amazonSQSClient, times(1)).changeMessageVisibility("queue1", "handle", 2);
+	}
+
+	@Test
+	public void testSendMessageBatch() {
+		SendMessageBatchResult result = new SendMessageBatchResult();
+		when(this.amazonSQSClient.sendMessageBatch(anyString(), anyListOf(SendMessageBatchRequestEntry.class)))
+				.thenReturn(result);
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+			bodies.add("body" + i);
+		this.amazonQueueService.sendMessageBatch("queue1", bodies);
+		// At most 10 entries per request
+		verify(this.amazonSQSClient, times(3)).sendMessageBatch(anyString(),
+				anyListOf(SendMessageBatchRequestEntry.class));
+	}
+
+	@Test
+	public void testReceiveMessages() {
+		when(this.amazonSQSClient.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(new ReceiveMessageResult());
+		this.amazonQueueService.receiveMessages("queue1", 25);
+		verify(this.amazonSQSClient, times(1)).receiveMessage(
+				new ReceiveMessageRequest().withQueueUrl("queue1").withMaxNumberOfMessages(10));
+	}
+
+	@Test
+	public void testDeleteMessageBatch() {
+		DeleteMessageBatchResult result = new DeleteMessageBatchResult();
+		result.getSuccessful().add(new DeleteMessageBatchResultEntry().withId("0"));
+		when(this.amazonSQSClient.deleteMessageBatch(anyString(), anyListOf(DeleteMessageBatchRequestEntry.class)))
+				.thenReturn(result);
+		int deleted = this.amazonQueueService.deleteMessageBatch("queue1", Arrays.asList("handle1", "handle2"));
+		verify(this.amazonSQSClient, times(1)).deleteMessageBatch(anyString(),
+				anyListOf(DeleteMessageBatchRequestEntry.class));
+		Assert.assertEquals(1, deleted);
+	}
+
 	//Additional API's
 	
 	@Test
@@ -97,6 +189,31 @@ public class AmazonSQSServiceTest {
 		Assert.assertEquals(queue, "queue1");
 	}
 
+	@Test
+	public void testCreateQueueWithRedrivePolicy() {
+		GetQueueAttributesResult attributes = new GetQueueAttributesResult();
+		attributes.addAttributesEntry("QueueArn", "arn:aws:sqs:us-east-1:123456789012:deadLetters");
+		when(this.amazonSQSClient.getQueueAttributes("deadLetters", Arrays.asList("QueueArn"))).thenReturn(attributes);
+		when(this.amazonSQSClient.createQueue(any(CreateQueueRequest.class)))
+				.thenReturn(new CreateQueueResult().withQueueUrl("queue1"));
+
+		String queue = this.amazonQueueService.createQueue("queue1", null,
+				QueueOptions.unbounded().withRedrivePolicy(new RedrivePolicy("deadLetters", 5)));
+		Assert.assertEquals("queue1", queue);
+		verify(this.amazonSQSClient, times(1)).createQueue(new CreateQueueRequest("queue1").addAttributesEntry(
+				"RedrivePolicy",
+				"{\"maxReceiveCount\":\"5\",\"deadLetterTargetArn\":\"arn:aws:sqs:us-east-1:123456789012:deadLetters\"}"));
+	}
+
+	@Test
+	public void testSendDelayedMessage() {
+		when(this.amazonSQSClient.sendMessage(any(SendMessageRequest.class))).thenReturn(new SendMessageResult());
+		this.amazonQueueService.sendMessage("queue1", "body", 1500);
+		// Rounded up to whole seconds
+		verify(this.amazonSQSClient, times(1))
+				.sendMessage(new SendMessageRequest("queue1", "body").withDelaySeconds(2));
+	}
+
 	@Test
 	public void testMessageCount() {
 		GetQueueAttributesResult result = new GetQueueAttributesResult();
@@ -107,6 +224,43 @@ public class AmazonSQSServiceTest {
 		Assert.assertEquals(count, 10);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAsyncService() throws Exception {
+		AmazonSQSAsyncClient asyncClient = mock(AmazonSQSAsyncClient.class);
+		AsyncQueueService asyncService = new AmazonSQSAsyncService(asyncClient);
+
+		Message message = new Message();
+		message.setBody("Message Body");
+		message.setReceiptHandle("handle");
+		// The client answers on its own thread through the handler
+		doAnswer(invocation -> {
+			ReceiveMessageRequest request = (ReceiveMessageRequest) invocation.getArguments()[0];
+			((AsyncHandler<ReceiveMessageRequest, ReceiveMessageResult>) invocation.getArguments()[1])
+					.onSuccess(request, new ReceiveMessageResult().withMessages(message));
+			return null;
+		}).when(asyncClient).receiveMessageAsync(any(ReceiveMessageRequest.class), any(AsyncHandler.class));
+		doAnswer(invocation -> {
+			((AsyncHandler<DeleteMessageRequest, Void>) invocation.getArguments()[1])
+					.onError(new AmazonServiceException("Receipt handle expired."));
+			return null;
+		}).when(asyncClient).deleteMessageAsync(any(DeleteMessageRequest.class), any(AsyncHandler.class));
+
+		Message received = asyncService.receiveMessage("queue1", 30, TimeUnit.SECONDS).get();
+		Assert.assertEquals("Message Body", received.getBody());
+		verify(asyncClient, times(1)).receiveMessageAsync(
+				eq(new ReceiveMessageRequest("queue1").withMaxNumberOfMessages(1).withWaitTimeSeconds(20)),
+				any(AsyncHandler.class));
+
+		CompletableFuture<Boolean> deleted = asyncService.deleteMessage("queue1", received.getReceiptHandle());
+		Assert.assertTrue(deleted.isCompletedExceptionally());
+
+		// A client refusing the request right away fails the future too
+		doThrow(new AmazonClientException("Client is shut down.")).when(asyncClient)
+				.sendMessageAsync(any(SendMessageRequest.class), any(AsyncHandler.class));
+		Assert.assertTrue(asyncService.sendMessage("queue1", "Message Body").isCompletedExceptionally());
+	}
+
 	@Test
 	public void deleteQueue() {
 		doNothing().when(this.amazonSQSClient).deleteQueue(anyString());
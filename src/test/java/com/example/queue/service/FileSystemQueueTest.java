@@ -12,13 +12,19 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,9 +33,15 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.OverLimitException;
 import com.example.queue.FileQueue;
 import com.example.queue.MessageQueue;
+import com.example.queue.PlacementPolicy;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
+import com.example.queue.StorageMode;
 import com.example.queue.service.QueueService;
+import com.example.queue.service.impl.FileSystemAsyncQueueService;
 import com.example.queue.service.impl.FileSystemQueueService;
 import com.example.queue.service.impl.MessageQueueServiceHelper;
 
@@ -45,7 +57,7 @@ public class FileSystemQueueTest {
 	private ExecutorService executorService;
 
 	@Mock
-	private MessageQueueServiceHelper<FileQueue<Message>> queueServiceHelper;
+	private MessageQueueServiceHelper<BlockingDeque<Message>> queueServiceHelper;
 	
 	@Before
 	public void init() {
@@ -55,8 +67,8 @@ public class FileSystemQueueTest {
 		removeDirectory(queue);
 		executorService = Executors.newFixedThreadPool(10);
 		ScheduledExecutorService mockScheduledService = mock(ScheduledExecutorService.class);
-		ConcurrentMap<String, MessageQueue<FileQueue<Message>>> queues = mock(ConcurrentHashMap.class);
-		MessageQueue<FileQueue<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), mockScheduledService);
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = mock(ConcurrentHashMap.class);
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), mockScheduledService);
 		messageQueue.withVisibilityTimeout(200);
 		queues.put(anyString(), eq(messageQueue));
 
@@ -157,10 +169,10 @@ public class FileSystemQueueTest {
 	@Test
 	public void testVisibilityTimeout() throws InterruptedException {
 
-		ConcurrentMap<String, MessageQueue<FileQueue<Message>>> queues = new ConcurrentHashMap<>();
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
 
-		MessageQueue<FileQueue<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), scheduler);
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), scheduler);
 		messageQueue.withVisibilityTimeout(100);
 		queues.put("queue1", messageQueue);
 
@@ -179,6 +191,331 @@ public class FileSystemQueueTest {
 		scheduler.shutdown();
 	}
 
+	@Test
+	public void shouldCreateQueueWithoutExecutor() throws InterruptedException {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		QueueService service = new FileSystemQueueService(queues);
+		service.createQueue("queue1", null);
+		queues.get("queue1").withVisibilityTimeout(50);
+
+		service.sendMessage("queue1", "body");
+		assertEquals("body", service.recieveMessage("queue1").getBody());
+		Assert.assertNull(service.recieveMessage("queue1").getBody());
+		// Requeued on the worker threads of the timing wheel
+		Thread.sleep(150);
+		assertEquals("body", service.recieveMessage("queue1").getBody());
+	}
+
+	@Test
+	public void shouldDeliverOnceWithTwoQueuesOnOneFolder() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> firstQueues = new ConcurrentHashMap<>();
+		QueueService first = new FileSystemQueueService(firstQueues, StorageMode.SEGMENTED_LOG);
+		first.createQueue("queue1", scheduler);
+		firstQueues.get("queue1").withVisibilityTimeout(100);
+		first.sendMessage("queue1", "deleted");
+		Message deleted = first.recieveMessage("queue1");
+		first.sendMessage("queue1", "delayed", 100);
+
+		// Recovers the lease and the delayed message, its timeouts fire as well
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> secondQueues = new ConcurrentHashMap<>();
+		QueueService second = new FileSystemQueueService(secondQueues, StorageMode.SEGMENTED_LOG);
+		second.createQueue("queue1", scheduler);
+		assertTrue(first.deleteMessage("queue1", deleted.getReceiptHandle()));
+
+		Thread.sleep(300);
+		assertEquals(1, first.getMessageCount("queue1"));
+		assertEquals("delayed", second.recieveMessage("queue1").getBody());
+		Assert.assertNull(first.recieveMessage("queue1").getBody());
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldKeepQueueUsableAfterClosingSubscription() throws InterruptedException {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(queues, StorageMode.SEGMENTED_LOG);
+		service.createQueue("queue1", scheduler);
+		for (int i = 0; i < 500; i++)
+			service.sendMessage("queue1", "message" + i);
+
+		CountDownLatch started = new CountDownLatch(20);
+		Subscription subscription = service.subscribe("queue1", message -> started.countDown(),
+				SubscriptionOptions.defaults().withConcurrency(4).withWaitTime(200, TimeUnit.MILLISECONDS));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// Closed while the receiver leases messages from the files
+		subscription.close();
+		Assert.assertFalse(subscription.isRunning());
+		assertEquals(0, subscription.inFlight());
+
+		Message message = service.recieveMessage("queue1");
+		Assert.assertNotNull(message.getBody());
+		assertTrue(service.deleteMessage("queue1", message.getReceiptHandle()));
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void testMessageCount() {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		queues.put("queue1", new MessageQueue<>(new FileQueue<>("queue1", StorageMode.SEGMENTED_LOG), scheduler));
+
+		QueueService service = new FileSystemQueueService(queues);
+		service.sendMessage("queue1", "first");
+		service.sendMessage("queue1", "second");
+		assertEquals(2, service.getMessageCount("queue1"));
+
+		service.recieveMessage("queue1");
+		assertEquals(1, service.getMessageCount("queue1"));
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldRecoverInFlightMessagesAfterRestart() throws InterruptedException {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(queues, StorageMode.SEGMENTED_LOG);
+		service.createQueue("queue1", scheduler);
+		service.sendMessage("queue1", "expired");
+		service.sendMessage("queue1", "leased");
+		service.sendMessage("queue1", "deleted");
+
+		queues.get("queue1").withVisibilityTimeout(100);
+		assertEquals("expired", service.recieveMessage("queue1").getBody());
+		queues.get("queue1").withVisibilityTimeout(60000);
+		assertEquals("leased", service.recieveMessage("queue1").getBody());
+		Message deleted = service.recieveMessage("queue1");
+		assertTrue(service.deleteMessage("queue1", deleted.getReceiptHandle()));
+
+		// Process dies before any visibility timeout elapsed
+		scheduler.shutdownNow();
+		Thread.sleep(150);
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> restartedQueues = new ConcurrentHashMap<>();
+		ScheduledExecutorService restartedScheduler = Executors.newScheduledThreadPool(1);
+		QueueService restarted = new FileSystemQueueService(restartedQueues, StorageMode.SEGMENTED_LOG);
+		restarted.createQueue("queue1", restartedScheduler);
+		assertEquals(1, restartedQueues.get("queue1").inFlightSize());
+		assertEquals("expired", restarted.recieveMessage("queue1").getBody());
+		Assert.assertNull(restarted.recieveMessage("queue1").getBody());
+		restartedScheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldServeAsyncCallsOnTheIoExecutor() throws Exception {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		ExecutorService ioExecutor = Executors.newFixedThreadPool(2);
+		FileSystemQueueService service = new FileSystemQueueService(new ConcurrentHashMap<>());
+		service.createQueue("async-queue", scheduler);
+		AsyncQueueService asyncService = new FileSystemAsyncQueueService(service, ioExecutor);
+
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			bodies.add("body" + i);
+		// Receive and delete chained on the send, nothing waits in between
+		int deleted = asyncService.sendMessageBatch("async-queue", bodies)
+				.thenCompose(sent -> asyncService.receiveMessages("async-queue", 15))
+				.thenCompose(messages -> {
+					List<String> receiptHandles = new ArrayList<>();
+					for (Message message : messages)
+						receiptHandles.add(message.getReceiptHandle());
+					return asyncService.deleteMessageBatch("async-queue", receiptHandles);
+				}).get(5, TimeUnit.SECONDS);
+		assertEquals(15, deleted);
+		assertEquals(5, asyncService.getMessageCount("async-queue").get(5, TimeUnit.SECONDS).intValue());
+
+		Message message = asyncService.receiveMessage("async-queue", 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+		assertEquals("body15", message.getBody());
+		assertTrue(asyncService.deleteMessage("async-queue", message.getReceiptHandle()).get(5, TimeUnit.SECONDS));
+		try {
+			asyncService.deleteMessage("async-queue", null);
+			Assert.fail();
+		} catch (NullPointerException expected) {
+		}
+		ioExecutor.shutdown();
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldKeepLongPollsOffTheIoExecutor() throws Exception {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+		FileSystemQueueService service = new FileSystemQueueService(new ConcurrentHashMap<>());
+		service.createQueue("async-queue", scheduler);
+		AsyncQueueService asyncService = new FileSystemAsyncQueueService(service, ioExecutor);
+
+		// Waits on a thread of its own, the only I/O thread stays free for the send
+		CompletableFuture<Message> polled = asyncService.receiveMessage("async-queue", 5, TimeUnit.SECONDS);
+		Thread.sleep(100);
+		Assert.assertFalse(polled.isDone());
+		asyncService.sendMessage("async-queue", "body").get(1, TimeUnit.SECONDS);
+		assertEquals("body", polled.get(1, TimeUnit.SECONDS).getBody());
+		ioExecutor.shutdown();
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldSpreadQueuesOverRootDirectories() {
+		File[] volumes = { new File("/var/queues/volume0"), new File("/var/queues/volume1") };
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		FileSystemQueueService service = new FileSystemQueueService(new ConcurrentHashMap<>(), StorageMode.SEGMENTED_LOG);
+		service.withRootDirectories(PlacementPolicy.HASH, volumes);
+		for (int i = 0; i < 8; i++) {
+			String queueUrl = "queue" + i;
+			service.createQueue(queueUrl, scheduler);
+			service.sendMessage(queueUrl, "body" + i);
+			File expected = volumes[Math.floorMod(queueUrl.hashCode(), volumes.length)];
+			assertTrue(new File(expected, queueUrl).isDirectory());
+		}
+
+		// A restart with another policy still finds the queues where they are
+		FileSystemQueueService restarted = new FileSystemQueueService(new ConcurrentHashMap<>(), StorageMode.SEGMENTED_LOG);
+		restarted.withRootDirectories(PlacementPolicy.LEAST_USED, volumes);
+		for (int i = 0; i < 8; i++) {
+			restarted.createQueue("queue" + i, scheduler);
+			assertEquals("body" + i, restarted.recieveMessage("queue" + i).getBody());
+		}
+		assertEquals(8, volumes[0].list().length + volumes[1].list().length);
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldSpreadPartitionsAndRecoverTheirLeases() throws Exception {
+		File[] volumes = { new File("/var/queues/volume0"), new File("/var/queues/volume1") };
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		FileSystemQueueService service = new FileSystemQueueService(queues, StorageMode.SEGMENTED_LOG);
+		service.withRootDirectories(PlacementPolicy.HASH, volumes);
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withPartitions(4));
+		for (int i = 0; i < 4; i++) {
+			String partition = "queue1" + File.separator + "partition-" + i;
+			assertTrue(new File(volumes[Math.floorMod(partition.hashCode(), volumes.length)], partition).isDirectory());
+		}
+
+		// Producers on several threads fill several partitions, a consumer steals from all of them
+		List<Future<?>> sent = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			String body = "body" + i;
+			sent.add(this.executorService.submit(() -> service.sendMessage("queue1", body)));
+		}
+		for (Future<?> future : sent)
+			future.get(5, TimeUnit.SECONDS);
+		assertEquals(40, service.getMessageCount("queue1"));
+
+		queues.get("queue1").withVisibilityTimeout(60000);
+		Set<String> received = new HashSet<>();
+		List<String> receiptHandles = new ArrayList<>();
+		for (Message message : service.receiveMessages("queue1", 40)) {
+			assertTrue(received.add(message.getBody()));
+			receiptHandles.add(message.getReceiptHandle());
+		}
+		assertEquals(40, received.size());
+		// Each delete goes to the partition holding the lease
+		assertEquals(39, service.deleteMessageBatch("queue1", receiptHandles.subList(1, 40)));
+		scheduler.shutdownNow();
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> restartedQueues = new ConcurrentHashMap<>();
+		ScheduledExecutorService restartedScheduler = Executors.newScheduledThreadPool(1);
+		FileSystemQueueService restarted = new FileSystemQueueService(restartedQueues, StorageMode.SEGMENTED_LOG);
+		restarted.withRootDirectories(PlacementPolicy.HASH, volumes);
+		restarted.createQueue("queue1", restartedScheduler, QueueOptions.unbounded().withPartitions(4));
+		assertEquals(1, restartedQueues.get("queue1").inFlightSize());
+		assertTrue(restarted.deleteMessage("queue1", receiptHandles.get(0)));
+		assertEquals(0, restarted.getMessageCount("queue1"));
+		restartedScheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldWakeUpLongPollingConsumer() throws Exception {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(queues, StorageMode.SEGMENTED_LOG);
+		service.createQueue("queue1", scheduler);
+		Assert.assertNull(service.recieveMessage("queue1", 20, TimeUnit.MILLISECONDS).getBody());
+
+		Future<Message> received = executorService.submit(() -> service.recieveMessage("queue1", 10, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		service.sendMessage("queue1", "This is the message");
+		Message message = received.get(1, TimeUnit.SECONDS);
+		assertEquals("This is the message", message.getBody());
+		assertTrue(service.deleteMessage("queue1", message.getReceiptHandle()));
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldRejectMessagesOverCapacity() {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(new ConcurrentHashMap<>(), StorageMode.SEGMENTED_LOG);
+		service.createQueue("queue1", scheduler, QueueOptions.reject(2));
+		assertEquals(2, service.getRemainingCapacity("queue1"));
+		service.sendMessage("queue1", "first");
+		service.sendMessage("queue1", "second");
+		try {
+			service.sendMessage("queue1", "third");
+			Assert.fail("Expected the queue to be full.");
+		} catch (OverLimitException expected) {
+		}
+
+		// In-flight messages do not count against the capacity
+		assertEquals("first", service.recieveMessage("queue1").getBody());
+		assertEquals(1, service.getRemainingCapacity("queue1"));
+		service.sendMessage("queue1", "third");
+		assertEquals(2, service.getMessageCount("queue1"));
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldMovePoisonMessagesToDeadLetterQueue() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(new ConcurrentHashMap<>(), StorageMode.SEGMENTED_LOG);
+		service.createQueue("deadLetters", scheduler);
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withRedrivePolicy(new RedrivePolicy("deadLetters", 2)));
+		service.sendMessage("queue1", "poison");
+
+		assertEquals("poison", service.recieveMessage("queue1", 30).getBody());
+		Thread.sleep(100);
+		// The count came back from the redelivery log
+		Message message = service.recieveMessage("queue1", 30);
+		assertEquals("2", message.getAttributes().get("ApproximateReceiveCount"));
+
+		Thread.sleep(100);
+		assertEquals(0, service.getMessageCount("queue1"));
+		assertEquals("poison", service.recieveMessage("deadLetters").getBody());
+
+		// The lease was released, a restart does not bring the message back
+		FileSystemQueueService restarted = new FileSystemQueueService(new ConcurrentHashMap<>(), StorageMode.SEGMENTED_LOG);
+		restarted.createQueue("queue1", scheduler);
+		assertEquals(0, restarted.getMessageCount("queue1"));
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void shouldSendReceiveAndDeleteInBatches() {
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+		QueueService service = new FileSystemQueueService(queues, StorageMode.SEGMENTED_LOG);
+		service.createQueue("queue1", scheduler);
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+			bodies.add("body" + i);
+		service.sendMessageBatch("queue1", bodies);
+		assertEquals(25, service.getMessageCount("queue1"));
+
+		List<Message> messages = service.receiveMessages("queue1", 10);
+		assertEquals(10, messages.size());
+		List<String> receiptHandles = new ArrayList<>();
+		for (int i = 0; i < messages.size(); i++) {
+			assertEquals("body" + i, messages.get(i).getBody());
+			receiptHandles.add(messages.get(i).getReceiptHandle());
+		}
+		assertEquals(10, service.deleteMessageBatch("queue1", receiptHandles));
+		assertEquals(0, service.deleteMessageBatch("queue1", receiptHandles));
+		assertEquals(15, service.getMessageCount("queue1"));
+		assertEquals("body10", service.recieveMessage("queue1").getBody());
+		scheduler.shutdownNow();
+	}
+
 	private void removeDirectory(File dir) {
 	    if (dir.isDirectory()) {
 	        File[] files = dir.listFiles();
@@ -9,26 +9,45 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.reactivestreams.Subscriber;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.OverLimitException;
+import com.example.queue.DeduplicationCache;
 import com.example.queue.MessageQueue;
+import com.example.queue.QueueOptions;
+import com.example.queue.RedrivePolicy;
 import com.example.queue.service.QueueService;
+import com.example.queue.service.impl.InMemoryAsyncQueueService;
 import com.example.queue.service.impl.InMemoryQueueService;
 import com.example.queue.service.impl.MessageQueueServiceHelper;
 
@@ -44,7 +63,7 @@ public class InMemoryQueueServiceTest {
 	private ExecutorService executorService;
 
 	@Mock
-	private MessageQueueServiceHelper<LinkedBlockingDeque<Message>> queueServiceHelper;
+	private MessageQueueServiceHelper<BlockingDeque<Message>> queueServiceHelper;
 
 	@Before
 	public void init() {
@@ -52,8 +71,8 @@ public class InMemoryQueueServiceTest {
 
 		executorService = Executors.newFixedThreadPool(10);
 		ScheduledExecutorService mockScheduledService = mock(ScheduledExecutorService.class);
-		ConcurrentMap<String, MessageQueue<LinkedBlockingDeque<Message>>> queues = mock(ConcurrentHashMap.class);
-		MessageQueue<LinkedBlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(),
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = mock(ConcurrentHashMap.class);
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(),
 				mockScheduledService);
 		messageQueue.withVisibilityTimeout(200);
 		queues.put(anyString(), eq(messageQueue));
@@ -156,10 +175,10 @@ public class InMemoryQueueServiceTest {
 	@Test
 	public void testVisibilityTimeout() throws InterruptedException {
 
-		ConcurrentMap<String, MessageQueue<LinkedBlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
 
-		MessageQueue<LinkedBlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(),
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(),
 				scheduler);
 		messageQueue.withVisibilityTimeout(100);
 		queues.put("queue1", messageQueue);
@@ -178,4 +197,574 @@ public class InMemoryQueueServiceTest {
 		Assert.assertNotNull(msg);
 		scheduler.shutdown();
 	}
+
+	@Test
+	public void testChangeMessageVisibility() throws InterruptedException {
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		queues.put("queue1", new MessageQueue<>(new LinkedBlockingDeque<>(), scheduler));
+
+		QueueService service = new InMemoryQueueService(queues);
+		service.sendMessage("queue1", "This is the message");
+		Message msg = service.recieveMessage("queue1", 50);
+
+		// Extended before the short timeout elapsed, the message stays hidden.
+		Assert.assertTrue(service.changeMessageVisibility("queue1", msg.getReceiptHandle(), 300));
+		Thread.sleep(100);
+		Assert.assertNull(service.recieveMessage("queue1"));
+
+		// Zero makes it visible again right away.
+		Assert.assertTrue(service.changeMessageVisibility("queue1", msg.getReceiptHandle(), 0));
+		Thread.sleep(50);
+		msg = service.recieveMessage("queue1", 100);
+		Assert.assertEquals("This is the message", msg.getBody());
+		Assert.assertTrue(service.deleteMessage("queue1", msg.getReceiptHandle()));
+		Assert.assertFalse(service.changeMessageVisibility("queue1", msg.getReceiptHandle(), 100));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testLongPoll() throws Exception {
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		queues.put("queue1", new MessageQueue<>(new LinkedBlockingDeque<>(), scheduler));
+		QueueService service = new InMemoryQueueService(queues);
+
+		// Nothing arrives, the consumer returns once the wait time elapsed.
+		long start = System.nanoTime();
+		Assert.assertNull(service.recieveMessage("queue1", 50, TimeUnit.MILLISECONDS));
+		Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		// The parked consumer is woken up by the push.
+		Future<Message> received = executorService.submit(() -> service.recieveMessage("queue1", 10, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		service.sendMessage("queue1", "This is the message");
+		Assert.assertEquals("This is the message", received.get(1, TimeUnit.SECONDS).getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testRingBackedQueue() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		InMemoryQueueService service = new InMemoryQueueService(new ConcurrentHashMap<>(), 2);
+		service.createQueue("queue1", scheduler);
+		service.sendMessage("queue1", "first");
+		service.sendMessage("queue1", "second");
+		try {
+			service.sendMessage("queue1", "third");
+			Assert.fail("Expected the ring to be full.");
+		} catch (IllegalStateException expected) {
+		}
+
+		// The expired message goes back to the head of the full ring
+		Assert.assertEquals("first", service.recieveMessage("queue1", 50).getBody());
+		service.sendMessage("queue1", "third");
+		Thread.sleep(150);
+		Assert.assertEquals("first", service.recieveMessage("queue1").getBody());
+		Assert.assertEquals("second", service.recieveMessage("queue1").getBody());
+		Assert.assertEquals("third", service.recieveMessage("queue1").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testOverflowPolicies() throws Exception {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("reject", scheduler, QueueOptions.reject(2));
+		service.createQueue("dropOldest", scheduler, QueueOptions.dropOldest(2));
+		service.createQueue("block", scheduler, QueueOptions.block(2, 50, TimeUnit.MILLISECONDS));
+		for (String queueUrl : Arrays.asList("reject", "dropOldest", "block")) {
+			service.sendMessage(queueUrl, "first");
+			service.sendMessage(queueUrl, "second");
+			Assert.assertEquals(0, service.getRemainingCapacity(queueUrl));
+		}
+
+		try {
+			service.sendMessage("reject", "third");
+			Assert.fail("Expected the queue to be full.");
+		} catch (OverLimitException expected) {
+		}
+		service.sendMessage("dropOldest", "third");
+		Assert.assertEquals("second", service.recieveMessage("dropOldest").getBody());
+
+		// Times out, then gets in once a consumer makes room
+		try {
+			service.sendMessage("block", "third");
+			Assert.fail("Expected the queue to be full.");
+		} catch (OverLimitException expected) {
+		}
+		service.createQueue("blockLonger", scheduler, QueueOptions.block(1, 10, TimeUnit.SECONDS));
+		service.sendMessage("blockLonger", "first");
+		Future<?> sent = executorService.submit(() -> service.sendMessage("blockLonger", "second"));
+		Thread.sleep(50);
+		Assert.assertFalse(sent.isDone());
+		Assert.assertEquals("first", service.recieveMessage("blockLonger").getBody());
+		sent.get(1, TimeUnit.SECONDS);
+		Assert.assertEquals("second", service.recieveMessage("blockLonger").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testSpillToDisk() throws IOException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		File spillDirectory = Files.createTempDirectory("spill").toFile();
+		service.createQueue("queue1", scheduler, QueueOptions.spillToDisk(2, spillDirectory));
+		for (int i = 0; i < 5; i++)
+			service.sendMessage("queue1", "message" + i);
+		Assert.assertEquals(5, service.getMessageCount("queue1"));
+		Assert.assertEquals(0, service.getRemainingCapacity("queue1"));
+		Assert.assertTrue(new File(spillDirectory, "queue1").isDirectory());
+
+		// Spilled messages move back in order as the consumer makes room
+		for (int i = 0; i < 5; i++)
+			Assert.assertEquals("message" + i, service.recieveMessage("queue1").getBody());
+		Assert.assertNull(service.recieveMessage("queue1"));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testOffHeapStorage() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		InMemoryQueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.withOffHeapStorage(true);
+		service.createQueue("queue1", scheduler);
+		service.sendMessageBatch("queue1", Arrays.asList("first", "second"));
+
+		Message message = service.recieveMessage("queue1", 50);
+		Assert.assertEquals("first", message.getBody());
+		// Expired, materialized again from the slab
+		Thread.sleep(150);
+		Message redelivered = service.recieveMessage("queue1");
+		Assert.assertEquals(message.getMessageId(), redelivered.getMessageId());
+		Assert.assertEquals("first", redelivered.getBody());
+		Assert.assertTrue(service.deleteMessage("queue1", redelivered.getReceiptHandle()));
+		Assert.assertEquals("second", service.recieveMessage("queue1").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testDeadLetterQueue() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("deadLetters", scheduler);
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withRedrivePolicy(new RedrivePolicy("deadLetters", 2)));
+		service.sendMessage("queue1", "poison");
+		service.sendMessage("queue1", "healthy");
+
+		Message message = service.recieveMessage("queue1", 30);
+		Assert.assertEquals("1", message.getAttributes().get("ApproximateReceiveCount"));
+		Thread.sleep(100);
+		message = service.recieveMessage("queue1", 30);
+		Assert.assertEquals("poison", message.getBody());
+		Assert.assertEquals("2", message.getAttributes().get("ApproximateReceiveCount"));
+
+		// Received twice, it moves to the dead-letter queue instead of the head of the queue
+		Thread.sleep(100);
+		Assert.assertEquals("healthy", service.recieveMessage("queue1").getBody());
+		Assert.assertEquals(1, service.getMessageCount("deadLetters"));
+		Assert.assertEquals("poison", service.recieveMessage("deadLetters").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testDelayQueue() throws InterruptedException {
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(queues);
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withDeliveryDelay(100, TimeUnit.MILLISECONDS));
+		service.sendMessageBatch("queue1", Arrays.asList("first", "second"));
+		// Visible right away, whatever the delay of the queue
+		service.sendMessage("queue1", "urgent", 0);
+		Assert.assertEquals(2, queues.get("queue1").delayedSize());
+		Assert.assertEquals(1, service.getMessageCount("queue1"));
+		Assert.assertEquals("urgent", service.recieveMessage("queue1").getBody());
+		Assert.assertNull(service.recieveMessage("queue1"));
+
+		// Delayed one by one, the second one may come due a tick after the first
+		Message message = service.recieveMessage("queue1", 1, TimeUnit.SECONDS);
+		Assert.assertEquals("first", message.getBody());
+		Assert.assertEquals("second", service.recieveMessage("queue1", 1, TimeUnit.SECONDS).getBody());
+		Assert.assertEquals(0, queues.get("queue1").delayedSize());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testFifoQueue() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withFifo(true));
+		for (int i = 0; i < 3; i++) {
+			service.sendMessage("queue1", "order1-step" + i, "order1");
+			service.sendMessage("queue1", "order2-step" + i, "order2");
+		}
+
+		// One message of each group in flight at a time
+		List<Message> messages = service.receiveMessages("queue1", 10);
+		Assert.assertEquals(2, messages.size());
+		Assert.assertEquals("order1-step0", messages.get(0).getBody());
+		Assert.assertEquals("order2-step0", messages.get(1).getBody());
+		Assert.assertNull(service.recieveMessage("queue1"));
+
+		Assert.assertTrue(service.deleteMessage("queue1", messages.get(0).getReceiptHandle()));
+		Message message = service.recieveMessage("queue1", 30);
+		Assert.assertEquals("order1-step1", message.getBody());
+
+		// Expired, it comes back ahead of the rest of its group
+		Thread.sleep(100);
+		Assert.assertEquals("order1-step1", service.recieveMessage("queue1").getBody());
+		// Both groups are locked again
+		Assert.assertNull(service.recieveMessage("queue1"));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testFifoQueueDropOldest() {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler, QueueOptions.dropOldest(2).withFifo(true));
+		service.sendMessage("queue1", "order1-step0", "order1");
+		service.sendMessage("queue1", "order1-step1", "order1");
+		Message message = service.recieveMessage("queue1");
+		Assert.assertEquals("order1-step0", message.getBody());
+		service.sendMessage("queue1", "order1-step2", "order1");
+
+		// The only group is in flight, nothing to drop
+		try {
+			service.sendMessage("queue1", "order1-step3", "order1");
+			Assert.fail("Expected the queue to be full.");
+		} catch (OverLimitException expected) {
+		}
+		// Once the group is ready again its oldest message makes room
+		Assert.assertTrue(service.deleteMessage("queue1", message.getReceiptHandle()));
+		service.sendMessage("queue1", "order1-step3", "order1");
+		Assert.assertEquals("order1-step2", service.recieveMessage("queue1").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testPartitionedFifoQueueCapacity() {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler, QueueOptions.reject(4).withFifo(true).withPartitions(2));
+		// One group may take the whole capacity of the queue
+		for (int i = 0; i < 4; i++)
+			service.sendMessage("queue1", "order1-step" + i, "order1");
+		try {
+			service.sendMessage("queue1", "order2-step0", "order2");
+			Assert.fail("Expected the queue to be full.");
+		} catch (OverLimitException expected) {
+		}
+		Assert.assertEquals(4, service.getMessageCount("queue1"));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testDeduplication() {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler, QueueOptions.unbounded().withDeduplication(5, TimeUnit.MINUTES, true));
+
+		// A retry after a timeout is dropped, by id or by content
+		service.sendMessage("queue1", "order-1 created", null, "order-1");
+		service.sendMessage("queue1", "order-1 created again", null, "order-1");
+		service.sendMessage("queue1", "order-2 created");
+		service.sendMessageBatch("queue1", Arrays.asList("order-2 created", "order-3 created", "order-3 created"));
+		Assert.assertEquals(3, service.getMessageCount("queue1"));
+
+		Assert.assertEquals("order-1 created", service.recieveMessage("queue1").getBody());
+		Message message = service.recieveMessage("queue1");
+		Assert.assertEquals("order-2 created", message.getBody());
+		// The content hash is not written to the message
+		Assert.assertNull(message.getAttributes().get(DeduplicationCache.MESSAGE_DEDUPLICATION_ID));
+		Assert.assertEquals("order-3 created", service.recieveMessage("queue1").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testDeduplicationRetryAfterReject() {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler, QueueOptions.reject(1).withDeduplication(5, TimeUnit.MINUTES, false));
+
+		service.sendMessage("queue1", "order-1 created", null, "order-1");
+		try {
+			service.sendMessage("queue1", "order-2 created", null, "order-2");
+			Assert.fail("Expected the full queue to reject the message.");
+		} catch (OverLimitException e) {
+			// Rejected, its id is not remembered
+		}
+		try {
+			service.sendMessageBatch("queue1", Arrays.asList("order-3 created"));
+			Assert.fail("Expected the full queue to reject the batch.");
+		} catch (OverLimitException e) {
+			// Rejected as well
+		}
+
+		// The retries once there is room are not taken for duplicates
+		Message message = service.recieveMessage("queue1");
+		Assert.assertTrue(service.deleteMessage("queue1", message.getReceiptHandle()));
+		service.sendMessage("queue1", "order-2 created", null, "order-2");
+		Assert.assertEquals("order-2 created", service.recieveMessage("queue1").getBody());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testSubscribe() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler);
+		for (int i = 0; i < 50; i++)
+			service.sendMessage("queue1", "message" + i);
+
+		Set<String> failed = ConcurrentHashMap.newKeySet();
+		Set<String> handled = ConcurrentHashMap.newKeySet();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(51);
+		Subscription subscription = service.subscribe("queue1", message -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(5);
+				// Fails once, the message is released and handled again
+				if (message.getBody().equals("message7") && failed.add(message.getBody()))
+					throw new IllegalStateException("Not now.");
+				Assert.assertTrue(handled.add(message.getBody()));
+				done.countDown();
+			} finally {
+				running.decrementAndGet();
+			}
+		}, SubscriptionOptions.defaults().withConcurrency(4).withBatchSize(3).withWaitTime(100, TimeUnit.MILLISECONDS));
+
+		// Sent once the queue is drained, picked up by the long poll
+		Thread.sleep(500);
+		service.sendMessage("queue1", "late");
+		Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+		subscription.close();
+
+		Assert.assertEquals(51, handled.size());
+		Assert.assertEquals(Collections.singleton("message7"), failed);
+		Assert.assertTrue(maxRunning.get() <= 4);
+		Assert.assertEquals(0, subscription.inFlight());
+		Assert.assertFalse(subscription.isRunning());
+		Assert.assertEquals(0, service.getMessageCount("queue1"));
+		Assert.assertNull(service.recieveMessage("queue1"));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testPublisher() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler);
+		for (int i = 0; i < 10; i++)
+			service.sendMessage("queue1", "message" + i);
+
+		BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+		AtomicReference<QueuePublisher.QueueSubscription> subscription = new AtomicReference<>();
+		service.publisher("queue1", SubscriptionOptions.defaults().withConcurrency(5).withBatchSize(2)
+				.withWaitTime(50, TimeUnit.MILLISECONDS)).subscribe(new Subscriber<Message>() {
+					@Override
+					public void onSubscribe(org.reactivestreams.Subscription s) {
+						subscription.set((QueuePublisher.QueueSubscription) s);
+						s.request(3);
+					}
+
+					@Override
+					public void onNext(Message message) {
+						received.add(message);
+					}
+
+					@Override
+					public void onError(Throwable t) {
+						Assert.fail(t.toString());
+					}
+
+					@Override
+					public void onComplete() {
+						Assert.fail();
+					}
+				});
+
+		// Only the requested messages are received
+		List<Message> messages = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			messages.add(received.poll(1, TimeUnit.SECONDS));
+		Assert.assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(7, service.getMessageCount("queue1"));
+
+		// Then no more than five are left unacknowledged
+		subscription.get().request(10);
+		for (int i = 0; i < 2; i++)
+			messages.add(received.poll(1, TimeUnit.SECONDS));
+		Assert.assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(5, subscription.get().unacknowledged());
+		Assert.assertEquals("message4", messages.get(4).getBody());
+
+		Assert.assertEquals(4, subscription.get().acknowledge(messages.subList(0, 4)));
+		Assert.assertTrue(subscription.get().release(messages.get(4)));
+		Assert.assertFalse(subscription.get().acknowledge(messages.get(0)));
+		for (int i = 0; i < 5; i++)
+			Assert.assertNotNull(received.poll(1, TimeUnit.SECONDS));
+		Assert.assertEquals(5, subscription.get().unacknowledged());
+
+		// Cancelled, the last message is left in the queue
+		subscription.get().cancel();
+		Thread.sleep(100);
+		Assert.assertEquals(1, service.receiveMessages("queue1", 10).size());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testPublisherSignalsInvalidDemandFromTheReceiveLoop() throws InterruptedException {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		QueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler);
+
+		BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+		Thread caller = Thread.currentThread();
+		service.publisher("queue1", SubscriptionOptions.defaults()).subscribe(new Subscriber<Message>() {
+			@Override
+			public void onSubscribe(org.reactivestreams.Subscription s) {
+				s.request(0);
+				s.request(-1);
+			}
+
+			@Override
+			public void onNext(Message message) {
+				Assert.fail();
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				errors.add((Thread.currentThread() == caller ? "caller: " : "") + t.getMessage());
+			}
+
+			@Override
+			public void onComplete() {
+				Assert.fail();
+			}
+		});
+
+		// Signalled once, not on the thread calling request
+		Assert.assertEquals("Demand must be positive, was 0.", errors.poll(1, TimeUnit.SECONDS));
+		Assert.assertNull(errors.poll(100, TimeUnit.MILLISECONDS));
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testAsyncService() throws Exception {
+
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		InMemoryQueueService service = new InMemoryQueueService(new ConcurrentHashMap<>());
+		service.createQueue("queue1", scheduler);
+		AsyncQueueService asyncService = new InMemoryAsyncQueueService(service, executorService);
+
+		// Completed by the calling thread
+		CompletableFuture<Void> sent = asyncService.sendMessage("queue1", "first");
+		Assert.assertTrue(sent.isDone());
+		CompletableFuture<Message> received = asyncService.receiveMessage("queue1");
+		Assert.assertEquals("first", received.getNow(null).getBody());
+		Assert.assertTrue(asyncService.deleteMessage("queue1", received.getNow(null).getReceiptHandle()).getNow(false));
+		Assert.assertTrue(asyncService.sendMessage("unknown", "lost").isCompletedExceptionally());
+		try {
+			asyncService.sendMessage("queue1", null);
+			Assert.fail();
+		} catch (NullPointerException expected) {
+		}
+
+		// A long poll on the empty queue completes once a message arrives
+		CompletableFuture<Message> polled = asyncService.receiveMessage("queue1", 5, TimeUnit.SECONDS);
+		Assert.assertFalse(polled.isDone());
+		asyncService.sendMessage("queue1", "second");
+		Assert.assertEquals("second", polled.get(1, TimeUnit.SECONDS).getBody());
+		Assert.assertEquals(0, asyncService.getMessageCount("queue1").getNow(-1).intValue());
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testCreateQueueWithoutExecutor() throws InterruptedException {
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		QueueService service = new InMemoryQueueService(queues);
+		service.createQueue("queue1", null);
+		queues.get("queue1").withVisibilityTimeout(50);
+
+		service.sendMessage("queue1", "body");
+		Assert.assertEquals("body", service.recieveMessage("queue1").getBody());
+		Assert.assertNull(service.recieveMessage("queue1"));
+		// Requeued on the worker threads of the timing wheel
+		Thread.sleep(150);
+		Assert.assertEquals("body", service.recieveMessage("queue1").getBody());
+	}
+
+	@Test
+	public void testRequeueOffTheTickerThread() throws InterruptedException {
+
+		BlockingQueue<String> requeuedOn = new LinkedBlockingQueue<>();
+		ScheduledExecutorService rejecting = Executors.newScheduledThreadPool(1);
+		rejecting.shutdown();
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		queues.put("queue1", new MessageQueue<>(recordingDeque(requeuedOn)));
+		queues.put("queue2", new MessageQueue<>(recordingDeque(requeuedOn), rejecting));
+		QueueService service = new InMemoryQueueService(queues);
+
+		// Without an executor, and with one rejecting the requeue
+		for (String queueUrl : Arrays.asList("queue1", "queue2")) {
+			queues.get(queueUrl).withVisibilityTimeout(20);
+			service.sendMessage(queueUrl, "body");
+			Assert.assertEquals("body", service.recieveMessage(queueUrl).getBody());
+			String thread = requeuedOn.poll(5, TimeUnit.SECONDS);
+			Assert.assertTrue(thread, thread.startsWith("timing-wheel-worker-"));
+		}
+	}
+
+	private static BlockingDeque<Message> recordingDeque(BlockingQueue<String> requeuedOn) {
+		return new LinkedBlockingDeque<Message>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public boolean offerFirst(Message message) {
+				requeuedOn.add(Thread.currentThread().getName());
+				return super.offerFirst(message);
+			}
+		};
+	}
+
+	@Test
+	public void testBatches() {
+
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+		queues.put("queue1", new MessageQueue<>(new LinkedBlockingDeque<>(), scheduler));
+		QueueService service = new InMemoryQueueService(queues);
+
+		service.sendMessageBatch("queue1", Arrays.asList("first", "second", "third"));
+		List<Message> messages = service.receiveMessages("queue1", 2);
+		Assert.assertEquals(2, messages.size());
+		Assert.assertEquals("first", messages.get(0).getBody());
+		Assert.assertEquals("second", messages.get(1).getBody());
+
+		List<String> receiptHandles = Arrays.asList(messages.get(0).getReceiptHandle(),
+				messages.get(1).getReceiptHandle(), "unknown");
+		Assert.assertEquals(2, service.deleteMessageBatch("queue1", receiptHandles));
+		Assert.assertEquals(1, service.getMessageCount("queue1"));
+		scheduler.shutdown();
+	}
 }
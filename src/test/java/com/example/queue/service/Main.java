@@ -1,5 +1,6 @@
 package com.example.queue.service;
 
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -22,9 +23,9 @@ public class Main {
 
 	private static void testFileSystem() throws InterruptedException {
 		
-		ConcurrentMap<String, MessageQueue<FileQueue<Message>>> queues = new ConcurrentHashMap<>();
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-		MessageQueue<FileQueue<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), scheduler);
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new FileQueue<>("queue1"), scheduler);
 		messageQueue.withVisibilityTimeout(300);
 		queues.put("queue1", messageQueue);
 		QueueService service = new FileSystemQueueService(queues);
@@ -50,9 +51,9 @@ public class Main {
 	
 	private static void testInMemory() throws InterruptedException {
 
-		ConcurrentMap<String, MessageQueue<LinkedBlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
+		ConcurrentMap<String, MessageQueue<BlockingDeque<Message>>> queues = new ConcurrentHashMap<>();
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-		MessageQueue<LinkedBlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(), scheduler);
+		MessageQueue<BlockingDeque<Message>> messageQueue = new MessageQueue<>(new LinkedBlockingDeque<>(), scheduler);
 		messageQueue.withVisibilityTimeout(100);
 		queues.put("queue1", messageQueue);
 		QueueService service = new InMemoryQueueService(queues);